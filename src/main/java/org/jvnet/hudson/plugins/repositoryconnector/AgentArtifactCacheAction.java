@@ -0,0 +1,74 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import org.jvnet.hudson.plugins.repositoryconnector.util.AgentArtifactCache;
+
+import hudson.Extension;
+import hudson.Util;
+import hudson.model.Action;
+import hudson.model.Computer;
+import hudson.model.TransientComputerActionFactory;
+
+/**
+ * Shows the usage of the artifact cache on the page of an agent.
+ */
+public class AgentArtifactCacheAction implements Action {
+
+    private final Computer computer;
+
+    AgentArtifactCacheAction(Computer computer) {
+        this.computer = computer;
+    }
+
+    public String getCacheDirectory() {
+        return RepositoryConfiguration.get().getAgentCacheDirectory();
+    }
+
+    public long getCacheMaxSize() {
+        return RepositoryConfiguration.get().getAgentCacheMaxSize();
+    }
+
+    public Computer getComputer() {
+        return computer;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.AgentArtifactCache();
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "folder.png";
+    }
+
+    public AgentArtifactCache.Statistics getStatistics() {
+        return AgentArtifactCache.getStatistics(computer.getName());
+    }
+
+    @Override
+    public String getUrlName() {
+        return "repository-connector-cache";
+    }
+
+    @Extension
+    public static class Factory extends TransientComputerActionFactory {
+
+        @Override
+        public Collection<? extends Action> createFor(Computer target) {
+            // the controller's own executors never use the cache
+            if (Util.fixEmpty(target.getName()) == null || getCacheDirectory() == null) {
+                return Collections.emptyList();
+            }
+
+            return Collections.singletonList(new AgentArtifactCacheAction(target));
+        }
+
+        private static String getCacheDirectory() {
+            RepositoryConfiguration configuration = RepositoryConfiguration.get();
+            return configuration == null ? null : configuration.getAgentCacheDirectory();
+        }
+    }
+}
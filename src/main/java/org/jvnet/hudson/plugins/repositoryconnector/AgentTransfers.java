@@ -0,0 +1,49 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
+
+/**
+ * Outcome of the transfers of a step performed on an agent, sent back to the controller. It holds the timings recorded
+ * up to a failure as well, so they are reported whether the step failed or not, just like for transfers performed on
+ * the controller.
+ */
+final class AgentTransfers implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Exception failure;
+
+    private final ArrayList<TransferTimings> timings;
+
+    AgentTransfers(List<TransferTimings> timings, Exception failure) {
+        // sent back to the controller, so a serializable copy
+        this.timings = new ArrayList<>(timings);
+        this.failure = failure;
+    }
+
+    List<TransferTimings> getTimings() {
+        return timings;
+    }
+
+    /**
+     * Throws the failure of the transfers on the agent, if any.
+     */
+    void throwFailure() throws IOException, InterruptedException {
+        if (failure instanceof IOException) {
+            throw (IOException) failure;
+        }
+
+        if (failure instanceof InterruptedException) {
+            throw (InterruptedException) failure;
+        }
+
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package org.jvnet.hudson.plugins.repositoryconnector;
 
+import java.io.Serializable;
+
 import org.jenkinsci.Symbol;
 import org.jvnet.hudson.plugins.repositoryconnector.util.FormValidator;
 import org.kohsuke.stapler.DataBoundConstructor;
@@ -17,7 +19,9 @@ import hudson.util.FormValidation;
  * 
  * @author domi
  */
-public class Artifact extends AbstractDescribableImpl<Artifact> {
+public class Artifact extends AbstractDescribableImpl<Artifact> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final String DEFAULT_EXTENSION = "jar";
 
@@ -3,9 +3,14 @@ package org.jvnet.hudson.plugins.repositoryconnector;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 import net.sf.json.JSONObject;
 
@@ -15,6 +20,8 @@ import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilder;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilderFactory;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherSettings;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
 import org.jvnet.hudson.plugins.repositoryconnector.util.FilePathUtils;
 import org.jvnet.hudson.plugins.repositoryconnector.util.PomGenerator;
 import org.jvnet.hudson.plugins.repositoryconnector.util.RepositoryListBox;
@@ -31,11 +38,13 @@ import hudson.Launcher;
 import hudson.model.AbstractProject;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.BuildStepMonitor;
 import hudson.tasks.Notifier;
 import hudson.tasks.Publisher;
 import hudson.util.ListBoxModel;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.tasks.SimpleBuildStep;
 
 /**
@@ -49,6 +58,8 @@ public class ArtifactDeployer extends Notifier implements SimpleBuildStep {
 
     private final List<Artifact> artifacts;
 
+    private boolean deployOnAgent;
+
     private boolean enableRepositoryLogging;
 
     private boolean enableTransferLogging;
@@ -81,6 +92,10 @@ public class ArtifactDeployer extends Notifier implements SimpleBuildStep {
         return BuildStepMonitor.NONE;
     }
 
+    public boolean isDeployOnAgent() {
+        return deployOnAgent;
+    }
+
     public boolean isEnableRepositoryLogging() {
         return enableRepositoryLogging;
     }
@@ -94,22 +109,63 @@ public class ArtifactDeployer extends Notifier implements SimpleBuildStep {
         throws InterruptedException, IOException {
 
         TokenMacroExpander tokenExpander = createExpander(run, workspace, listener);
-        Aether aether = createAether(run, listener.getLogger());
 
         try {
+            List<Artifact> expanded = new ArrayList<>();
             for (Artifact artifact : artifacts) {
-                Artifact expanded = tokenExpander.expand(artifact);
+                expanded.add(tokenExpander.expand(artifact));
+            }
+
+            if (deployOnAgent) {
+                // artifacts are uploaded straight from the workspace, nothing is copied to the controller
+                AgentTransfers transfers = workspace.act(new AgentDeployer(this, createAetherSettings(run), expanded,
+                        listener));
+
+                TransferReportAction.addDeployed(run, transfers.getTimings());
+                transfers.throwFailure();
+                return;
+            }
+
+            Aether aether = createAether(run, listener.getLogger());
+            List<File> copies = new ArrayList<>();
+            List<Long> copyTimes = new ArrayList<>();
+
+            try {
+                for (Artifact artifact : expanded) {
+                    long start = System.nanoTime();
 
-                File pom = copyPomToLocal(workspace, expanded);
-                File local = copyArtifactToLocal(workspace, expanded);
+                    File pom = copyPomToLocal(workspace, artifact);
+                    copies.add(pom);
 
-                deploy(expanded, local, pom, aether, listener.getLogger());
+                    File local = copyArtifactToLocal(workspace, artifact);
+                    copies.add(local);
+
+                    setFiles(artifact, local, pom);
+                    copyTimes.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+
+                deploy(expanded, aether, repositoryId, listener.getLogger());
+            } finally {
+                // there are cases this misses, but they will be cleaned up by the os or on shutdown
+                copies.forEach(ArtifactDeployer::delete);
+
+                List<TransferTimings> timings = aether.getTransferTimings(expanded);
+                for (int i = 0; i < Math.min(timings.size(), copyTimes.size()); i++) {
+                    timings.get(i).setCopyTime(copyTimes.get(i));
+                }
+
+                TransferReportAction.addDeployed(run, timings);
             }
         } catch (MacroEvaluationException e) {
             throw new AbortException("Maven artifact deployment failed: " + e.getMessage());
         }
     }
 
+    @DataBoundSetter
+    public void setDeployOnAgent(boolean deployOnAgent) {
+        this.deployOnAgent = deployOnAgent;
+    }
+
     @DataBoundSetter
     public void setEnableRepositoryLogging(boolean enableRepositoryLogging) {
         this.enableRepositoryLogging = enableRepositoryLogging;
@@ -127,19 +183,15 @@ public class ArtifactDeployer extends Notifier implements SimpleBuildStep {
 
     // visible for unit testing
     Aether createAether(Run<?, ?> context, PrintStream console) {
-        AetherBuilder builder = Optional.ofNullable(aetherFactory)
-                .orElse(RepositoryConfiguration.createAetherFactory())
-                .createAetherBuilder(context);
-
-        if (enableRepositoryLogging) {
-            builder.setRepositoryLogger(console);
-        }
+        AetherBuilder builder = getAetherFactory().createAetherBuilder(context);
+        builder.setTransferRecording(true);
 
-        if (enableTransferLogging) {
-            builder.setTransferLogger(console);
-        }
+        return configureLogging(builder, enableRepositoryLogging, enableTransferLogging, console).build();
+    }
 
-        return builder.build();
+    // visible for unit testing
+    AetherSettings createAetherSettings(Run<?, ?> context) {
+        return getAetherFactory().createDeploymentSettings(context, repositoryId);
     }
 
     // visible for unit testing
@@ -161,31 +213,149 @@ public class ArtifactDeployer extends Notifier implements SimpleBuildStep {
         return FilePathUtils.copyToLocal(new FilePath(workspace, pomFile));
     }
 
+    private AetherBuilderFactory getAetherFactory() {
+        return Optional.ofNullable(aetherFactory)
+                .orElse(RepositoryConfiguration.createAetherFactory());
+    }
+
+    private static AetherBuilder configureLogging(AetherBuilder builder, boolean repositoryLogging, boolean transferLogging,
+            PrintStream console) {
+
+        if (repositoryLogging) {
+            builder.setRepositoryLogger(console);
+        }
+
+        if (transferLogging) {
+            builder.setTransferLogger(console);
+        }
+
+        return builder;
+    }
+
     @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE", justification = "delete")
-    private void deploy(Artifact artifact, File local, File pom, Aether aether, PrintStream console) throws AetherException {
+    private static void delete(File file) {
+        file.delete();
+    }
+
+    private static void deploy(List<Artifact> artifacts, Aether aether, String repositoryId, PrintStream console)
+        throws AetherException {
+
+        List<Artifact> toInstall = artifacts.stream()
+                .filter(Artifact::isDeployToLocal)
+                .collect(Collectors.toList());
+
+        Set<Artifact> failed = handleFailures(toInstall.isEmpty() ? Collections.emptyMap() : aether.installAll(toInstall),
+                console);
+
+        // an artifact that failed to install is not deployed either
+        List<Artifact> toDeploy = artifacts.stream()
+                .filter(Artifact::isDeployToRemote)
+                .filter(artifact -> !failed.contains(artifact))
+                .collect(Collectors.toList());
+
+        if (!toDeploy.isEmpty()) {
+            // artifacts sharing coordinates are deployed together, see Aether#deployAll
+            handleFailures(aether.deployAll(repositoryId, toDeploy), console);
+        }
+
+        if (aether.getQueuedTransfers() > 0) {
+            console.println(String.format("Waited %d ms for %d transfer slot(s)", aether.getQueueWaitTime(),
+                    aether.getQueuedTransfers()));
+        }
+    }
+
+    private static Set<Artifact> handleFailures(Map<Artifact, AetherException> failures, PrintStream console)
+        throws AetherException {
+
+        for (Map.Entry<Artifact, AetherException> entry : failures.entrySet()) {
+            Artifact artifact = entry.getKey();
+
+            if (artifact.isFailOnError()) {
+                throw entry.getValue();
+            }
+
+            console.println(String.format("Warning: failed to deploy %s - %s", artifact, entry.getValue().getMessage()));
+        }
+
+        return failures.keySet();
+    }
+
+    private static void setFiles(Artifact artifact, File local, File pom) {
         // this is already a copy from the expansion, so safe...
         artifact.setPomFile(pom.getAbsolutePath());
         artifact.setTargetFileName(local.getAbsolutePath());
+    }
 
-        try {
-            if (artifact.isDeployToLocal()) {
-                aether.install(artifact);
-            }
+    /**
+     * Deploys artifacts on the agent holding the workspace, the files are read in place and uploaded from there.
+     */
+    private static class AgentDeployer extends MasterToSlaveFileCallable<AgentTransfers> {
 
-            if (artifact.isDeployToRemote()) {
-                aether.deploy(repositoryId, artifact);
-            }
-        } catch (AetherException e) {
-            if (artifact.isFailOnError()) {
-                throw e;
+        private static final long serialVersionUID = 1L;
+
+        private final List<Artifact> artifacts;
+
+        private final TaskListener listener;
+
+        private final String repositoryId;
+
+        private final boolean repositoryLogging;
+
+        private final AetherSettings settings;
+
+        private final boolean transferLogging;
+
+        AgentDeployer(ArtifactDeployer deployer, AetherSettings settings, List<Artifact> artifacts, TaskListener listener) {
+            this.settings = settings;
+            this.artifacts = new ArrayList<>(artifacts);
+            this.listener = listener;
+
+            this.repositoryId = deployer.repositoryId;
+            this.repositoryLogging = deployer.enableRepositoryLogging;
+            this.transferLogging = deployer.enableTransferLogging;
+        }
+
+        @Override
+        public AgentTransfers invoke(File workspace, VirtualChannel channel) throws IOException, InterruptedException {
+            PrintStream console = listener.getLogger();
+
+            AetherBuilder builder = settings.createAetherBuilder();
+            builder.setTransferRecording(true);
+
+            Aether aether = configureLogging(builder, repositoryLogging, transferLogging, console).build();
+
+            List<File> generated = new ArrayList<>();
+
+            try {
+                for (Artifact artifact : artifacts) {
+                    File local = resolve(workspace, artifact.getTargetFileName());
+
+                    // only a generated pom is temporary, everything else belongs to the workspace
+                    File pom;
+                    if (artifact.getPomFile() == null) {
+                        pom = PomGenerator.generate(artifact);
+                        generated.add(pom);
+                    } else {
+                        pom = resolve(workspace, artifact.getPomFile());
+                    }
+
+                    setFiles(artifact, local, pom);
+                }
+
+                deploy(artifacts, aether, repositoryId, console);
+            } catch (IOException | RuntimeException e) {
+                // thrown on the controller once the timings are reported
+                return new AgentTransfers(aether.getTransferTimings(artifacts), e);
+            } finally {
+                generated.forEach(ArtifactDeployer::delete);
             }
 
-            console.println(String.format("Warning: failed to deploy %s - %s", artifact, e.getMessage()));
+            return new AgentTransfers(aether.getTransferTimings(artifacts), null);
         }
-        finally {
-            // there are cases this misses, but they will be cleaned up by the os or on shutdown
-            pom.delete();
-            local.delete();
+
+        private static File resolve(File workspace, String path) {
+            File file = new File(path);
+            return file.isAbsolute() ? file : new File(workspace, path);
         }
     }
 
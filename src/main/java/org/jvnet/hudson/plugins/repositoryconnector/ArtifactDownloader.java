@@ -0,0 +1,226 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositorySystemProvider;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.ResolutionResult;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
+import org.jvnet.hudson.plugins.repositoryconnector.util.AgentArtifactCache;
+
+import hudson.FilePath;
+
+/**
+ * Resolves artifacts and copies them into a target directory, either as a single batch or concurrently on a bounded
+ * number of threads.
+ */
+class ArtifactDownloader {
+
+    private final Aether aether;
+
+    private AgentArtifactCache cache;
+
+    private final PrintStream console;
+
+    private final Map<Artifact, Long> copyTimes;
+
+    private int parallelism;
+
+    private final String repositoryId;
+
+    private final FilePath targetDirectory;
+
+    ArtifactDownloader(Aether aether, String repositoryId, FilePath targetDirectory, PrintStream console) {
+        this.aether = aether;
+        this.repositoryId = repositoryId;
+        this.targetDirectory = targetDirectory;
+        this.console = console;
+
+        this.copyTimes = new ConcurrentHashMap<>();
+        this.parallelism = 1;
+    }
+
+    void download(List<Artifact> artifacts) throws IOException, InterruptedException {
+        if (parallelism > 1 && artifacts.size() > 1) {
+            downloadConcurrently(artifacts);
+        } else {
+            downloadAll(artifacts);
+        }
+
+        if (aether.getQueuedTransfers() > 0) {
+            console.println(String.format("Waited %d ms for %d transfer slot(s)", aether.getQueueWaitTime(),
+                    aether.getQueuedTransfers()));
+        }
+    }
+
+    /**
+     * Returns the timings of every artifact, including the time spent copying it to the target directory.
+     */
+    List<TransferTimings> getTransferTimings(List<Artifact> artifacts) {
+        List<TransferTimings> timings = aether.getTransferTimings(artifacts);
+
+        for (int i = 0; i < timings.size(); i++) {
+            Long copyTime = copyTimes.get(artifacts.get(i));
+            if (copyTime != null) {
+                timings.get(i).setCopyTime(TimeUnit.NANOSECONDS.toMillis(copyTime));
+            }
+        }
+
+        return timings;
+    }
+
+    ArtifactDownloader setCache(AgentArtifactCache cache) {
+        this.cache = cache;
+        return this;
+    }
+
+    ArtifactDownloader setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    private void copy(Artifact artifact, ResolutionResult result) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+
+        try {
+            copyToTarget(artifact, result);
+        } finally {
+            copyTimes.put(artifact, System.nanoTime() - start);
+        }
+    }
+
+    private void copyToTarget(Artifact artifact, ResolutionResult result) throws IOException, InterruptedException {
+        FilePath source = new FilePath(result.getFile());
+
+        String targetName = artifact.getTargetFileName();
+        FilePath destination = new FilePath(targetDirectory, targetName == null ? source.getName() : targetName);
+
+        if (cache != null) {
+            // replaces the destination itself, only transfers the file if the agent does not have it yet
+            cache.copy(artifact, result.getFile(), destination);
+            return;
+        }
+
+        if (destination.exists()) {
+            destination.delete();
+        }
+
+        source.copyTo(destination);
+    }
+
+    private void downloadAll(List<Artifact> artifacts) throws IOException, InterruptedException {
+        // resolve everything in one request, failures are handled per artifact when copying
+        Map<Artifact, ResolutionResult> results = aether.resolveAll(repositoryId, artifacts);
+
+        for (Map.Entry<Artifact, ResolutionResult> entry : results.entrySet()) {
+            Artifact artifact = entry.getKey();
+            ResolutionResult result = entry.getValue();
+
+            if (result.isResolved()) {
+                copy(artifact, result);
+            } else {
+                handleFailure(artifact, result.getException());
+            }
+        }
+    }
+
+    private void downloadConcurrently(List<Artifact> artifacts) throws IOException, InterruptedException {
+        int threads = Math.min(parallelism, artifacts.size());
+        ExecutorService executor = RepositorySystemProvider.createExecutor(ArtifactDownloader.class.getSimpleName(),
+                threads);
+
+        long start = System.nanoTime();
+
+        try {
+            List<Future<Download>> futures = new ArrayList<>();
+            for (Artifact artifact : artifacts) {
+                futures.add(executor.submit(() -> new Download(artifact).execute()));
+            }
+
+            long summed = 0;
+
+            // handle results in the configured order so console output does not depend on completion order
+            for (Future<Download> future : futures) {
+                Download download = getDownload(future);
+                summed += download.elapsed;
+
+                if (download.failure != null) {
+                    handleFailure(download.artifact, download.failure);
+                }
+            }
+
+            console.println(String.format("Resolved %d artifact(s) in %d ms using %d thread(s), summed transfer time %d ms",
+                    artifacts.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), threads,
+                    TimeUnit.NANOSECONDS.toMillis(summed)));
+        } finally {
+            // interrupts anything still running if a failure aborted the step
+            executor.shutdownNow();
+        }
+    }
+
+    private Download getDownload(Future<Download> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+
+            throw new IOException(cause);
+        }
+    }
+
+    private void handleFailure(Artifact artifact, IOException failure) throws IOException {
+        if (artifact.isFailOnError()) {
+            throw failure;
+        }
+
+        console.println(String.format("Failed to resolve %s - %s", artifact, failure.getMessage()));
+    }
+
+    private class Download {
+
+        private final Artifact artifact;
+
+        private long elapsed;
+
+        private IOException failure;
+
+        Download(Artifact artifact) {
+            this.artifact = artifact;
+        }
+
+        Download execute() throws InterruptedException {
+            long start = System.nanoTime();
+
+            try {
+                ResolutionResult result = aether.resolveAll(repositoryId, Collections.singletonList(artifact))
+                        .get(artifact);
+
+                if (result.isResolved()) {
+                    copy(artifact, result);
+                } else {
+                    failure = result.getException();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                elapsed = System.nanoTime() - start;
+            }
+
+            return this;
+        }
+    }
+}
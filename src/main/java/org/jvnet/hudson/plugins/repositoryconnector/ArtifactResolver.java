@@ -3,6 +3,7 @@ package org.jvnet.hudson.plugins.repositoryconnector;
 import java.io.File;
 import java.io.IOException;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -11,12 +12,15 @@ import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.tokenmacro.MacroEvaluationException;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilder;
-import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilderFactory;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherSettings;
+import org.jvnet.hudson.plugins.repositoryconnector.util.AgentArtifactCache;
+import org.jvnet.hudson.plugins.repositoryconnector.util.FormValidator;
 import org.jvnet.hudson.plugins.repositoryconnector.util.RepositoryListBox;
 import org.jvnet.hudson.plugins.repositoryconnector.util.TokenMacroExpander;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.QueryParameter;
 
 import hudson.AbortException;
 import hudson.Extension;
@@ -26,9 +30,12 @@ import hudson.Util;
 import hudson.model.AbstractProject;
 import hudson.model.Run;
 import hudson.model.TaskListener;
+import hudson.remoting.VirtualChannel;
 import hudson.tasks.BuildStepDescriptor;
 import hudson.tasks.Builder;
+import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
+import jenkins.MasterToSlaveFileCallable;
 import jenkins.tasks.SimpleBuildStep;
 
 /**
@@ -46,8 +53,12 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
 
     private boolean enableTransferLogging;
 
+    private int parallelism;
+
     private String repositoryId;
 
+    private boolean resolveOnAgent;
+
     private String targetDirectory;
 
     @DataBoundConstructor
@@ -61,12 +72,18 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
                 .orElse(Collections.emptyList());
 
         this.aetherFactory = aetherFactory;
+        this.parallelism = 1;
     }
 
     public List<Artifact> getArtifacts() {
         return artifacts;
     }
 
+    public int getParallelism() {
+        // configurations saved before this option existed load as 0
+        return Math.max(parallelism, 1);
+    }
+
     public String getRepositoryId() {
         return repositoryId;
     }
@@ -83,6 +100,10 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
         return enableTransferLogging;
     }
 
+    public boolean isResolveOnAgent() {
+        return resolveOnAgent;
+    }
+
     @Override
     public void perform(Run<?, ?> run, FilePath workspace, Launcher launcher, TaskListener listener)
         throws InterruptedException, IOException {
@@ -90,15 +111,35 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
         // TODO: if version parameter in use, verify selected repository matches what is configured here
 
         TokenMacroExpander tokenExpander = createExpander(run, workspace, listener);
-        Aether aether = createAether(run, listener.getLogger());
 
         try {
             String expandedTarget = tokenExpander.expand(this.targetDirectory);
             FilePath target = expandedTarget == null ? workspace : new FilePath(workspace, expandedTarget);
 
+            List<Artifact> expanded = new ArrayList<>();
             for (Artifact artifact : artifacts) {
-                Artifact expanded = tokenExpander.expand(artifact);
-                download(expanded, aether, target, listener.getLogger());
+                expanded.add(tokenExpander.expand(artifact));
+            }
+
+            if (resolveOnAgent) {
+                // artifacts are downloaded directly to the agent, the controller is not in the data path
+                AgentTransfers transfers = target.act(new AgentDownloader(this, createAetherSettings(run), expanded,
+                        listener));
+
+                TransferReportAction.addResolved(run, transfers.getTimings());
+                transfers.throwFailure();
+            } else {
+                Aether aether = createAether(run, listener.getLogger());
+                ArtifactDownloader downloader = new ArtifactDownloader(aether, repositoryId, target, listener.getLogger())
+                        .setParallelism(getParallelism())
+                        .setCache(createCache(target));
+
+                try {
+                    downloader.download(expanded);
+                } finally {
+                    // also reported when the step failed, that is when it matters the most
+                    TransferReportAction.addResolved(run, downloader.getTransferTimings(expanded));
+                }
             }
         } catch (MacroEvaluationException e) {
             throw new AbortException("Maven artifact resolution failed: " + e.getMessage());
@@ -115,11 +156,21 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
         this.enableTransferLogging = enableTransferLogging;
     }
 
+    @DataBoundSetter
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
     @DataBoundSetter
     public void setRepositoryId(String repositoryId) {
         this.repositoryId = Util.fixEmpty(repositoryId);
     }
 
+    @DataBoundSetter
+    public void setResolveOnAgent(boolean resolveOnAgent) {
+        this.resolveOnAgent = resolveOnAgent;
+    }
+
     @DataBoundSetter
     public void setTargetDirectory(String targetDirectory) {
         this.targetDirectory = Util.fixEmpty(targetDirectory);
@@ -127,19 +178,27 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
 
     // visible for unit testing
     Aether createAether(Run<?, ?> context, PrintStream console) {
-        AetherBuilder builder = Optional.ofNullable(aetherFactory)
-                .orElse(RepositoryConfiguration.createAetherFactory())
-                .createAetherBuilder(context);
+        AetherBuilder builder = getAetherFactory().createAetherBuilder(context);
+        builder.setTransferRecording(true);
 
-        if (enableRepositoryLogging) {
-            builder.setRepositoryLogger(console);
-        }
+        return configureLogging(builder, enableRepositoryLogging, enableTransferLogging, console).build();
+    }
 
-        if (enableTransferLogging) {
-            builder.setTransferLogger(console);
+    // visible for unit testing
+    AetherSettings createAetherSettings(Run<?, ?> context) {
+        return getAetherFactory().createResolutionSettings(context, repositoryId);
+    }
+
+    // visible for unit testing
+    AgentArtifactCache createCache(FilePath target) {
+        // checked first, the global configuration is only needed for remote targets
+        if (!target.isRemote()) {
+            return null;
         }
 
-        return builder.build();
+        RepositoryConfiguration configuration = RepositoryConfiguration.get();
+        return AgentArtifactCache.forTarget(target, configuration.getAgentCacheDirectory(),
+                configuration.getAgentCacheMaxSize());
     }
 
     // visible for unit testing
@@ -147,27 +206,78 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
         return new TokenMacroExpander(run, listener, workspace);
     }
 
-    private void download(Artifact artifact, Aether aether, FilePath targetDirectory, PrintStream console)
-        throws IOException, InterruptedException {
+    private AetherBuilderFactory getAetherFactory() {
+        return Optional.ofNullable(aetherFactory)
+                .orElse(RepositoryConfiguration.createAetherFactory());
+    }
 
-        try {
-            File file = aether.resolve(repositoryId, artifact);
-            FilePath source = new FilePath(file);
+    private static AetherBuilder configureLogging(AetherBuilder builder, boolean repositoryLogging, boolean transferLogging,
+            PrintStream console) {
 
-            String targetName = artifact.getTargetFileName();
-            FilePath destination = new FilePath(targetDirectory, targetName == null ? source.getName() : targetName);
+        if (repositoryLogging) {
+            builder.setRepositoryLogger(console);
+        }
 
-            if (destination.exists()) {
-                destination.delete();
-            }
+        if (transferLogging) {
+            builder.setTransferLogger(console);
+        }
+
+        return builder;
+    }
+
+    /**
+     * Resolves artifacts on the agent holding the workspace, into the local repository of that agent.
+     */
+    private static class AgentDownloader extends MasterToSlaveFileCallable<AgentTransfers> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final List<Artifact> artifacts;
+
+        private final TaskListener listener;
+
+        private final int parallelism;
+
+        private final String repositoryId;
+
+        private final boolean repositoryLogging;
+
+        private final AetherSettings settings;
 
-            source.copyTo(destination);
-        } catch (AetherException e) {
-            if (artifact.isFailOnError()) {
-                throw e;
+        private final boolean transferLogging;
+
+        AgentDownloader(ArtifactResolver resolver, AetherSettings settings, List<Artifact> artifacts, TaskListener listener) {
+            this.settings = settings;
+            this.artifacts = new ArrayList<>(artifacts);
+            this.listener = listener;
+
+            this.parallelism = resolver.getParallelism();
+            this.repositoryId = resolver.repositoryId;
+            this.repositoryLogging = resolver.enableRepositoryLogging;
+            this.transferLogging = resolver.enableTransferLogging;
+        }
+
+        @Override
+        public AgentTransfers invoke(File targetDirectory, VirtualChannel channel) throws IOException, InterruptedException {
+
+            PrintStream console = listener.getLogger();
+
+            AetherBuilder builder = settings.createAetherBuilder();
+            builder.setTransferRecording(true);
+
+            Aether aether = configureLogging(builder, repositoryLogging, transferLogging, console).build();
+
+            ArtifactDownloader downloader = new ArtifactDownloader(aether, repositoryId, new FilePath(targetDirectory), console)
+                    .setParallelism(parallelism);
+
+            try {
+                downloader.download(artifacts);
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                // thrown on the controller once the timings are reported
+                return new AgentTransfers(downloader.getTransferTimings(artifacts), e);
             }
 
-            console.println(String.format("Failed to resolve %s - %s", artifact, e.getMessage()));
+            return new AgentTransfers(downloader.getTransferTimings(artifacts), null);
         }
     }
 
@@ -175,6 +285,10 @@ public class ArtifactResolver extends Builder implements SimpleBuildStep {
     @Symbol("artifactResolver")
     public static class DescriptorImpl extends BuildStepDescriptor<Builder> {
 
+        public FormValidation doCheckParallelism(@QueryParameter String value) {
+            return FormValidator.validateParallelism(value);
+        }
+
         public ListBoxModel doFillRepositoryIdItems() {
             return new RepositoryListBox(RepositoryConfiguration.get().getRepositories())
                     .withSelectAll();
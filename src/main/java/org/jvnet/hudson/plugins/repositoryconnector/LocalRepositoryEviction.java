@@ -0,0 +1,56 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jvnet.hudson.plugins.repositoryconnector.util.LocalRepositoryIndex;
+
+import hudson.Extension;
+import hudson.Functions;
+import hudson.model.AsyncPeriodicWork;
+import hudson.model.TaskListener;
+
+/**
+ * Evicts the least recently used artifacts from the local repository of the controller, once it grows beyond the
+ * configured size or they were not used for the configured number of days.
+ * <p>
+ * Runs in the background, resolutions are not blocked while the repository is scanned.
+ */
+@Extension
+public class LocalRepositoryEviction extends AsyncPeriodicWork {
+
+    private static final Logger logger = Logger.getLogger(LocalRepositoryEviction.class.getName());
+
+    public LocalRepositoryEviction() {
+        super("Repository Connector local repository eviction");
+    }
+
+    @Override
+    public long getRecurrencePeriod() {
+        return HOUR;
+    }
+
+    @Override
+    protected void execute(TaskListener listener) throws IOException, InterruptedException {
+        RepositoryConfiguration configuration = RepositoryConfiguration.get();
+        LocalRepositoryIndex index = configuration == null ? null : configuration.getLocalRepositoryIndex();
+
+        if (index == null) {
+            return;
+        }
+
+        long maxSize = configuration.getLocalRepositoryMaxSize() * 1024 * 1024;
+        long maxAge = TimeUnit.DAYS.toMillis(configuration.getLocalRepositoryMaxAge());
+
+        LocalRepositoryIndex.Result result = index.evict(maxSize, maxAge);
+
+        String message = String.format("evicted %d artifact versions (%s) from %s, %s left", result.getEvicted(),
+                Functions.humanReadableByteSize(result.getFreed()), index.getDirectory(),
+                Functions.humanReadableByteSize(result.getSize()));
+
+        listener.getLogger().println(message);
+        logger.log(result.getEvicted() > 0 ? Level.INFO : Level.FINE, message);
+    }
+}
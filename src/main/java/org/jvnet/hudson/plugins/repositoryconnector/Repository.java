@@ -1,9 +1,11 @@
 package org.jvnet.hudson.plugins.repositoryconnector;
 
+import java.io.Serializable;
 import java.util.Objects;
 
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherConstants;
 import org.jvnet.hudson.plugins.repositoryconnector.util.CredentialsUtilities;
+import org.jvnet.hudson.plugins.repositoryconnector.util.FormValidator;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
@@ -22,7 +24,9 @@ import jenkins.model.Jenkins;
  * 
  * @author domi
  */
-public class Repository extends AbstractDescribableImpl<Repository> implements Comparable<Repository> {
+public class Repository extends AbstractDescribableImpl<Repository> implements Comparable<Repository>, Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     public static final String CENTRAL = "central";
 
@@ -30,6 +34,8 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
 
     public static final Repository MAVEN_CENTRAL = createCentralRepository();
 
+    private boolean adaptiveConcurrency;
+
     private String credentialsId;
 
     private boolean enableReleaseRepository;
@@ -38,6 +44,8 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
 
     private final String id;
 
+    private int maxConcurrentTransfers;
+
     @Deprecated
     private Secret password;
 
@@ -53,11 +61,14 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
     public Repository(Repository toClone) {
         this(toClone.id, toClone.url);
 
+        this.adaptiveConcurrency = toClone.adaptiveConcurrency;
         this.credentialsId = toClone.credentialsId;
 
         this.enableReleaseRepository = toClone.enableReleaseRepository;
         this.enableSnapshotRepository = toClone.enableSnapshotRepository;
 
+        this.maxConcurrentTransfers = toClone.maxConcurrentTransfers;
+
         this.releaseRepository = new RepositoryType(toClone.releaseRepository);
         this.snapshotRepository = new RepositoryType(toClone.snapshotRepository);
     }
@@ -99,6 +110,13 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
         return id;
     }
 
+    /**
+     * Returns the maximum number of concurrent transfers to this repository of all builds, <code>0</code> if unlimited.
+     */
+    public int getMaxConcurrentTransfers() {
+        return maxConcurrentTransfers;
+    }
+
     @Deprecated
     public String getPassword() {
         return Util.fixEmpty(Secret.toString(password));
@@ -139,6 +157,14 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
         return user != null && password != null;
     }
 
+    /**
+     * Returns <code>true</code> if the number of concurrent transfers to this repository adapts to its latency and
+     * errors, up to {@link #getMaxConcurrentTransfers()}.
+     */
+    public boolean isAdaptiveConcurrency() {
+        return adaptiveConcurrency;
+    }
+
     public boolean isEnableReleaseRepository() {
         return enableReleaseRepository;
     }
@@ -147,6 +173,11 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
         return enableSnapshotRepository;
     }
 
+    @DataBoundSetter
+    public void setAdaptiveConcurrency(boolean adaptiveConcurrency) {
+        this.adaptiveConcurrency = adaptiveConcurrency;
+    }
+
     @DataBoundSetter
     public void setCredentialsId(String credentialsId) {
         this.credentialsId = Util.fixEmpty(credentialsId);
@@ -162,6 +193,11 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
         this.enableSnapshotRepository = enableSnapshotRepository;
     }
 
+    @DataBoundSetter
+    public void setMaxConcurrentTransfers(int maxConcurrentTransfers) {
+        this.maxConcurrentTransfers = Math.max(maxConcurrentTransfers, 0);
+    }
+
     @Deprecated
     public void setPassword(String password) {
         this.password = Secret.fromString(password);
@@ -205,6 +241,10 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
             return Util.fixEmpty(value) == null ? FormValidation.error("Name is required") : FormValidation.ok();
         }
 
+        public FormValidation doCheckMaxConcurrentTransfers(@QueryParameter String value) {
+            return FormValidator.validateMaxTransfers(value);
+        }
+
         public FormValidation doCheckUrl(@QueryParameter String value) {
             return Util.fixEmpty(value) == null ? FormValidation.error("Endpoint is required") : FormValidation.ok();
         }
@@ -231,7 +271,9 @@ public class Repository extends AbstractDescribableImpl<Repository> implements C
         }
     }
 
-    public static class RepositoryType extends AbstractDescribableImpl<RepositoryType> {
+    public static class RepositoryType extends AbstractDescribableImpl<RepositoryType> implements Serializable {
+
+        private static final long serialVersionUID = 1L;
 
         public static final RepositoryType DEFAULT =
                 new RepositoryType(AetherConstants.DEFAULT_CHECKSUM, AetherConstants.DEFAULT_UPDATE, null, null);
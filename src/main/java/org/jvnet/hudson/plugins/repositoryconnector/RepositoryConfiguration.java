@@ -5,25 +5,42 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import net.sf.json.JSONObject;
 
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+
 import org.jenkinsci.Symbol;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilderFactory;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RemoteRepositoryCache;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferScheduler;
+import org.jvnet.hudson.plugins.repositoryconnector.util.CredentialsCache;
 import org.jvnet.hudson.plugins.repositoryconnector.util.CredentialsUtilities;
 import org.jvnet.hudson.plugins.repositoryconnector.util.FormValidator;
+import org.jvnet.hudson.plugins.repositoryconnector.util.LocalRepositoryIndex;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionListCache;
 import org.kohsuke.stapler.DataBoundSetter;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.StaplerRequest;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 import hudson.Extension;
 import hudson.Util;
+import hudson.XmlFile;
 import hudson.init.InitMilestone;
 import hudson.init.Initializer;
+import hudson.model.ItemGroup;
+import hudson.model.Saveable;
+import hudson.model.User;
+import hudson.model.listeners.SaveableListener;
 import hudson.util.FormValidation;
 import jenkins.model.GlobalConfiguration;
+import jenkins.model.Jenkins;
 
 /**
  * Global configuration for the <code>Repository Connector</code> plugin.
@@ -36,12 +53,38 @@ public class RepositoryConfiguration extends GlobalConfiguration {
 
     private static Logger logger = Logger.getLogger(RepositoryConfiguration.class.getName());
 
+    private String agentCacheDirectory;
+
+    private long agentCacheMaxSize;
+
+    private transient final CredentialsCache credentialsCache = new CredentialsCache();
+
     private String localRepository;
 
+    private int localRepositoryMaxAge;
+
+    private long localRepositoryMaxSize;
+
+    private int maxConcurrentTransfers;
+
     private boolean migratedCredentials;
 
+    private transient final MissingArtifactCache missingArtifactCache = new MissingArtifactCache();
+
+    private int missingArtifactCacheMaxEntries = MissingArtifactCache.DEFAULT_MAX_ENTRIES;
+
+    private int missingArtifactCacheTtl = MissingArtifactCache.DEFAULT_TTL;
+
+    private boolean parallelVersionResolution;
+
     private final Map<String, Repository> repositories;
 
+    private transient final VersionListCache versionCache = new VersionListCache();
+
+    private int versionCacheMaxEntries = VersionListCache.DEFAULT_MAX_ENTRIES;
+
+    private int versionCacheTtl = VersionListCache.DEFAULT_TTL;
+
     public RepositoryConfiguration() {
         this.repositories = new HashMap<>();
         load();
@@ -52,18 +95,129 @@ public class RepositoryConfiguration extends GlobalConfiguration {
         return super.configure(req, json);
     }
 
+    public FormValidation doCheckAgentCacheMaxSize(@QueryParameter String agentCacheMaxSize) {
+        return FormValidator.validateCacheSize(agentCacheMaxSize);
+    }
+
     public FormValidation doCheckLocalRepository(@QueryParameter String localRepository) {
         return FormValidator.validateLocalDirectory(localRepository);
     }
 
+    public FormValidation doCheckLocalRepositoryMaxAge(@QueryParameter String localRepositoryMaxAge) {
+        return FormValidator.validateMaxAge(localRepositoryMaxAge);
+    }
+
+    public FormValidation doCheckLocalRepositoryMaxSize(@QueryParameter String localRepositoryMaxSize) {
+        return FormValidator.validateCacheSize(localRepositoryMaxSize);
+    }
+
+    public FormValidation doCheckMaxConcurrentTransfers(@QueryParameter String maxConcurrentTransfers) {
+        return FormValidator.validateMaxTransfers(maxConcurrentTransfers);
+    }
+
+    public FormValidation doCheckMissingArtifactCacheMaxEntries(@QueryParameter String missingArtifactCacheMaxEntries) {
+        return FormValidator.validateCacheEntries(missingArtifactCacheMaxEntries);
+    }
+
+    public FormValidation doCheckMissingArtifactCacheTtl(@QueryParameter String missingArtifactCacheTtl) {
+        return FormValidator.validateCacheTtl(missingArtifactCacheTtl);
+    }
+
+    public FormValidation doCheckVersionCacheMaxEntries(@QueryParameter String versionCacheMaxEntries) {
+        return FormValidator.validateCacheEntries(versionCacheMaxEntries);
+    }
+
+    public FormValidation doCheckVersionCacheTtl(@QueryParameter String versionCacheTtl) {
+        return FormValidator.validateCacheTtl(versionCacheTtl);
+    }
+
+    /**
+     * Forgets every artifact that was not found, so it is looked up again by the next build.
+     */
+    @RequirePOST
+    public FormValidation doPurgeMissingArtifactCache() {
+        Jenkins.get().checkPermission(Jenkins.ADMINISTER);
+
+        int purged = missingArtifactCache.clear();
+        logger.log(Level.INFO, "purged {0} missing artifacts", purged);
+
+        return FormValidation.ok(Messages.PurgedMissingArtifacts(purged));
+    }
+
+    public String getAgentCacheDirectory() {
+        return agentCacheDirectory;
+    }
+
+    public long getAgentCacheMaxSize() {
+        return agentCacheMaxSize;
+    }
+
+    public CredentialsCache getCredentialsCache() {
+        return credentialsCache;
+    }
+
     public String getLocalRepository() {
         return localRepository;
     }
 
+    /**
+     * Returns the index of the local repository if artifacts are evicted from it, otherwise <code>null</code>.
+     */
+    public LocalRepositoryIndex getLocalRepositoryIndex() {
+        if (localRepositoryMaxAge == 0 && localRepositoryMaxSize == 0) {
+            return null;
+        }
+
+        return LocalRepositoryIndex.forDirectory(AetherBuilderFactory.getLocalRepositoryPath(localRepository));
+    }
+
+    public int getLocalRepositoryMaxAge() {
+        return localRepositoryMaxAge;
+    }
+
+    public long getLocalRepositoryMaxSize() {
+        return localRepositoryMaxSize;
+    }
+
+    /**
+     * Returns the maximum number of concurrent transfers of all builds, <code>0</code> if unlimited.
+     */
+    public int getMaxConcurrentTransfers() {
+        return maxConcurrentTransfers;
+    }
+
+    public MissingArtifactCache getMissingArtifactCache() {
+        return missingArtifactCache;
+    }
+
+    public int getMissingArtifactCacheMaxEntries() {
+        return missingArtifactCacheMaxEntries;
+    }
+
+    public int getMissingArtifactCacheTtl() {
+        return missingArtifactCacheTtl;
+    }
+
     public Collection<Repository> getRepositories() {
         return Collections.unmodifiableCollection(repositories.values());
     }
 
+    public VersionListCache getVersionCache() {
+        return versionCache;
+    }
+
+    public int getVersionCacheMaxEntries() {
+        return versionCacheMaxEntries;
+    }
+
+    public int getVersionCacheTtl() {
+        return versionCacheTtl;
+    }
+
+    public boolean isParallelVersionResolution() {
+        return parallelVersionResolution;
+    }
+
     public boolean hasMultipleRepositories() {
         return repositories.size() > 1;
     }
@@ -76,6 +230,10 @@ public class RepositoryConfiguration extends GlobalConfiguration {
             logger.info("no saved repositories found, initializing list using maven central default");
             setRepositories(Arrays.asList(Repository.MAVEN_CENTRAL));
         }
+
+        versionCache.configure(versionCacheTtl, versionCacheMaxEntries);
+        missingArtifactCache.configure(missingArtifactCacheTtl, missingArtifactCacheMaxEntries);
+        configureTransferScheduler();
     }
 
     @Initializer(after = InitMilestone.JOB_LOADED)
@@ -93,12 +251,63 @@ public class RepositoryConfiguration extends GlobalConfiguration {
         save();
     }
 
+    @DataBoundSetter
+    public void setAgentCacheDirectory(String agentCacheDirectory) {
+        this.agentCacheDirectory = Util.fixEmpty(agentCacheDirectory);
+        save();
+    }
+
+    @DataBoundSetter
+    public void setAgentCacheMaxSize(long agentCacheMaxSize) {
+        this.agentCacheMaxSize = Math.max(agentCacheMaxSize, 0);
+        save();
+    }
+
     @DataBoundSetter
     public void setLocalRepository(String localRepository) {
         this.localRepository = Util.fixEmpty(localRepository);
         save();
     }
 
+    @DataBoundSetter
+    public void setLocalRepositoryMaxAge(int localRepositoryMaxAge) {
+        this.localRepositoryMaxAge = Math.max(localRepositoryMaxAge, 0);
+        save();
+    }
+
+    @DataBoundSetter
+    public void setLocalRepositoryMaxSize(long localRepositoryMaxSize) {
+        this.localRepositoryMaxSize = Math.max(localRepositoryMaxSize, 0);
+        save();
+    }
+
+    @DataBoundSetter
+    public void setMaxConcurrentTransfers(int maxConcurrentTransfers) {
+        this.maxConcurrentTransfers = Math.max(maxConcurrentTransfers, 0);
+        configureTransferScheduler();
+        save();
+    }
+
+    @DataBoundSetter
+    public void setMissingArtifactCacheMaxEntries(int missingArtifactCacheMaxEntries) {
+        this.missingArtifactCacheMaxEntries = Math.max(missingArtifactCacheMaxEntries, 1);
+        missingArtifactCache.configure(missingArtifactCacheTtl, this.missingArtifactCacheMaxEntries);
+        save();
+    }
+
+    @DataBoundSetter
+    public void setMissingArtifactCacheTtl(int missingArtifactCacheTtl) {
+        this.missingArtifactCacheTtl = Math.max(missingArtifactCacheTtl, 0);
+        missingArtifactCache.configure(this.missingArtifactCacheTtl, missingArtifactCacheMaxEntries);
+        save();
+    }
+
+    @DataBoundSetter
+    public void setParallelVersionResolution(boolean parallelVersionResolution) {
+        this.parallelVersionResolution = parallelVersionResolution;
+        save();
+    }
+
     @DataBoundSetter
     public void setRepositories(Collection<Repository> toAdd) {
         repositories.clear();
@@ -108,15 +317,72 @@ public class RepositoryConfiguration extends GlobalConfiguration {
             repositories.put(repository.getId(), repository);
         });
 
+        // the versions may come from a different repository now
+        versionCache.clear();
+        missingArtifactCache.clear();
+        RemoteRepositoryCache.clear();
+
+        configureTransferScheduler();
+        save();
+    }
+
+    @DataBoundSetter
+    public void setVersionCacheMaxEntries(int versionCacheMaxEntries) {
+        this.versionCacheMaxEntries = Math.max(versionCacheMaxEntries, 1);
+        versionCache.configure(versionCacheTtl, this.versionCacheMaxEntries);
         save();
     }
 
+    @DataBoundSetter
+    public void setVersionCacheTtl(int versionCacheTtl) {
+        this.versionCacheTtl = Math.max(versionCacheTtl, 0);
+        versionCache.configure(this.versionCacheTtl, versionCacheMaxEntries);
+        save();
+    }
+
+    private void configureTransferScheduler() {
+        Map<String, Integer> limits = new HashMap<>();
+        repositories.values().forEach(repository -> limits.put(repository.getId(), repository.getMaxConcurrentTransfers()));
+
+        Set<String> adaptive = repositories.values()
+                .stream()
+                .filter(Repository::isAdaptiveConcurrency)
+                .map(Repository::getId)
+                .collect(Collectors.toSet());
+
+        TransferScheduler.configure(maxConcurrentTransfers, limits, adaptive);
+    }
+
     public static AetherBuilderFactory createAetherFactory() {
         RepositoryConfiguration configuration = get();
-        return new AetherBuilderFactory(configuration.getLocalRepository(), configuration.getRepositories());
+        return new AetherBuilderFactory(configuration.getLocalRepository(), configuration.getRepositories())
+                .setCredentialsCache(configuration.getCredentialsCache())
+                .setLocalRepositoryIndex(configuration.getLocalRepositoryIndex())
+                .setMissingArtifactCache(configuration.getMissingArtifactCache())
+                .setParallelVersionResolution(configuration.isParallelVersionResolution());
     }
 
     public static RepositoryConfiguration get() {
         return GlobalConfiguration.all().get(RepositoryConfiguration.class);
     }
+
+    /**
+     * Drops everything built from credentials whenever they may have changed. Global credentials are held by the
+     * {@link SystemCredentialsProvider}, folder and user credentials are saved with their owner.
+     */
+    @Extension
+    public static class CredentialsListener extends SaveableListener {
+
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof SystemCredentialsProvider || o instanceof ItemGroup || o instanceof User) {
+                RemoteRepositoryCache.clear();
+
+                RepositoryConfiguration configuration = get();
+                if (configuration != null) {
+                    configuration.getCredentialsCache().clear();
+                }
+            }
+        }
+    }
 }
@@ -0,0 +1,115 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics.OperationMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics.TransferMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferScheduler;
+import org.kohsuke.stapler.StaplerProxy;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import hudson.Extension;
+import hudson.model.Api;
+import hudson.model.RootAction;
+import jenkins.model.Jenkins;
+
+/**
+ * Publishes the {@link RepositoryMetrics} as json at <code>/repository-connector-metrics/api/json</code>, so they
+ * can be scraped without the <code>Metrics</code> plugin. The action is not shown in the side panel.
+ */
+@Extension
+@ExportedBean
+public class RepositoryMetricsAction implements RootAction, StaplerProxy {
+
+    public Api getApi() {
+        return new Api(this);
+    }
+
+    /**
+     * Current concurrency limit of every repository whose limit adapts to its latency, by repository id.
+     */
+    @Exported
+    public Map<String, Integer> getAdaptiveLimits() {
+        return TransferScheduler.getAdaptiveLimits();
+    }
+
+    /**
+     * Upper bounds in milliseconds of the buckets of each operation histogram, the last bucket has none.
+     */
+    @Exported
+    public long[] getBuckets() {
+        return RepositoryMetrics.getBuckets();
+    }
+
+    @Exported
+    public double getCacheHitRatio() {
+        return RepositoryMetrics.getCacheHitRatio();
+    }
+
+    @Exported
+    public long getCacheHits() {
+        return RepositoryMetrics.getCacheHits();
+    }
+
+    @Exported
+    public long getCacheMisses() {
+        return RepositoryMetrics.getCacheMisses();
+    }
+
+    @Exported
+    public long getCoalesced() {
+        return RepositoryMetrics.getCoalesced();
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.RepositoryMetrics();
+    }
+
+    @Exported
+    public long getErrors() {
+        return RepositoryMetrics.getErrors();
+    }
+
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Exported
+    public int getInFlight() {
+        return RepositoryMetrics.getInFlight();
+    }
+
+    @Exported
+    public List<OperationMetrics> getOperations() {
+        return RepositoryMetrics.getOperations();
+    }
+
+    /**
+     * Transfers waiting for a slot of the {@link TransferScheduler}.
+     */
+    @Exported
+    public int getQueued() {
+        return TransferScheduler.getQueued();
+    }
+
+    @Override
+    public Object getTarget() {
+        Jenkins.get().checkPermission(Jenkins.SYSTEM_READ);
+        return this;
+    }
+
+    @Exported
+    public List<TransferMetrics> getTransfers() {
+        return RepositoryMetrics.getTransfers();
+    }
+
+    @Override
+    public String getUrlName() {
+        return "repository-connector-metrics";
+    }
+}
@@ -0,0 +1,69 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.codahale.metrics.MetricRegistry;
+import com.codahale.metrics.MetricSet;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferScheduler;
+
+import hudson.Extension;
+import jenkins.metrics.api.MetricProvider;
+import jenkins.metrics.api.Metrics;
+
+/**
+ * Publishes the {@link RepositoryMetrics} through the <code>Metrics</code> plugin, only loaded if it is installed.
+ * <p>
+ * The totals are gauges reading the plugin's own counters. Operations and transfers are recorded as timers and meters
+ * named after the repository, ie <code>repository-connector.central.resolve</code>, they are only registered once the
+ * repository is used.
+ */
+@Extension(optional = true)
+public class RepositoryMetricsProvider extends MetricProvider implements RepositoryMetrics.Listener {
+
+    private static final String PREFIX = "repository-connector";
+
+    public RepositoryMetricsProvider() {
+        RepositoryMetrics.addListener(this);
+    }
+
+    @Override
+    public MetricSet getMetricSet() {
+        Map<String, Metric> metrics = new HashMap<>();
+
+        metrics.put(MetricRegistry.name(PREFIX, "cache", "hit-ratio"), (Gauge<Double>) RepositoryMetrics::getCacheHitRatio);
+        metrics.put(MetricRegistry.name(PREFIX, "resolutions", "coalesced"), (Gauge<Long>) RepositoryMetrics::getCoalesced);
+        metrics.put(MetricRegistry.name(PREFIX, "errors"), (Gauge<Long>) RepositoryMetrics::getErrors);
+        metrics.put(MetricRegistry.name(PREFIX, "transfers", "in-flight"), (Gauge<Integer>) RepositoryMetrics::getInFlight);
+        metrics.put(MetricRegistry.name(PREFIX, "transfers", "queued"), (Gauge<Integer>) TransferScheduler::getQueued);
+
+        return () -> metrics;
+    }
+
+    @Override
+    public void operationCompleted(String repositoryId, String operation, long nanos, boolean failed) {
+        MetricRegistry registry = Metrics.metricRegistry();
+
+        registry.timer(MetricRegistry.name(PREFIX, repositoryId, operation)).update(nanos, TimeUnit.NANOSECONDS);
+
+        if (failed) {
+            registry.meter(MetricRegistry.name(PREFIX, repositoryId, operation, "errors")).mark();
+        }
+    }
+
+    @Override
+    public void transferCompleted(String repositoryId, long bytes, boolean upload, boolean failed) {
+        MetricRegistry registry = Metrics.metricRegistry();
+
+        registry.meter(MetricRegistry.name(PREFIX, repositoryId, upload ? "bytes-out" : "bytes-in")).mark(bytes);
+
+        if (failed) {
+            registry.meter(MetricRegistry.name(PREFIX, repositoryId, "transfers", "failures")).mark();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package org.jvnet.hudson.plugins.repositoryconnector;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+import hudson.model.Run;
+import jenkins.model.RunAction2;
+
+/**
+ * Shows where the time went while resolving and deploying artifacts on the page of a build, every resolver and
+ * deployer step of the build adds to the same report.
+ */
+@ExportedBean
+public class TransferReportAction implements RunAction2 {
+
+    // the run is locked by core while it is saved or loaded, so it is not used to create the action
+    private static final Object lock = new Object();
+
+    private final List<TransferTimings> deployed;
+
+    private final List<TransferTimings> resolved;
+
+    private transient Run<?, ?> run;
+
+    TransferReportAction() {
+        this.deployed = new ArrayList<>();
+        this.resolved = new ArrayList<>();
+    }
+
+    @Exported
+    public synchronized List<TransferTimings> getDeployed() {
+        return new ArrayList<>(deployed);
+    }
+
+    @Override
+    public String getDisplayName() {
+        return Messages.TransferReport();
+    }
+
+    @Override
+    public String getIconFileName() {
+        return "clipboard.png";
+    }
+
+    @Exported
+    public synchronized List<TransferTimings> getResolved() {
+        return new ArrayList<>(resolved);
+    }
+
+    public Run<?, ?> getRun() {
+        return run;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "repository-connector-transfers";
+    }
+
+    @Override
+    public void onAttached(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    @Override
+    public void onLoad(Run<?, ?> r) {
+        this.run = r;
+    }
+
+    /**
+     * Adds the timings of deployed artifacts to the report of the build, nothing is added if there are none.
+     */
+    static void addDeployed(Run<?, ?> run, List<TransferTimings> timings) {
+        if (!timings.isEmpty()) {
+            TransferReportAction action = getOrCreate(run);
+
+            synchronized (action) {
+                action.deployed.addAll(timings);
+            }
+        }
+    }
+
+    /**
+     * Adds the timings of resolved artifacts to the report of the build, nothing is added if there are none.
+     */
+    static void addResolved(Run<?, ?> run, List<TransferTimings> timings) {
+        if (!timings.isEmpty()) {
+            TransferReportAction action = getOrCreate(run);
+
+            synchronized (action) {
+                action.resolved.addAll(timings);
+            }
+        }
+    }
+
+    private static TransferReportAction getOrCreate(Run<?, ?> run) {
+        // parallel branches of a pipeline may add to the same build
+        synchronized (lock) {
+            TransferReportAction action = run.getAction(TransferReportAction.class);
+
+            if (action == null) {
+                action = new TransferReportAction();
+                run.addAction(action);
+            }
+
+            return action;
+        }
+    }
+}
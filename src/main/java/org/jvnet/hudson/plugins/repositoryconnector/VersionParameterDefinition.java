@@ -13,18 +13,25 @@ import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
 import org.jvnet.hudson.plugins.repositoryconnector.util.FormValidator;
 import org.jvnet.hudson.plugins.repositoryconnector.util.RepositoryListBox;
 import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionListCache;
 import org.kohsuke.stapler.AncestorInPath;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.kohsuke.stapler.DataBoundSetter;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
 import org.kohsuke.stapler.QueryParameter;
 import org.kohsuke.stapler.Stapler;
 import org.kohsuke.stapler.StaplerRequest;
 import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.interceptor.RequirePOST;
 
 import hudson.Extension;
 import hudson.Util;
 import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.ParameterDefinition;
 import hudson.model.ParameterValue;
+import hudson.model.ParametersDefinitionProperty;
 import hudson.model.SimpleParameterDefinition;
 import hudson.util.FormValidation;
 import hudson.util.ListBoxModel;
@@ -113,11 +120,15 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
         Artifact artifact = new Artifact(groupId, artifactId, null);
         List<String> versions = new ArrayList<>();
 
-        try {
-            Aether aether = createAether();
+        // looked up while still on the request thread, the versions may be refreshed in the background
+        Item project = getProject();
+        VersionFilter filter = createVersionFilter(includeReleases, includeSnapshots);
+
+        int max = getMaxVersions();
 
-            versions.addAll(aether.resolveAvailableVersions(repositoryId, artifact, oldestFirst,
-                    createVersionFilter(includeReleases, includeSnapshots)));
+        try {
+            versions.addAll(getVersionCache().get(createCacheKey(project),
+                    () -> createAether(project).resolveAvailableVersions(repositoryId, artifact, oldestFirst, filter, max)));
 
             if (versions.size() > 0) {
                 if (oldestFirst) {
@@ -190,8 +201,13 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
     }
 
     // visible for unit testing
-    Aether createAether() {
-        return createAether(getProject());
+    Aether createAether(Item project) {
+        return buildAether(project);
+    }
+
+    // visible for unit testing
+    VersionListCache getVersionCache() {
+        return RepositoryConfiguration.get().getVersionCache();
     }
 
     // visible for unit testing
@@ -200,10 +216,6 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
     }
 
     private List<String> adjustNewestFirst(List<String> versions) {
-        if (limit != null) {
-            versions = versions.subList(0, Integer.parseInt(limit));
-        }
-
         if (useRelease) {
             versions.add(0, RELEASE);
         }
@@ -227,7 +239,28 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
         return versions;
     }
 
-    private static Aether createAether(Item item) {
+    private VersionListCache.Key createCacheKey(Item project) {
+        // credentials are resolved for the folder of the job, jobs in another folder may see other versions
+        String scope = project == null ? null : project.getParent().getFullName();
+
+        return new VersionListCache.Key(scope, repositoryId, groupId, artifactId, includeReleases, includeSnapshots,
+                oldestFirst, getMaxVersions());
+    }
+
+    private int getMaxVersions() {
+        // the limit only applies to the newest versions
+        if (oldestFirst || limit == null) {
+            return 0;
+        }
+
+        try {
+            return Math.max(Integer.parseInt(limit), 0);
+        } catch (@SuppressWarnings("unused") NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static Aether buildAether(Item item) {
         return RepositoryConfiguration.createAetherFactory()
                 .createAetherBuilder(item)
                 .build();
@@ -268,6 +301,31 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
             return FormValidator.validateVersionParameterName(value);
         }
 
+        /**
+         * Drops the cached versions of a parameter of the given job, they are resolved again when the build page is
+         * reloaded.
+         */
+        @RequirePOST
+        public HttpResponse doRefreshVersions(@AncestorInPath Item item, @QueryParameter String name) {
+            if (item == null) {
+                return HttpResponses.notFound();
+            }
+
+            item.checkPermission(Item.BUILD);
+
+            if (item instanceof Job) {
+                ParametersDefinitionProperty property = ((Job<?, ?>) item).getProperty(ParametersDefinitionProperty.class);
+                ParameterDefinition definition = property == null ? null : property.getParameterDefinition(name);
+
+                if (definition instanceof VersionParameterDefinition) {
+                    VersionParameterDefinition parameter = (VersionParameterDefinition) definition;
+                    parameter.getVersionCache().invalidate(parameter.createCacheKey(item));
+                }
+            }
+
+            return HttpResponses.ok();
+        }
+
         public ListBoxModel doFillRepositoryIdItems() {
             return new RepositoryListBox(RepositoryConfiguration.get().getRepositories())
                     .withSelectAll();
@@ -277,7 +335,7 @@ public class VersionParameterDefinition extends SimpleParameterDefinition {
                 @QueryParameter boolean includeReleases, @QueryParameter boolean includeSnapshots, @QueryParameter String repositoryId,
                 @AncestorInPath Item item) {
 
-            return FormValidator.validateCoordinates(repositoryId, groupId, artifactId, createAether(item),
+            return FormValidator.validateCoordinates(repositoryId, groupId, artifactId, buildAether(item),
                     createVersionFilter(includeReleases, includeSnapshots));
         }
 
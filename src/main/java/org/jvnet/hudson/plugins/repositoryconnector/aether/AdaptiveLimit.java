@@ -0,0 +1,80 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+/**
+ * Concurrency limit of a single repository, adjusted to the latency and errors of its transfers.
+ * <p>
+ * Every transfer that completes without a sign of overload raises the limit by <code>1 / limit</code>, so about one
+ * slot per round of transfers, but only while the slots are actually used. A failed transfer, or one whose latency is
+ * more than {@value #TOLERANCE} times the average, lowers it by a quarter. Transfers that started before the last
+ * decrease do not lower it again, they were running against the old limit.
+ * <p>
+ * Not thread safe, guarded by the {@link TransferScheduler}.
+ */
+final class AdaptiveLimit {
+
+    static final double BACKOFF = 0.75;
+
+    static final int DEFAULT_MAX = 32;
+
+    static final int INITIAL = 4;
+
+    // weight of a single sample in the average latency
+    static final double SMOOTHING = 0.05;
+
+    static final double TOLERANCE = 2.0;
+
+    private double averageLatency;
+
+    private long lastDecrease = Long.MIN_VALUE;
+
+    private double limit;
+
+    private int max;
+
+    /**
+     * @param max the highest the limit may grow to, <code>0</code> for {@value #DEFAULT_MAX}
+     */
+    AdaptiveLimit(int max) {
+        setMax(max);
+        this.limit = Math.min(INITIAL, this.max);
+    }
+
+    int get() {
+        return (int) limit;
+    }
+
+    void setMax(int max) {
+        this.max = max > 0 ? max : DEFAULT_MAX;
+        this.limit = Math.min(limit, this.max);
+    }
+
+    /**
+     * Adjusts the limit to a completed transfer, returning <code>true</code> if it changed.
+     *
+     * @param started when the transfer started, in nanoseconds
+     * @param latency time to the first byte in nanoseconds, negative if unknown
+     * @param failed if the transfer failed, an artifact that was not found is not a failure
+     * @param now the current time in nanoseconds
+     * @param running the number of transfers to the repository running at the time
+     */
+    boolean update(long started, long latency, boolean failed, long now, int running) {
+        int before = get();
+        boolean slow = latency >= 0 && averageLatency > 0 && latency > averageLatency * TOLERANCE;
+
+        if (latency >= 0 && !failed) {
+            averageLatency = averageLatency == 0 ? latency : averageLatency + (latency - averageLatency) * SMOOTHING;
+        }
+
+        if (failed || slow) {
+            if (started > lastDecrease) {
+                limit = Math.max(1, limit * BACKOFF);
+                lastDecrease = now;
+            }
+        } else if (running * 2 >= before) {
+            // a limit that is not used proves nothing
+            limit = Math.min(max, limit + 1 / limit);
+        }
+
+        return get() != before;
+    }
+}
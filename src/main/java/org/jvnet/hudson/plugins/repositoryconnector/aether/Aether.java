@@ -1,11 +1,25 @@
 package org.jvnet.hudson.plugins.repositoryconnector.aether;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
@@ -17,6 +31,8 @@ import org.eclipse.aether.graph.Dependency;
 import org.eclipse.aether.graph.DependencyFilter;
 import org.eclipse.aether.installation.InstallRequest;
 import org.eclipse.aether.installation.InstallationException;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.repository.AuthenticationDigest;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.resolution.ArtifactRequest;
 import org.eclipse.aether.resolution.ArtifactResolutionException;
@@ -27,25 +43,57 @@ import org.eclipse.aether.resolution.DependencyResult;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.ArtifactTransferException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
 import org.eclipse.aether.util.artifact.SubArtifact;
 import org.eclipse.aether.util.filter.DependencyFilterUtils;
+import org.eclipse.aether.version.Version;
 import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
 import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
 
 public class Aether {    
+    private static final Logger logger = Logger.getLogger(Aether.class.getName());
+
     private final RemoteRepositoryFactory factory;
 
+    private final MissingArtifactCache missingArtifacts;
+
     private final RepositorySystem repositorySystem;
 
+    private final TransferScheduler.QueueWait queueWait;
+
     private final RepositorySystemSession session;
 
-    Aether(RemoteRepositoryFactory factory, RepositorySystem repositorySystem, RepositorySystemSession repositorySession) {
+    private final TransferRecorder transferRecorder;
+
+    private final Executor versionRangeExecutor;
+
+    /**
+     * Only created by {@link AetherBuilder#build()}, the collaborators that are optional there are <code>null</code>
+     * unless set on the builder.
+     *
+     * @param versionRangeExecutor if not <code>null</code>, versions are looked up in every repository concurrently
+     * @param transferRecorder if not <code>null</code>, the listener registered with the session to record transfers
+     * @param missingArtifacts if not <code>null</code>, artifacts known to be missing are not looked up again
+     * @param queueWait if not <code>null</code>, the time the transfers of the session waited for a slot
+     */
+    Aether(RemoteRepositoryFactory factory, RepositorySystem repositorySystem, RepositorySystemSession repositorySession,
+            Executor versionRangeExecutor, TransferRecorder transferRecorder, MissingArtifactCache missingArtifacts,
+            TransferScheduler.QueueWait queueWait) {
         this.factory = factory;
+        this.queueWait = queueWait;
+        this.missingArtifacts = missingArtifacts;
         this.session = repositorySession;
         this.repositorySystem = repositorySystem;
+        this.versionRangeExecutor = versionRangeExecutor;
+        this.transferRecorder = transferRecorder;
     }
 
     public Collection<File> deploy(String repositoryId, Artifact artifact) throws AetherException {
+        FlightRecorderEvents.Event event = FlightRecorderEvents.DEPLOY.begin();
+        boolean failed = true;
+
         try {
             DefaultArtifact toDeploy = createInstallableArtifact(artifact);
             SubArtifact pom = createPomArtifact(toDeploy, artifact);
@@ -57,25 +105,100 @@ public class Aether {
                     .addArtifact(pom)
                     .setRepository(destination);
 
-            return repositorySystem.deploy(session, request)
+            Collection<File> deployed = repositorySystem.deploy(session, request)
                     .getArtifacts()
                     .stream()
                     .map(installed -> installed.getFile())
                     .collect(Collectors.toList());
 
-        } catch (DeploymentException e) {
+            failed = false;
+            forgetMissing(Collections.singletonList(artifact));
+
+            return deployed;
+        } catch (DeploymentException | LockTimeoutException e) {
             throw aetherException(e);
+        } finally {
+            commitDeployed(event, Collections.singletonList(artifact), repositoryId, failed);
+        }
+    }
+
+    /**
+     * Deploys all artifacts, using a single request per <code>groupId:artifactId:version</code> so the pom is uploaded
+     * and the repository metadata is updated once for every group instead of once per artifact.
+     * <p>
+     * A failed request does not stop the remaining groups from being deployed, the returned map holds the failure for
+     * every artifact that was not deployed, in the same order as <code>artifacts</code>. The repository metadata of a
+     * group is only updated once all of its artifacts are uploaded, so if one of them fails none of the group counts
+     * as deployed. The artifact whose upload failed is mapped to that failure, the others to a failure saying so.
+     */
+    public Map<Artifact, AetherException> deployAll(String repositoryId, Collection<Artifact> artifacts) {
+        Map<Artifact, AetherException> failures = new LinkedHashMap<>();
+
+        for (List<Artifact> group : groupByCoordinates(artifacts)) {
+            FlightRecorderEvents.Event event = FlightRecorderEvents.DEPLOY.begin();
+
+            try {
+                // all artifacts of a group share the version, so also the destination
+                boolean snapshot = VersionFilter.isSnapshot(group.get(0).getVersion());
+                DeployRequest request = new DeployRequest().setArtifacts(createInstallableArtifacts(group))
+                        .setRepository(factory.getDeloymentRepository(repositoryId, snapshot));
+
+                repositorySystem.deploy(session, request);
+                forgetMissing(group);
+            } catch (AetherException e) {
+                group.forEach(artifact -> failures.put(artifact, e));
+            } catch (DeploymentException e) {
+                putDeployFailures(failures, group, e);
+            } catch (LockTimeoutException e) {
+                AetherException failure = aetherException(e);
+                group.forEach(artifact -> failures.put(artifact, failure));
+            }
+
+            commitDeployed(event, group, repositoryId, failures.containsKey(group.get(0)));
+        }
+
+        return failures;
+    }
+
+    /**
+     * Returns the number of transfers that waited for a slot of the {@link TransferScheduler} so far.
+     */
+    public long getQueuedTransfers() {
+        return queueWait == null ? 0 : queueWait.getTransfers();
+    }
+
+    /**
+     * Returns the time in milliseconds the transfers waited for a slot of the {@link TransferScheduler} so far.
+     */
+    public long getQueueWaitTime() {
+        return queueWait == null ? 0 : TimeUnit.NANOSECONDS.toMillis(queueWait.getNanos());
+    }
+
+    /**
+     * Returns the timings recorded while resolving or deploying each of the artifacts, in the same order. The list is
+     * empty if transfers are not recorded, see {@link AetherBuilder#setTransferRecording(boolean)}.
+     */
+    public List<TransferTimings> getTransferTimings(Collection<Artifact> artifacts) {
+        if (transferRecorder == null) {
+            return Collections.emptyList();
         }
+
+        return artifacts.stream()
+                .map(artifact -> transferRecorder.getTimings(artifact.toString(), createResolvableArtifact(artifact)))
+                .collect(Collectors.toList());
     }
 
     public boolean hasAvailableVersions(String repositoryId, String groupId, String artifactId, VersionFilter filter)
         throws AetherException {
 
-        // oldestFirst doesn't matter
-        return !resolveAvailableVersions(repositoryId, new Artifact(groupId, artifactId, null), false, filter).isEmpty();
+        // oldestFirst doesn't matter, a single version is enough
+        return !resolveAvailableVersions(repositoryId, new Artifact(groupId, artifactId, null), false, filter, 1).isEmpty();
     }
 
     public Collection<File> install(Artifact artifact) throws AetherException {
+        FlightRecorderEvents.Event event = FlightRecorderEvents.DEPLOY.begin();
+        boolean failed = true;
+
         try {
             DefaultArtifact toInstall = createInstallableArtifact(artifact);
             SubArtifact pom = createPomArtifact(toInstall, artifact);
@@ -83,36 +206,161 @@ public class Aether {
             InstallRequest request = new InstallRequest().addArtifact(toInstall)
                     .addArtifact(pom);
 
-            return repositorySystem.install(session, request)
+            Collection<File> installed = repositorySystem.install(session, request)
                     .getArtifacts()
                     .stream()
-                    .map(installed -> installed.getFile())
+                    .map(result -> result.getFile())
                     .collect(Collectors.toList());
-        } catch (InstallationException e) {
+
+            failed = false;
+            forgetMissing(Collections.singletonList(artifact));
+
+            return installed;
+        } catch (InstallationException | LockTimeoutException e) {
             throw aetherException(e);
+        } finally {
+            commitDeployed(event, Collections.singletonList(artifact), session.getLocalRepository().getId(), failed);
         }
     }
 
+    /**
+     * Installs all artifacts into the local repository, using a single request per
+     * <code>groupId:artifactId:version</code>.
+     * <p>
+     * The returned map holds the failure for every artifact that was not installed, see
+     * {@link #deployAll(String, Collection)}.
+     */
+    public Map<Artifact, AetherException> installAll(Collection<Artifact> artifacts) {
+        Map<Artifact, AetherException> failures = new LinkedHashMap<>();
+
+        for (List<Artifact> group : groupByCoordinates(artifacts)) {
+            FlightRecorderEvents.Event event = FlightRecorderEvents.DEPLOY.begin();
+
+            try {
+                InstallRequest request = new InstallRequest().setArtifacts(createInstallableArtifacts(group));
+                repositorySystem.install(session, request);
+                forgetMissing(group);
+            } catch (InstallationException | LockTimeoutException e) {
+                AetherException failure = aetherException(e);
+                group.forEach(artifact -> failures.put(artifact, failure));
+            }
+
+            commitDeployed(event, group, session.getLocalRepository().getId(), failures.containsKey(group.get(0)));
+        }
+
+        return failures;
+    }
+
     public File resolve(String repositoryId, Artifact artifact) throws AetherException {
+        FlightRecorderEvents.Event event = FlightRecorderEvents.RESOLVE.begin();
+        ArtifactResult result = null;
+
         try {
             List<RemoteRepository> repositories = factory.getResolutionRepositories(repositoryId);
+            DefaultArtifact toResolve = createResolvableArtifact(artifact);
+
+            if (isKnownMissing(toResolve, repositories)) {
+                throw missingException(toResolve, repositories);
+            }
 
-            ArtifactRequest request = new ArtifactRequest(createResolvableArtifact(artifact), repositories, null);
-            ArtifactResult result = repositorySystem.resolveArtifact(session, request);
+            ArtifactRequest request = new ArtifactRequest(toResolve, repositories, null);
+            result = resolveShared(request);
 
-            if (result.isMissing()) {
+            rememberMissing(result);
+
+            if (!result.isResolved()) {
                 throw new ArtifactResolutionException(Arrays.asList(result));
             }
 
             return result.getArtifact().getFile();
         } catch (ArtifactResolutionException e) {
             throw aetherException(e);
+        } finally {
+            commitResolved(event, artifact, result);
+        }
+    }
+
+    /**
+     * Resolves all artifacts using a single request to the repository system, allowing downloads to be performed
+     * concurrently by the underlying connector.
+     * <p>
+     * A failure to resolve one artifact does not stop resolution of the others, each entry of the returned map (in the
+     * same order as <code>artifacts</code>) holds either the resolved file or the failure for that artifact.
+     */
+    public Map<Artifact, ResolutionResult> resolveAll(String repositoryId, Collection<Artifact> artifacts) {
+        Map<Artifact, ResolutionResult> resolved = new LinkedHashMap<>();
+        List<RemoteRepository> repositories;
+
+        try {
+            repositories = factory.getResolutionRepositories(repositoryId);
+        } catch (AetherException e) {
+            // nothing can be resolved, report the failure against every artifact
+            artifacts.forEach(artifact -> resolved.put(artifact, ResolutionResult.failed(e)));
+            return resolved;
+        }
+
+        List<Artifact> toRequest = new ArrayList<>();
+
+        for (Artifact artifact : artifacts) {
+            DefaultArtifact toResolve = createResolvableArtifact(artifact);
+
+            if (isKnownMissing(toResolve, repositories)) {
+                resolved.put(artifact, ResolutionResult.failed(missingException(toResolve, repositories)));
+            } else {
+                // keeps the order of the artifacts, replaced once resolved
+                resolved.put(artifact, null);
+                toRequest.add(artifact);
+            }
+        }
+
+        if (toRequest.isEmpty()) {
+            return resolved;
         }
+
+        // every artifact is resolved for as long as the whole request takes
+        List<FlightRecorderEvents.Event> events = toRequest.stream()
+                .map(artifact -> FlightRecorderEvents.RESOLVE.begin())
+                .collect(Collectors.toList());
+
+        List<ArtifactRequest> requests = toRequest.stream()
+                .map(artifact -> new ArtifactRequest(createResolvableArtifact(artifact), repositories, null))
+                .collect(Collectors.toList());
+
+        List<ArtifactResult> results = resolveShared(requests);
+
+        Iterator<Artifact> iterator = toRequest.iterator();
+        Iterator<FlightRecorderEvents.Event> eventIterator = events.iterator();
+
+        // results are returned in request order
+        for (ArtifactResult result : results) {
+            Artifact artifact = iterator.next();
+
+            rememberMissing(result);
+
+            resolved.put(artifact, toResolutionResult(result));
+            commitResolved(eventIterator.next(), artifact, result);
+        }
+
+        return resolved;
     }
 
     public Collection<String> resolveAvailableVersions(String repositoryId, Artifact artifact, boolean oldestFirst, VersionFilter filter)
         throws AetherException {
 
+        return resolveAvailableVersions(repositoryId, artifact, oldestFirst, filter, 0);
+    }
+
+    /**
+     * Resolves the available versions of an artifact, returning at most <code>limit</code> versions (all if
+     * <code>limit</code> is <code>0</code>) in the requested order.
+     */
+    public Collection<String> resolveAvailableVersions(String repositoryId, Artifact artifact, boolean oldestFirst,
+            VersionFilter filter, int limit) throws AetherException {
+
+        FlightRecorderEvents.Event event = FlightRecorderEvents.VERSION_RANGE.begin();
+        VersionRangeResult result = null;
+        boolean failed = true;
+
         try {
             DefaultArtifact toResolve = createResolvableArtifact(artifact);
             List<RemoteRepository> repositories = factory.getResolutionRepositories(repositoryId);
@@ -122,18 +370,25 @@ public class Aether {
              *  this call includes SNAPSHOT versions contained in 'maven-metadata.xml', regardless of the repository 
              *  policy, so additional filtering needs to occur
              */
-            VersionRangeResult result = repositorySystem.resolveVersionRange(session, request);
+            result = resolveVersionRange(request);
+            logVersions(artifact, result);
+
+            // the repository system does not fail if no repository could be reached, it only records why
+            List<Exception> failures = getFailures(result);
+            if (result.getVersions().isEmpty() && !failures.isEmpty()) {
+                throw new AetherException(String.format("Failed to resolve versions of %s:%s: %s",
+                        artifact.getGroupId(), artifact.getArtifactId(), failures.get(0).getMessage()));
+            }
 
-            // TODO: log exceptions from 'result.getExceptions()' and throw an error
+            List<String> versions = selectVersions(result.getVersions(), oldestFirst, filter, limit);
+            failed = false;
 
-            return result.getVersions()
-                    .stream()
-                    .sorted((o1, o2) -> oldestFirst ? o1.compareTo(o2) : o2.compareTo(o1))
-                    .map(version -> version.toString())
-                    .filter(filter::apply)
-                    .collect(Collectors.toList());
-        } catch (VersionRangeResolutionException e) {
+            return versions;
+        } catch (VersionRangeResolutionException | LockTimeoutException e) {
             throw aetherException(e);
+        } finally {
+            event.commit(artifact.getGroupId() + ":" + artifact.getArtifactId(), repositoryId,
+                    result == null ? 0 : result.getVersions().size(), failed);
         }
     }
 
@@ -154,25 +409,378 @@ public class Aether {
                     .map(resolved -> resolved.getArtifact().getFile())
                     .collect(Collectors.toList());
 
-        } catch (DependencyResolutionException e) {
+        } catch (DependencyResolutionException | LockTimeoutException e) {
             throw aetherException(e);
         }
     }
 
+    /**
+     * Merges the versions found in each repository, a version found in more than one repository is attributed to the
+     * first of them, same as when all repositories are part of a single request.
+     */
+    // visible for unit testing
+    static VersionRangeResult mergeVersionRanges(VersionRangeRequest request, List<VersionRangeResult> results) {
+        VersionRangeResult merged = new VersionRangeResult(request);
+        Map<Version, ArtifactRepository> versions = new TreeMap<>();
+
+        for (VersionRangeResult result : results) {
+            result.getExceptions().forEach(merged::addException);
+            result.getVersions().forEach(version -> versions.putIfAbsent(version, result.getRepository(version)));
+
+            if (merged.getVersionConstraint() == null) {
+                merged.setVersionConstraint(result.getVersionConstraint());
+            }
+        }
+
+        // ascending, as returned by the repository system
+        versions.forEach((version, repository) -> {
+            merged.addVersion(version);
+            merged.setRepository(version, repository);
+        });
+
+        return merged;
+    }
+
+    /**
+     * Describes which repository each version was found in.
+     */
+    // visible for unit testing
+    static String describeVersions(VersionRangeResult result) {
+        return result.getVersions().stream()
+                .map(version -> version + " from " + Optional.ofNullable(result.getRepository(version))
+                        .map(ArtifactRepository::getId)
+                        .orElse("unknown"))
+                .collect(Collectors.joining(", "));
+    }
+
+    // visible for unit testing
+    static List<String> selectVersions(Collection<Version> versions, boolean oldestFirst, VersionFilter filter, int limit) {
+        Comparator<Version> order = oldestFirst ? Comparator.naturalOrder() : Comparator.reverseOrder();
+        Stream<Version> filtered = versions.stream()
+                .filter(version -> filter.apply(version.toString()));
+
+        if (limit <= 0 || limit >= versions.size()) {
+            return filtered.sorted(order)
+                    .map(Version::toString)
+                    .collect(Collectors.toList());
+        }
+
+        // bounded heap, the head is the version that would be dropped next
+        PriorityQueue<Version> selected = new PriorityQueue<>(limit + 1, order.reversed());
+        filtered.forEach(version -> {
+            selected.add(version);
+
+            if (selected.size() > limit) {
+                selected.poll();
+            }
+        });
+
+        return selected.stream()
+                .sorted(order)
+                .map(Version::toString)
+                .collect(Collectors.toList());
+    }
+
     private AetherException aetherException(Throwable cause) {
         return new AetherException(cause.getMessage());
     }
 
+    private static void commitDeployed(FlightRecorderEvents.Event event, List<Artifact> artifacts, String repositoryId,
+            boolean failed) {
+        if (event.isRecording()) {
+            long bytes = artifacts.stream()
+                    .mapToLong(artifact -> new File(artifact.getTargetFileName()).length())
+                    .sum();
+
+            event.commit(artifacts.get(0).toString(), repositoryId, bytes, failed);
+        }
+    }
+
+    private static void commitResolved(FlightRecorderEvents.Event event, Artifact artifact, ArtifactResult result) {
+        if (event.isRecording()) {
+            boolean resolved = result != null && result.isResolved();
+
+            event.commit(artifact.toString(), resolved ? result.getRepository().getId() : null,
+                    resolved ? result.getArtifact().getFile().length() : 0L, !resolved);
+        }
+    }
+
+    private void forgetMissing(List<Artifact> deployed) {
+        if (missingArtifacts != null) {
+            deployed.forEach(artifact -> missingArtifacts.invalidate(createResolvableArtifact(artifact).toString()));
+        }
+    }
+
+    private boolean isKnownMissing(org.eclipse.aether.artifact.Artifact artifact, List<RemoteRepository> repositories) {
+        return missingArtifacts != null && missingArtifacts.isMissing(artifact.toString(), getMissingKey(repositories));
+    }
+
+    private void rememberMissing(ArtifactResult result) {
+        // only if the artifact was not found, any other failure may be gone the next time
+        if (missingArtifacts != null && result != null && result.isMissing()) {
+            ArtifactRequest request = result.getRequest();
+
+            missingArtifacts.putMissing(request.getArtifact().toString(), getMissingKey(request.getRepositories()));
+        }
+    }
+
+    private void putDeployFailures(Map<Artifact, AetherException> failures, List<Artifact> group, DeploymentException e) {
+        AetherException failure = aetherException(e);
+
+        // the repository system stops at the first upload that failed, a failed pom or metadata belongs to the group
+        String failed = e.getCause() instanceof ArtifactTransferException
+                ? ((ArtifactTransferException) e.getCause()).getArtifact().toString()
+                : null;
+
+        for (Artifact artifact : group) {
+            DefaultArtifact toDeploy = createResolvableArtifact(artifact);
+
+            if (failed == null || failed.equals(toDeploy.toString())) {
+                failures.put(artifact, failure);
+            } else {
+                failures.put(artifact, new AetherException(String.format(
+                        "%s was not deployed, deploying an artifact with the same coordinates failed: %s", toDeploy,
+                        failure.getMessage())));
+            }
+        }
+    }
+
+    private Collection<List<Artifact>> groupByCoordinates(Collection<Artifact> artifacts) {
+        // keeps the order of the first artifact of each group
+        Map<String, List<Artifact>> groups = new LinkedHashMap<>();
+        for (Artifact artifact : artifacts) {
+            String key = String.join(":", artifact.getGroupId(), artifact.getArtifactId(), artifact.getVersion());
+            groups.computeIfAbsent(key, k -> new ArrayList<>()).add(artifact);
+        }
+
+        return groups.values();
+    }
+
+    private ArtifactResult resolveArtifact(ArtifactRequest request) {
+        try {
+            return repositorySystem.resolveArtifact(session, request);
+        } catch (ArtifactResolutionException e) {
+            return e.getResult();
+        } catch (LockTimeoutException e) {
+            return new ArtifactResult(request).addException(e);
+        }
+    }
+
+    private List<ArtifactResult> resolveArtifacts(List<ArtifactRequest> requests) {
+        try {
+            return repositorySystem.resolveArtifacts(session, requests);
+        } catch (ArtifactResolutionException e) {
+            // contains the results for every request, not just the failures
+            return e.getResults();
+        } catch (LockTimeoutException e) {
+            return requests.stream()
+                    .map(request -> new ArtifactResult(request).addException(e))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Resolves the artifact, or waits for a concurrent resolution of the same artifact to share its result.
+     */
+    private ArtifactResult resolveShared(ArtifactRequest request) {
+        InFlightResolutions.Flight flight = InFlightResolutions.join(getInFlightKey(request));
+
+        if (!flight.isLeader()) {
+            ArtifactResult shared = flight.await(request);
+            return shared != null ? shared : resolveArtifact(request);
+        }
+
+        try {
+            ArtifactResult result = resolveArtifact(request);
+            flight.complete(result);
+
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.fail(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Resolves the artifacts no other resolution is in progress for in a single request, then waits for the others and
+     * resolves those their leader failed to resolve in another one. The results are in request order.
+     */
+    private List<ArtifactResult> resolveShared(List<ArtifactRequest> requests) {
+        List<InFlightResolutions.Flight> flights = requests.stream()
+                .map(request -> InFlightResolutions.join(getInFlightKey(request)))
+                .collect(Collectors.toList());
+
+        List<ArtifactRequest> leading = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (flights.get(i).isLeader()) {
+                leading.add(requests.get(i));
+            }
+        }
+
+        List<ArtifactResult> led;
+        try {
+            led = leading.isEmpty() ? Collections.emptyList() : resolveArtifacts(leading);
+        } catch (RuntimeException | Error e) {
+            flights.forEach(flight -> flight.fail(e));
+            throw e;
+        }
+
+        Iterator<ArtifactResult> iterator = led.iterator();
+        List<ArtifactResult> results = new ArrayList<>();
+
+        for (InFlightResolutions.Flight flight : flights) {
+            ArtifactResult result = flight.isLeader() ? iterator.next() : null;
+            flight.complete(result);
+
+            results.add(result);
+        }
+
+        // only once every resolution led here is complete, others may be waiting on them
+        List<Integer> failed = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (results.get(i) == null) {
+                ArtifactResult shared = flights.get(i).await(requests.get(i));
+
+                if (shared == null) {
+                    failed.add(i);
+                }
+
+                results.set(i, shared);
+            }
+        }
+
+        if (!failed.isEmpty()) {
+            List<ArtifactResult> retried = resolveArtifacts(failed.stream()
+                    .map(requests::get)
+                    .collect(Collectors.toList()));
+
+            for (int i = 0; i < failed.size(); i++) {
+                results.set(failed.get(i), retried.get(i));
+            }
+        }
+
+        return results;
+    }
+
+    /**
+     * Returns why repositories could not be searched, metadata missing from a repository is not a failure.
+     */
+    private static List<Exception> getFailures(VersionRangeResult result) {
+        return result.getExceptions().stream()
+                .filter(e -> !(e instanceof MetadataNotFoundException))
+                .collect(Collectors.toList());
+    }
+
+    private static void logVersions(Artifact artifact, VersionRangeResult result) {
+        String coordinates = artifact.getGroupId() + ":" + artifact.getArtifactId();
+
+        // the versions found in the other repositories are still returned
+        getFailures(result).forEach(e -> logger.log(Level.WARNING, "failed to resolve versions of {0}: {1}",
+                new Object[] { coordinates, e.getMessage() }));
+
+        if (logger.isLoggable(Level.FINE)) {
+            logger.log(Level.FINE, "versions of {0}: {1}", new Object[] { coordinates, describeVersions(result) });
+        }
+    }
+
+    private VersionRangeResult resolveVersionRange(VersionRangeRequest request) throws VersionRangeResolutionException {
+        List<RemoteRepository> repositories = request.getRepositories();
+
+        if (versionRangeExecutor == null || repositories.size() < 2) {
+            return repositorySystem.resolveVersionRange(session, request);
+        }
+
+        // one request per repository, so the lookup takes as long as the slowest repository instead of all of them
+        List<CompletableFuture<VersionRangeResult>> futures = repositories.stream()
+                .map(repository -> new VersionRangeRequest(request.getArtifact(), Collections.singletonList(repository),
+                        request.getRequestContext()))
+                .map(single -> CompletableFuture.supplyAsync(() -> resolveSingleVersionRange(single), versionRangeExecutor))
+                .collect(Collectors.toList());
+
+        List<VersionRangeResult> results = futures.stream()
+                .map(CompletableFuture::join)
+                .collect(Collectors.toList());
+
+        return mergeVersionRanges(request, results);
+    }
+
+    private VersionRangeResult resolveSingleVersionRange(VersionRangeRequest request) {
+        try {
+            return repositorySystem.resolveVersionRange(session, request);
+        } catch (VersionRangeResolutionException e) {
+            // reported with the merged result, the other repositories may still have versions
+            return e.getResult();
+        } catch (LockTimeoutException e) {
+            return new VersionRangeResult(request).addException(e);
+        }
+    }
+
+    private ResolutionResult toResolutionResult(ArtifactResult result) {
+        if (result.isResolved()) {
+            return ResolutionResult.resolved(result.getArtifact().getFile());
+        }
+
+        return ResolutionResult.failed(aetherException(new ArtifactResolutionException(Collections.singletonList(result))));
+    }
+
     private DefaultArtifact createInstallableArtifact(Artifact artifact) {
         // the passed artifact should have everything already configured
         DefaultArtifact toInstall = createResolvableArtifact(artifact);
         return (DefaultArtifact) toInstall.setFile(new File(artifact.getTargetFileName()));
     }
 
+    private List<org.eclipse.aether.artifact.Artifact> createInstallableArtifacts(List<Artifact> group) {
+        List<org.eclipse.aether.artifact.Artifact> installable = new ArrayList<>();
+
+        for (Artifact artifact : group) {
+            installable.add(createInstallableArtifact(artifact));
+        }
+
+        // only one pom per group, preferably the one of the main artifact
+        Artifact main = group.stream()
+                .filter(artifact -> artifact.getClassifier() == null)
+                .findFirst()
+                .orElse(group.get(0));
+
+        installable.add(createPomArtifact((DefaultArtifact) installable.get(group.indexOf(main)), main));
+
+        return installable;
+    }
+
     private SubArtifact createPomArtifact(DefaultArtifact parent, Artifact artifact) {
         return new SubArtifact(parent, null, "pom", new File(artifact.getPomFile()));
     }
 
+    private String getInFlightKey(ArtifactRequest request) {
+        // a different local repository means a different file
+        return request.getArtifact() + "@" + getRepositoriesKey(request.getRepositories()) + "@"
+                + session.getLocalRepository().getBasedir();
+    }
+
+    private String getMissingKey(List<RemoteRepository> repositories) {
+        // a repository may hide artifacts from some credentials, so they are only known missing for the same ones
+        return repositories.stream()
+                .map(repository -> repository.getId() + "=" + repository.getUrl() + "#"
+                        + AuthenticationDigest.forRepository(session, repository))
+                .collect(Collectors.joining(","));
+    }
+
+    private static String getRepositoriesKey(List<RemoteRepository> repositories) {
+        return repositories.stream()
+                .map(repository -> repository.getId() + "=" + repository.getUrl())
+                .collect(Collectors.joining(","));
+    }
+
+    private static AetherException missingException(org.eclipse.aether.artifact.Artifact artifact,
+            List<RemoteRepository> repositories) {
+        String searched = repositories.stream()
+                .map(RemoteRepository::getId)
+                .collect(Collectors.joining(", "));
+
+        return new AetherException(String.format("Could not find artifact %s in [%s], it was missing when last looked up",
+                artifact, searched));
+    }
+
     private DefaultArtifact createResolvableArtifact(Artifact artifact) {
         String extension = Optional.ofNullable(artifact.getExtension())
                 .orElse("jar");
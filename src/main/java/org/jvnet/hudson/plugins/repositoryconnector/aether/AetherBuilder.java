@@ -12,19 +12,17 @@ import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.eclipse.aether.DefaultRepositorySystemSession;
 import org.eclipse.aether.RepositorySystem;
 import org.eclipse.aether.RepositorySystemSession;
-import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
-import org.eclipse.aether.impl.DefaultServiceLocator;
 import org.eclipse.aether.repository.Authentication;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.Proxy;
 import org.eclipse.aether.repository.ProxySelector;
-import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
-import org.eclipse.aether.spi.connector.transport.TransporterFactory;
-import org.eclipse.aether.transport.file.FileTransporterFactory;
-import org.eclipse.aether.transport.http.HttpTransporterFactory;
+import org.eclipse.aether.util.listener.ChainedRepositoryListener;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
 import org.eclipse.aether.util.repository.AuthenticationBuilder;
 import org.eclipse.aether.util.repository.DefaultProxySelector;
 import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.util.LocalRepositoryIndex;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
 
 import hudson.ProxyConfiguration;
 import hudson.Util;
@@ -38,14 +36,26 @@ public class AetherBuilder {
 
     private final File localDirectory;
 
+    private LocalRepositoryIndex localRepositoryIndex;
+
+    private MissingArtifactCache missingArtifactCache;
+
+    private boolean parallelVersionResolution;
+
     private ProxyConfiguration proxyConfiguration;
 
     private final Collection<Repository> repositories;
 
     private PrintStream repositoryConsole;
 
+    private RepositorySystem repositorySystem;
+
     private PrintStream transferConsole;
 
+    private String transferOwner;
+
+    private boolean transferRecording;
+
     AetherBuilder(File localDirectory, Collection<Repository> repositories) {
         this.repositories = repositories;
         this.localDirectory = localDirectory;
@@ -56,10 +66,17 @@ public class AetherBuilder {
     public Aether build() {
         ProxySelector proxySelector = createProxySelector();
 
-        RepositorySystem repositorySystem = createRepositorySystem();
-        RepositorySystemSession repositorySession = createRepositorySession(repositorySystem, proxySelector);
-
-        return new Aether(new RemoteRepositoryFactory(repositories, proxySelector, credentials), repositorySystem, repositorySession);
+        // the repository system is shared, only the session is specific to this instance
+        RepositorySystem repositorySystem = this.repositorySystem == null ? RepositorySystemProvider.get()
+                : this.repositorySystem;
+        TransferRecorder transferRecorder = transferRecording ? new TransferRecorder() : null;
+        TransferScheduler.QueueWait queueWait = new TransferScheduler.QueueWait();
+        RepositorySystemSession repositorySession = createRepositorySession(repositorySystem, proxySelector,
+                transferRecorder, queueWait);
+
+        return new Aether(new RemoteRepositoryFactory(repositories, proxySelector, credentials), repositorySystem,
+                repositorySession, parallelVersionResolution ? RepositorySystemProvider.getVersionRangeExecutor() : null,
+                transferRecorder, missingArtifactCache, queueWait);
     }
 
     public AetherBuilder setCredentials(Function<Repository, Authentication> credentials) {
@@ -67,16 +84,63 @@ public class AetherBuilder {
         return this;
     }
 
+    /**
+     * Record the use of every artifact in the local repository, so the least recently used ones can be evicted.
+     */
+    public AetherBuilder setLocalRepositoryIndex(LocalRepositoryIndex localRepositoryIndex) {
+        this.localRepositoryIndex = localRepositoryIndex;
+        return this;
+    }
+
+    /**
+     * Skip looking up artifacts that were not found the last time, until the cache expires.
+     */
+    public AetherBuilder setMissingArtifactCache(MissingArtifactCache missingArtifactCache) {
+        this.missingArtifactCache = missingArtifactCache;
+        return this;
+    }
+
+    /**
+     * Look up the available versions of an artifact in every repository concurrently, instead of one after the other.
+     */
+    public AetherBuilder setParallelVersionResolution(boolean parallelVersionResolution) {
+        this.parallelVersionResolution = parallelVersionResolution;
+        return this;
+    }
+
     public AetherBuilder setRepositoryLogger(PrintStream console) {
         this.repositoryConsole = console;
         return this;
     }
 
+    // visible for testing
+    AetherBuilder setRepositorySystem(RepositorySystem repositorySystem) {
+        this.repositorySystem = repositorySystem;
+        return this;
+    }
+
     public AetherBuilder setTransferLogger(PrintStream console) {
         this.transferConsole = console;
         return this;
     }
 
+    /**
+     * Queue transfers over the limits of the {@link TransferScheduler} under the given name, usually the build, so
+     * slots are shared fairly with everything else transferring at the same time.
+     */
+    public AetherBuilder setTransferOwner(String transferOwner) {
+        this.transferOwner = transferOwner;
+        return this;
+    }
+
+    /**
+     * Record where the time goes while resolving and deploying artifacts, see {@link Aether#getTransferTimings}.
+     */
+    public AetherBuilder setTransferRecording(boolean transferRecording) {
+        this.transferRecording = transferRecording;
+        return this;
+    }
+
     private ProxySelector createProxySelector() {
         if (proxyConfiguration == null) {
             return null;
@@ -111,45 +175,54 @@ public class AetherBuilder {
                 .build();
     }
 
-    private RepositorySystemSession createRepositorySession(RepositorySystem repositorySystem, ProxySelector proxySelector) {
+    private RepositorySystemSession createRepositorySession(RepositorySystem repositorySystem, ProxySelector proxySelector,
+            TransferRecorder transferRecorder, TransferScheduler.QueueWait queueWait) {
         DefaultRepositorySystemSession session = MavenRepositorySystemUtils.newSession();
 
         session.setProxySelector(proxySelector);
         session.setConfigProperty("aether.versionResolver.noCache", Boolean.TRUE);
 
+        // picked up by the transporters, see ScheduledTransporterProvider
+        session.setConfigProperty(TransferScheduler.OWNER, transferOwner);
+        session.getData().set(TransferScheduler.QUEUE_WAIT, queueWait);
+
         // local filesystem repository where artifacts will be installed
         LocalRepository localRepository = new LocalRepository(localDirectory, "default");
         logger.log(Level.FINE, "using local maven artifact repository: {0}", localRepository);
 
         session.setLocalRepositoryManager(repositorySystem.newLocalRepositoryManager(session, localRepository));
 
+        // metrics are gathered for every session, everything else only if enabled
+        MetricsListener metricsListener = new MetricsListener();
+
+        ChainedRepositoryListener repositoryListener = new ChainedRepositoryListener(metricsListener);
+        ChainedTransferListener transferListener = new ChainedTransferListener(metricsListener);
+
+        if (localRepositoryIndex != null) {
+            repositoryListener.add(new LocalRepositoryListener(localRepositoryIndex));
+        }
+
         if (repositoryConsole != null) {
-            session.setRepositoryListener(new ConsoleRepositoryListener(repositoryConsole));
+            repositoryListener.add(new ConsoleRepositoryListener(repositoryConsole));
         }
 
         if (transferConsole != null) {
-            session.setTransferListener(new ConsoleTransferListener(transferConsole));
+            transferListener.add(new ConsoleTransferListener(transferConsole));
         }
 
-        return session;
-    }
-
-    private RepositorySystem createRepositorySystem() {
+        if (transferRecorder != null) {
+            repositoryListener.add(transferRecorder);
+            transferListener.add(transferRecorder);
+        }
 
-        DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
-        locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
-        locator.addService(TransporterFactory.class, FileTransporterFactory.class);
-        locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+        if (FlightRecorderEvents.isAvailable()) {
+            transferListener.add(new FlightRecorderListener());
+        }
 
-        locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
-            @Override
-            public void serviceCreationFailed(Class<?> type, Class<?> impl, Throwable exception) {
-                logger.log(Level.SEVERE, "Service creation failed for {0} with implementation {1} - {2}",
-                        new Object[] { type, impl, exception });
-            }
-        });
+        session.setRepositoryListener(repositoryListener);
+        session.setTransferListener(transferListener);
 
-        return locator.getService(RepositorySystem.class);
+        return session;
     }
 
     // visible for testing
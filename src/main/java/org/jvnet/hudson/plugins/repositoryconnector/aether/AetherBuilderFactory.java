@@ -5,16 +5,25 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Stream;
 
 import com.cloudbees.plugins.credentials.common.StandardUsernamePasswordCredentials;
 
 import org.eclipse.aether.repository.Authentication;
 import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherSettings.UsernamePassword;
+import org.jvnet.hudson.plugins.repositoryconnector.util.CredentialsCache;
 import org.jvnet.hudson.plugins.repositoryconnector.util.CredentialsUtilities;
+import org.jvnet.hudson.plugins.repositoryconnector.util.LocalRepositoryIndex;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
 
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.model.Item;
@@ -27,6 +36,14 @@ public class AetherBuilderFactory {
 
     private final String localDirectory;
 
+    private LocalRepositoryIndex localRepositoryIndex;
+
+    private MissingArtifactCache missingArtifactCache;
+
+    private CredentialsCache credentialsCache;
+
+    private boolean parallelVersionResolution;
+
     private final Collection<Repository> repositories;
 
     public AetherBuilderFactory(String localDirectory, Collection<Repository> repositories) {
@@ -39,16 +56,72 @@ public class AetherBuilderFactory {
     }
 
     public AetherBuilder createAetherBuilder(Item item) {
-        return createAetherBuilder(repository -> getCredentials(repository, item));
+        return createAetherBuilder(repository -> getCredentials(repository, item))
+                .setTransferOwner(item == null ? null : "item:" + item.getFullName());
     }
 
     public AetherBuilder createAetherBuilder(Run<?, ?> context) {
-        return createAetherBuilder(repository -> getCredentials(repository, context));
+        return createAetherBuilder(repository -> getCredentials(repository, context))
+                .setTransferOwner(context == null ? null : "run:" + context.getExternalizableId());
     }
 
-    private AetherBuilder createAetherBuilder(Function<Repository, Authentication> function) {
+    /**
+     * Creates the settings needed to deploy to the given repository on an agent, only the credentials of its release
+     * and snapshot deployment repositories are resolved using the given build context.
+     */
+    public AetherSettings createDeploymentSettings(Run<?, ?> context, String repositoryId) {
+        // deploying needs a repository id, there is nothing to send along without one
+        return createAetherSettings(context, repositories.stream()
+                .filter(repository -> repository.getId().equals(repositoryId))
+                .flatMap(this::getDeploymentCredentialsIds));
+    }
+
+    /**
+     * Creates the settings needed to resolve from the given repository on an agent, or from every configured repository
+     * if it is <code>null</code>. Only the credentials of those repositories are resolved using the given build
+     * context.
+     */
+    public AetherSettings createResolutionSettings(Run<?, ?> context, String repositoryId) {
+        return createAetherSettings(context, repositories.stream()
+                .filter(repository -> repositoryId == null || repository.getId().equals(repositoryId))
+                .map(Repository::getCredentialsId));
+    }
+
+    AetherBuilder createAetherBuilder(Function<Repository, Authentication> function) {
         File localRepository = getOrCreateLocalRepository();
-        return new AetherBuilder(localRepository, repositories).setCredentials(function);
+        return new AetherBuilder(localRepository, repositories).setCredentials(function)
+                .setLocalRepositoryIndex(localRepositoryIndex)
+                .setMissingArtifactCache(missingArtifactCache)
+                .setParallelVersionResolution(parallelVersionResolution);
+    }
+
+    /**
+     * Reuse the credentials looked up for the same item or run until the cache expires.
+     */
+    public AetherBuilderFactory setCredentialsCache(CredentialsCache credentialsCache) {
+        this.credentialsCache = credentialsCache;
+        return this;
+    }
+
+    /**
+     * Record the use of local artifacts, see {@link AetherBuilder#setLocalRepositoryIndex(LocalRepositoryIndex)}.
+     */
+    public AetherBuilderFactory setLocalRepositoryIndex(LocalRepositoryIndex localRepositoryIndex) {
+        this.localRepositoryIndex = localRepositoryIndex;
+        return this;
+    }
+
+    /**
+     * Remember artifacts that were not found, see {@link AetherBuilder#setMissingArtifactCache(MissingArtifactCache)}.
+     */
+    public AetherBuilderFactory setMissingArtifactCache(MissingArtifactCache missingArtifactCache) {
+        this.missingArtifactCache = missingArtifactCache;
+        return this;
+    }
+
+    public AetherBuilderFactory setParallelVersionResolution(boolean parallelVersionResolution) {
+        this.parallelVersionResolution = parallelVersionResolution;
+        return this;
     }
 
     private Authentication createAuthentication(StandardUsernamePasswordCredentials credentials) {
@@ -62,17 +135,66 @@ public class AetherBuilderFactory {
         return AetherBuilder.createAuthentication(user, password);
     }
 
+    private AetherSettings createAetherSettings(Run<?, ?> context, Stream<String> credentialsIds) {
+        Map<String, UsernamePassword> credentials = new HashMap<>();
+
+        credentialsIds.filter(Objects::nonNull)
+                .distinct()
+                .forEach(credentialsId -> Optional.ofNullable(CredentialsUtilities.get(credentialsId, context))
+                        .ifPresent(creds -> credentials.put(credentialsId,
+                                new UsernamePassword(creds.getUsername(), creds.getPassword()))));
+
+        return new AetherSettings(repositories, credentials);
+    }
+
+    private Stream<String> getDeploymentCredentialsIds(Repository repository) {
+        // deployment repositories may override the credentials of the repository
+        return Stream.of(repository.getReleaseRepository(), repository.getSnapshotRepository())
+                .map(type -> Optional.ofNullable(type)
+                        .map(RepositoryType::getCredentialsId)
+                        .orElse(repository.getCredentialsId()));
+    }
+
     private Authentication getCredentials(Repository repository, Item item) {
-        return createAuthentication(CredentialsUtilities.get(repository.getCredentialsId(), item));
+        String credentialsId = repository.getCredentialsId();
+
+        if (credentialsCache == null || credentialsId == null) {
+            return createAuthentication(CredentialsUtilities.get(credentialsId, item));
+        }
+
+        String scope = item == null ? "" : "item:" + item.getFullName();
+        return credentialsCache.getIndexed(scope, credentialsId, () -> indexCredentials(item));
     }
 
     private Authentication getCredentials(Repository repository, Run<?, ?> context) {
-        return createAuthentication(CredentialsUtilities.get(repository.getCredentialsId(), context));
+        String credentialsId = repository.getCredentialsId();
+
+        // without a run there is nothing to scope the cached credentials to
+        if (credentialsCache == null || credentialsId == null || context == null) {
+            return createAuthentication(CredentialsUtilities.get(credentialsId, context));
+        }
+
+        return credentialsCache.get("run:" + context.getExternalizableId(), credentialsId,
+                id -> createAuthentication(CredentialsUtilities.get(id, context)));
+    }
+
+    private Map<String, Authentication> indexCredentials(Item item) {
+        Map<String, Authentication> index = new HashMap<>();
+        CredentialsUtilities.getAll(item).forEach((id, credentials) -> index.put(id, createAuthentication(credentials)));
+
+        return index;
+    }
+
+    /**
+     * Returns the path of the local repository, the configured directory or a default one below the temporary directory.
+     */
+    public static Path getLocalRepositoryPath(String localDirectory) {
+        return localDirectory == null ? getTmpPath() : Paths.get(localDirectory);
     }
 
     @SuppressFBWarnings(value = "RV_RETURN_VALUE_IGNORED_BAD_PRACTICE", justification = "mkdirs")
     private File getOrCreateLocalRepository() {
-        Path path = localDirectory == null ? getTmpPath() : Paths.get(localDirectory);
+        Path path = getLocalRepositoryPath(localDirectory);
         File repo = path.toFile();
 
         if (!repo.exists()) {
@@ -83,7 +205,7 @@ public class AetherBuilderFactory {
         return repo;
     }
 
-    private Path getTmpPath() {
+    private static Path getTmpPath() {
         return Paths.get(System.getProperty("java.io.tmpdir"), "repositoryconnector-repo");
     }
 }
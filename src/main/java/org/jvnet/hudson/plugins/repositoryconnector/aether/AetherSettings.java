@@ -0,0 +1,64 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import org.eclipse.aether.repository.Authentication;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+
+import hudson.util.Secret;
+
+/**
+ * Serializable snapshot of the repository definitions and their resolved credentials, used to build an {@link Aether}
+ * instance on an agent.
+ * <p>
+ * Credentials are looked up on the controller when the snapshot is created, the agent never accesses the credentials
+ * store. Artifacts are resolved into a local repository on the agent itself.
+ */
+public class AetherSettings implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, UsernamePassword> credentials;
+
+    private final ArrayList<Repository> repositories;
+
+    AetherSettings(Collection<Repository> repositories, Map<String, UsernamePassword> credentials) {
+        this.repositories = new ArrayList<>(repositories);
+        this.credentials = new HashMap<>(credentials);
+    }
+
+    /**
+     * Creates a builder for an {@link Aether} instance in the current jvm, normally called on the agent.
+     */
+    public AetherBuilder createAetherBuilder() {
+        return new AetherBuilderFactory(null, repositories)
+                .createAetherBuilder(repository -> getAuthentication(repository.getCredentialsId()));
+    }
+
+    // visible for testing
+    Authentication getAuthentication(String credentialsId) {
+        return Optional.ofNullable(credentialsId)
+                .map(credentials::get)
+                .map(creds -> AetherBuilder.createAuthentication(creds.username, creds.password))
+                .orElse(null);
+    }
+
+    static class UsernamePassword implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Secret password;
+
+        private final String username;
+
+        UsernamePassword(String username, Secret password) {
+            this.username = username;
+            this.password = password;
+        }
+    }
+}
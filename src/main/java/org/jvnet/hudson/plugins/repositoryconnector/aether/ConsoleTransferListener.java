@@ -19,6 +19,10 @@ import java.text.DecimalFormatSymbols;
 import java.util.Locale;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -27,20 +31,64 @@ import org.eclipse.aether.transfer.TransferEvent;
 import org.eclipse.aether.transfer.TransferListener;
 import org.eclipse.aether.transfer.TransferResource;
 
+import jenkins.util.SystemProperties;
+
+/**
+ * Prints transfers to the build console.
+ * <p>
+ * Progress of all in-flight transfers is combined into a single line, printed at most once per
+ * <code>progressInterval</code> milliseconds, no matter how many threads report progress. A progress event outside of
+ * the interval only updates counters, so logging transfers does not slow them down.
+ */
 public class ConsoleTransferListener implements TransferListener {
+
+    /**
+     * Milliseconds between two progress lines, <code>0</code> prints a line for every progress event.
+     */
+    public static final long PROGRESS_INTERVAL = SystemProperties.getLong(ConsoleTransferListener.class.getName()
+            + ".progressInterval", 1000L);
+
     private static final Log LOG = LogFactory.getLog(ConsoleTransferListener.class);
-    private Map<TransferResource, Long> downloads = new ConcurrentHashMap<>();
+
+    // guarded by 'this', as is everything printed
+    private final StringBuilder buffer = new StringBuilder(128);
+
+    private final LongSupplier clock;
+
+    private final DecimalFormat format = new DecimalFormat("0.0", new DecimalFormatSymbols(Locale.ENGLISH));
+
+    private final long interval;
+
+    private final AtomicLong nextProgress;
+
+    private final PrintStream out;
+
+    private final LongAdder transferred = new LongAdder();
+
+    private final Map<TransferResource, AtomicLong> transfers = new ConcurrentHashMap<>();
 
     private int lastLength;
 
-    private PrintStream out;
+    private long lastProgress;
+
+    private long lastTransferred;
 
     public ConsoleTransferListener(PrintStream out) {
+        this(out, PROGRESS_INTERVAL, System::nanoTime);
+    }
+
+    // visible for testing
+    ConsoleTransferListener(PrintStream out, long intervalMillis, LongSupplier clock) {
         this.out = (out != null) ? out : System.out;
+        this.clock = clock;
+        this.interval = TimeUnit.MILLISECONDS.toNanos(Math.max(intervalMillis, 0));
+
+        this.lastProgress = clock.getAsLong();
+        this.nextProgress = new AtomicLong(lastProgress);
     }
 
     @Override
-    public void transferCorrupted(TransferEvent event) {
+    public synchronized void transferCorrupted(TransferEvent event) {
         event.getException().printStackTrace(out);
     }
 
@@ -48,11 +96,14 @@ public class ConsoleTransferListener implements TransferListener {
     public void transferFailed(TransferEvent event) {
         transferCompleted(event);
         LOG.debug("transferFailed", event.getException());
-        out.println(event.getException().getMessage());
+
+        synchronized (this) {
+            out.println(event.getException().getMessage());
+        }
     }
 
     @Override
-    public void transferInitiated(TransferEvent event) {
+    public synchronized void transferInitiated(TransferEvent event) {
         String message = event.getRequestType() == TransferEvent.RequestType.PUT ? "Uploading" : "Downloading";
         out.println(message + ": " + event.getResource().getRepositoryUrl() + event.getResource().getResourceName());
     }
@@ -60,25 +111,24 @@ public class ConsoleTransferListener implements TransferListener {
     @Override
     public void transferProgressed(TransferEvent event) {
         TransferResource resource = event.getResource();
-        downloads.put(resource, Long.valueOf(event.getTransferredBytes()));
-
-        StringBuilder buffer = new StringBuilder(64);
 
-        for (Map.Entry<TransferResource, Long> entry : downloads.entrySet()) {
-            long total = entry.getKey().getContentLength();
-            long complete = entry.getValue().longValue();
-
-            buffer.append(getStatus(complete, total)).append("  ");
+        AtomicLong progress = transfers.get(resource);
+        if (progress == null) {
+            progress = transfers.computeIfAbsent(resource, key -> new AtomicLong());
         }
 
-        int pad = lastLength - buffer.length();
-        lastLength = buffer.length();
-        pad(buffer, pad);
-        buffer.append('\r');
+        progress.set(event.getTransferredBytes());
+        transferred.add(event.getDataLength());
 
-        out.print(buffer);
+        long now = clock.getAsLong();
+        long next = nextProgress.get();
+
+        // only the thread claiming the interval prints, every other one is done
+        if (now - next >= 0 && nextProgress.compareAndSet(next, now + interval)) {
+            printProgress(now);
+        }
     }
-   
+
     @Override
     public void transferStarted(TransferEvent arg0) throws TransferCancelledException {
     }
@@ -93,15 +143,16 @@ public class ConsoleTransferListener implements TransferListener {
             String type = (event.getRequestType() == TransferEvent.RequestType.PUT ? "Uploaded" : "Downloaded");
             String len = contentLength >= 1024 ? toKB(contentLength) + " KB" : contentLength + " B";
 
-            String throughput = "";
-            long duration = System.currentTimeMillis() - resource.getTransferStartTime();
-            if (duration > 0) {
-                DecimalFormat format = new DecimalFormat("0.0", new DecimalFormatSymbols(Locale.ENGLISH));
-                double kbPerSec = (contentLength / 1024.0) / (duration / 1000.0);
-                throughput = " at " + format.format(kbPerSec) + " KB/sec";
-            }
+            synchronized (this) {
+                String throughput = "";
+                long duration = System.currentTimeMillis() - resource.getTransferStartTime();
+                if (duration > 0) {
+                    double kbPerSec = (contentLength / 1024.0) / (duration / 1000.0);
+                    throughput = " at " + format.format(kbPerSec) + " KB/sec";
+                }
 
-            out.println(type + ": " + resource.getRepositoryUrl() + resource.getResourceName() + " (" + len + throughput + ")");
+                out.println(type + ": " + resource.getRepositoryUrl() + resource.getResourceName() + " (" + len + throughput + ")");
+            }
         }
     }
 
@@ -109,18 +160,6 @@ public class ConsoleTransferListener implements TransferListener {
         return (bytes + 1023) / 1024;
     }
 
-    private String getStatus(long complete, long total) {
-        if (total >= 1024) {
-            return toKB(complete) + "/" + toKB(total) + " KB ";
-        } else if (total >= 0) {
-            return complete + "/" + total + " B ";
-        } else if (complete >= 1024) {
-            return toKB(complete) + " KB ";
-        } else {
-            return complete + " B ";
-        }
-    }
-
     private void pad(StringBuilder buffer, int spaces) {
         String block = "                                        ";
         while (spaces > 0) {
@@ -130,12 +169,67 @@ public class ConsoleTransferListener implements TransferListener {
         }
     }
 
-    private void transferCompleted(TransferEvent event) {
-        downloads.remove(event.getResource());
+    private synchronized void printProgress(long now) {
+        int count = 0;
+        long complete = 0;
+        long total = 0;
+        boolean unknownTotal = false;
+
+        for (Map.Entry<TransferResource, AtomicLong> entry : transfers.entrySet()) {
+            long length = entry.getKey().getContentLength();
+
+            count++;
+            complete += entry.getValue().get();
+
+            if (length < 0) {
+                unknownTotal = true;
+            } else {
+                total += length;
+            }
+        }
+
+        if (count == 0) {
+            return;
+        }
+
+        long bytes = transferred.sum();
+        long elapsed = now - lastProgress;
+
+        buffer.setLength(0);
+        buffer.append(count).append(count == 1 ? " transfer: " : " transfers: ").append(toKB(complete));
+
+        if (!unknownTotal) {
+            buffer.append('/').append(toKB(total));
+        }
 
-        StringBuilder buffer = new StringBuilder(64);
-        pad(buffer, lastLength);
+        buffer.append(" KB");
+
+        if (elapsed > 0) {
+            double seconds = elapsed / (double) TimeUnit.SECONDS.toNanos(1);
+            buffer.append(" at ").append(format.format((bytes - lastTransferred) / 1024.0 / seconds)).append(" KB/sec");
+        }
+
+        lastProgress = now;
+        lastTransferred = bytes;
+
+        int pad = lastLength - buffer.length();
+        lastLength = buffer.length();
+        pad(buffer, pad);
         buffer.append('\r');
-        out.print(buffer);
+
+        out.append(buffer);
+    }
+
+    private void transferCompleted(TransferEvent event) {
+        transfers.remove(event.getResource());
+
+        synchronized (this) {
+            buffer.setLength(0);
+            pad(buffer, lastLength);
+            buffer.append('\r');
+
+            lastLength = 0;
+            out.append(buffer);
+        }
     }
 }
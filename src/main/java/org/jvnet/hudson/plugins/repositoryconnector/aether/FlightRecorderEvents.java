@@ -0,0 +1,263 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Java Flight Recorder events for resolution, deployment, version lookups and transfers, so the time spent on
+ * repositories shows up in a recording of the controller or an agent.
+ * <p>
+ * The plugin still runs on Java 8, where the JFR api may be missing, so the event types are defined at runtime with
+ * <code>jdk.jfr.EventFactory</code> and used reflectively. If the api is not available, or an event type is not enabled
+ * in the running recordings, {@link EventType#begin()} returns an event that does nothing.
+ */
+final class FlightRecorderEvents {
+
+    private static final Logger logger = Logger.getLogger(FlightRecorderEvents.class.getName());
+
+    private static final Api api = Api.create();
+
+    static final EventType DEPLOY = new EventType("RepositoryDeploy", "Repository Deploy",
+            "Artifacts deployed to a remote repository or installed into the local one",
+            new Field(String.class, "artifact", "Artifact"),
+            new Field(String.class, "repositoryId", "Repository"),
+            new Field(long.class, "bytes", "Bytes", true),
+            new Field(boolean.class, "failed", "Failed"));
+
+    static final EventType RESOLVE = new EventType("RepositoryResolve", "Repository Resolve",
+            "Artifact resolved from the local or a remote repository",
+            new Field(String.class, "artifact", "Artifact"),
+            new Field(String.class, "repositoryId", "Repository"),
+            new Field(long.class, "bytes", "Bytes", true),
+            new Field(boolean.class, "failed", "Failed"));
+
+    static final EventType TRANSFER = new EventType("Transfer", "Repository Transfer",
+            "File downloaded from or uploaded to a remote repository",
+            new Field(String.class, "resource", "Resource"),
+            new Field(String.class, "repositoryId", "Repository"),
+            new Field(long.class, "bytes", "Bytes", true),
+            new Field(boolean.class, "upload", "Upload"),
+            new Field(boolean.class, "failed", "Failed"));
+
+    static final EventType VERSION_RANGE = new EventType("VersionRange", "Version Range",
+            "Available versions of an artifact looked up",
+            new Field(String.class, "artifact", "Artifact"),
+            new Field(String.class, "repositoryId", "Repository"),
+            new Field(int.class, "versions", "Versions"),
+            new Field(boolean.class, "failed", "Failed"));
+
+    private FlightRecorderEvents() {
+        // static access only
+    }
+
+    static boolean isAvailable() {
+        return api != null;
+    }
+
+    /**
+     * An event that was begun, its duration ends when it is committed.
+     */
+    static final class Event {
+
+        private static final Event DISABLED = new Event(null);
+
+        private final Object event;
+
+        private Event(Object event) {
+            this.event = event;
+        }
+
+        /**
+         * Returns if the event will be committed, so values that are expensive to get are only looked up for a
+         * recording.
+         */
+        boolean isRecording() {
+            return event != null;
+        }
+
+        /**
+         * Ends the event and commits it with the given values, in the order the fields of its type were defined.
+         * Nothing is committed if it is shorter than the threshold of the recording.
+         */
+        void commit(Object... values) {
+            if (event == null) {
+                return;
+            }
+
+            try {
+                api.end.invokeExact(event);
+
+                if ((boolean) api.shouldCommit.invokeExact(event)) {
+                    for (int i = 0; i < values.length; i++) {
+                        api.set.invokeExact(event, i, values[i]);
+                    }
+
+                    api.commit.invokeExact(event);
+                }
+            } catch (Throwable e) {
+                logger.log(Level.FINE, "failed to commit flight recorder event", e);
+            }
+        }
+    }
+
+    static final class EventType {
+
+        private final Object factory;
+
+        EventType(String name, String label, String description, Field... fields) {
+            this.factory = api == null ? null : api.createFactory(name, label, description, Arrays.asList(fields));
+        }
+
+        Event begin() {
+            if (factory == null) {
+                return Event.DISABLED;
+            }
+
+            try {
+                Object event = api.newEvent.invokeExact(factory);
+
+                if (!(boolean) api.isEnabled.invokeExact(event)) {
+                    return Event.DISABLED;
+                }
+
+                api.begin.invokeExact(event);
+                return new Event(event);
+            } catch (Throwable e) {
+                logger.log(Level.FINE, "failed to begin flight recorder event", e);
+                return Event.DISABLED;
+            }
+        }
+    }
+
+    private static final class Api {
+
+        private final MethodHandle begin;
+
+        private final MethodHandle commit;
+
+        private final MethodHandle createAnnotation;
+
+        private final MethodHandle createFactory;
+
+        private final MethodHandle createField;
+
+        private final MethodHandle end;
+
+        private final MethodHandle isEnabled;
+
+        private final MethodHandle newEvent;
+
+        private final MethodHandle set;
+
+        private final MethodHandle shouldCommit;
+
+        private Api() throws ReflectiveOperationException {
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            Class<?> eventClass = Class.forName("jdk.jfr.Event");
+            Class<?> annotationClass = Class.forName("jdk.jfr.AnnotationElement");
+            Class<?> fieldClass = Class.forName("jdk.jfr.ValueDescriptor");
+
+            Class<?> eventFactoryClass = Class.forName("jdk.jfr.EventFactory");
+
+            this.begin = eventMethod(lookup, eventClass, "begin", void.class);
+            this.end = eventMethod(lookup, eventClass, "end", void.class);
+            this.commit = eventMethod(lookup, eventClass, "commit", void.class);
+            this.isEnabled = eventMethod(lookup, eventClass, "isEnabled", boolean.class);
+            this.shouldCommit = eventMethod(lookup, eventClass, "shouldCommit", boolean.class);
+
+            this.set = lookup.findVirtual(eventClass, "set", MethodType.methodType(void.class, int.class, Object.class))
+                    .asType(MethodType.methodType(void.class, Object.class, int.class, Object.class));
+
+            this.newEvent = lookup.findVirtual(eventFactoryClass, "newEvent", MethodType.methodType(eventClass))
+                    .asType(MethodType.methodType(Object.class, Object.class));
+
+            this.createFactory = lookup.findStatic(eventFactoryClass, "create",
+                    MethodType.methodType(eventFactoryClass, List.class, List.class));
+            this.createAnnotation = lookup.findConstructor(annotationClass,
+                    MethodType.methodType(void.class, Class.class, Object.class));
+            this.createField = lookup.findConstructor(fieldClass,
+                    MethodType.methodType(void.class, Class.class, String.class, List.class));
+        }
+
+        Object createFactory(String name, String label, String description, List<Field> fields) {
+            try {
+                List<Object> annotations = Arrays.asList(
+                        annotation("Name", FlightRecorderEvents.class.getPackage().getName() + "." + name),
+                        annotation("Label", label),
+                        annotation("Description", description),
+                        annotation("Category", new String[] { "Jenkins", "Repository Connector" }),
+                        // the caller is always the same few methods, not worth the overhead
+                        annotation("StackTrace", false));
+
+                List<Object> descriptors = new ArrayList<>();
+                for (Field field : fields) {
+                    List<Object> fieldAnnotations = new ArrayList<>();
+                    fieldAnnotations.add(annotation("Label", field.label));
+
+                    if (field.bytes) {
+                        fieldAnnotations.add(annotation("DataAmount", "BYTES"));
+                    }
+
+                    descriptors.add(createField.invoke(field.type, field.name, fieldAnnotations));
+                }
+
+                return createFactory.invoke(annotations, descriptors);
+            } catch (Throwable e) {
+                logger.log(Level.WARNING, "failed to define flight recorder event " + name, e);
+                return null;
+            }
+        }
+
+        private Object annotation(String type, Object value) throws Throwable {
+            @SuppressWarnings("unchecked")
+            Class<? extends Annotation> annotationType = (Class<? extends Annotation>) Class.forName("jdk.jfr." + type);
+
+            return createAnnotation.invoke(annotationType, value);
+        }
+
+        static Api create() {
+            try {
+                return new Api();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                logger.log(Level.FINE, "flight recorder api not available, no events are emitted", e);
+                return null;
+            }
+        }
+
+        private static MethodHandle eventMethod(MethodHandles.Lookup lookup, Class<?> eventClass, String name,
+                Class<?> returnType) throws ReflectiveOperationException {
+            return lookup.findVirtual(eventClass, name, MethodType.methodType(returnType))
+                    .asType(MethodType.methodType(returnType, Object.class));
+        }
+    }
+
+    private static final class Field {
+
+        private final boolean bytes;
+
+        private final String label;
+
+        private final String name;
+
+        private final Class<?> type;
+
+        Field(Class<?> type, String name, String label) {
+            this(type, name, label, false);
+        }
+
+        Field(Class<?> type, String name, String label, boolean bytes) {
+            this.type = type;
+            this.name = name;
+            this.label = label;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Emits a {@link FlightRecorderEvents#TRANSFER} event for every transfer of a session, lasting from when the transfer
+ * was initiated until it succeeded or failed.
+ */
+class FlightRecorderListener extends AbstractTransferListener {
+
+    private final Map<TransferResource, FlightRecorderEvents.Event> events = new ConcurrentHashMap<>();
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        commit(event, true);
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent event) {
+        events.put(event.getResource(), FlightRecorderEvents.TRANSFER.begin());
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        commit(event, false);
+    }
+
+    private void commit(TransferEvent event, boolean failed) {
+        TransferResource resource = event.getResource();
+        FlightRecorderEvents.Event recorded = events.remove(resource);
+
+        if (recorded != null) {
+            recorded.commit(resource.getRepositoryUrl() + resource.getResourceName(), resource.getRepositoryId(),
+                    event.getTransferredBytes(), event.getRequestType() == TransferEvent.RequestType.PUT, failed);
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+
+/**
+ * Registry of the artifacts being resolved in this jvm, so concurrent resolutions of the same artifact from the same
+ * repositories into the same local repository share a single download.
+ * <p>
+ * The first resolution of an artifact leads, every other one started before it completes follows and receives the
+ * result of the leader once it resolved the artifact. A leader may fail for reasons of its own, ie the credentials of
+ * its folder, so its followers resolve the artifact themselves then. A resolution that leads for some artifacts and
+ * follows for others must complete all of its own before waiting on any other, otherwise two of them could wait on each
+ * other.
+ */
+final class InFlightResolutions {
+
+    private static final Map<String, CompletableFuture<ArtifactResult>> inFlight = new ConcurrentHashMap<>();
+
+    private InFlightResolutions() {
+        // static access only
+    }
+
+    /**
+     * Joins the resolution of the given key, the returned flight leads it if there is none in progress yet.
+     */
+    static Flight join(String key) {
+        CompletableFuture<ArtifactResult> future = new CompletableFuture<>();
+        CompletableFuture<ArtifactResult> existing = inFlight.putIfAbsent(key, future);
+
+        if (existing != null) {
+            RepositoryMetrics.coalesced();
+            return new Flight(key, existing, false);
+        }
+
+        return new Flight(key, future, true);
+    }
+
+    // visible for testing
+    static int size() {
+        return inFlight.size();
+    }
+
+    static final class Flight {
+
+        private final CompletableFuture<ArtifactResult> future;
+
+        private final String key;
+
+        private final boolean leader;
+
+        private Flight(String key, CompletableFuture<ArtifactResult> future, boolean leader) {
+            this.key = key;
+            this.future = future;
+            this.leader = leader;
+        }
+
+        /**
+         * Waits for the leader and returns its result, or <code>null</code> if the leader did not resolve the artifact
+         * and the follower has to resolve it itself. A follower that is interrupted receives a failed result of its own.
+         */
+        ArtifactResult await(ArtifactRequest request) {
+            try {
+                ArtifactResult result = future.get();
+                return result != null && result.isResolved() ? result : null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return new ArtifactResult(request).addException(e);
+            } catch (@SuppressWarnings("unused") ExecutionException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Ends the resolution led by this flight, handing the result to its followers.
+         */
+        void complete(ArtifactResult result) {
+            if (leader) {
+                inFlight.remove(key, future);
+                future.complete(result);
+            }
+        }
+
+        /**
+         * Ends the resolution led by this flight, if it did not complete normally.
+         */
+        void fail(Throwable failure) {
+            if (leader) {
+                inFlight.remove(key, future);
+                future.completeExceptionally(failure);
+            }
+        }
+
+        boolean isLeader() {
+            return leader;
+        }
+    }
+}
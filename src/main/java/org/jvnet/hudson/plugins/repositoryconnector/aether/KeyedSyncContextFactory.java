@@ -0,0 +1,85 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.SyncContext;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.impl.SyncContextFactory;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.LocalRepository;
+
+/**
+ * Serializes access to the same artifacts of the local repository, which is shared by every build on the controller.
+ * <p>
+ * Artifacts are locked by group id, artifact id and version, so all files of a version share a lock, and metadata by its
+ * own coordinates, see {@link LocalRepositoryLocks}. Unrelated artifacts never wait on each other.
+ * <p>
+ * Locks are exclusive and reentrant. The resolver locks the metadata of an artifact while holding the artifact itself,
+ * so a context always acquires artifacts before metadata, each in sorted order, and two contexts can not wait on each
+ * other.
+ */
+final class KeyedSyncContextFactory implements SyncContextFactory {
+
+    @Override
+    public SyncContext newInstance(RepositorySystemSession session, boolean shared) {
+        LocalRepository localRepository = session.getLocalRepository();
+        File basedir = localRepository == null ? null : localRepository.getBasedir();
+
+        return new KeyedSyncContext(LocalRepositoryLocks.getLockDirectory(basedir == null ? null : basedir.toPath()));
+    }
+
+    private static final class KeyedSyncContext implements SyncContext {
+
+        private final Deque<LocalRepositoryLocks.Held> acquired = new ArrayDeque<>();
+
+        private final Path lockDirectory;
+
+        KeyedSyncContext(Path lockDirectory) {
+            this.lockDirectory = lockDirectory;
+        }
+
+        @Override
+        public void acquire(Collection<? extends Artifact> artifacts, Collection<? extends Metadata> metadatas) {
+            SortedSet<String> artifactKeys = new TreeSet<>();
+            SortedSet<String> metadataKeys = new TreeSet<>();
+
+            if (artifacts != null) {
+                artifacts.forEach(artifact -> artifactKeys.add(LocalRepositoryLocks.getArtifactKey(artifact.getGroupId(),
+                        artifact.getArtifactId(), artifact.getBaseVersion())));
+            }
+
+            if (metadatas != null) {
+                metadatas.forEach(metadata -> metadataKeys.add(LocalRepositoryLocks.getMetadataKey(metadata.getGroupId(),
+                        metadata.getArtifactId(), metadata.getVersion())));
+            }
+
+            try {
+                for (String key : artifactKeys) {
+                    acquired.push(LocalRepositoryLocks.lock(lockDirectory, key));
+                }
+
+                for (String key : metadataKeys) {
+                    acquired.push(LocalRepositoryLocks.lock(lockDirectory, key));
+                }
+            } catch (RuntimeException e) {
+                // the resolver only closes contexts it acquired successfully
+                close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            while (!acquired.isEmpty()) {
+                acquired.pop().close();
+            }
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.jvnet.hudson.plugins.repositoryconnector.util.LocalRepositoryIndex;
+
+/**
+ * Records every artifact resolved from or installed into the local repository in its {@link LocalRepositoryIndex}.
+ */
+class LocalRepositoryListener extends AbstractRepositoryListener {
+
+    private final LocalRepositoryIndex index;
+
+    LocalRepositoryListener(LocalRepositoryIndex index) {
+        this.index = index;
+    }
+
+    @Override
+    public void artifactInstalled(RepositoryEvent event) {
+        touch(event.getFile());
+    }
+
+    @Override
+    public void artifactResolved(RepositoryEvent event) {
+        if (event.getException() == null && event.getArtifact() != null) {
+            touch(event.getArtifact().getFile());
+        }
+    }
+
+    private void touch(File file) {
+        if (file != null) {
+            index.touch(file);
+        }
+    }
+}
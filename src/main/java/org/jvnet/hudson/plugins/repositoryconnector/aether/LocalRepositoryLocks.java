@@ -0,0 +1,354 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import hudson.Util;
+
+/**
+ * Exclusive, reentrant locks on the artifacts and metadata of the local repositories, shared by the resolver (see
+ * {@link KeyedSyncContextFactory}) and the eviction of unused artifacts.
+ * <p>
+ * There is a lock for every key in use, created when first acquired and dropped once nobody holds or waits for it, so
+ * unrelated artifacts never wait on each other. Each lock is backed by a lock file below the local repository as well,
+ * to keep other processes using the same repository out. The lock file is named after the SHA-1 of the key and deleted
+ * again when the lock is released and nobody in this jvm waits for it. A lock that can not be acquired within
+ * {@value #TIMEOUT} seconds fails with a {@link LockTimeoutException}.
+ */
+public final class LocalRepositoryLocks {
+
+    private static final Logger logger = Logger.getLogger(LocalRepositoryLocks.class.getName());
+
+    static final String LOCK_DIRECTORY = ".locks";
+
+    static final long TIMEOUT = 600;
+
+    private static final long POLL_INTERVAL = 50;
+
+    private static final Map<String, KeyLock> locks = new ConcurrentHashMap<>();
+
+    private LocalRepositoryLocks() {
+        // static access only
+    }
+
+    /**
+     * Locks the artifacts and metadata of a version if nobody else holds them, returning <code>null</code> otherwise.
+     */
+    public static Held tryLockVersion(Path localRepository, String groupId, String artifactId, String version) {
+        Path lockDirectory = getLockDirectory(localRepository);
+
+        Held artifacts = tryLock(lockDirectory, getArtifactKey(groupId, artifactId, version));
+        if (artifacts == null) {
+            return null;
+        }
+
+        Held metadata = tryLock(lockDirectory, getMetadataKey(groupId, artifactId, version));
+        if (metadata == null) {
+            artifacts.close();
+            return null;
+        }
+
+        return () -> {
+            metadata.close();
+            artifacts.close();
+        };
+    }
+
+    static String getArtifactKey(String groupId, String artifactId, String version) {
+        return "artifact:" + groupId + ":" + artifactId + ":" + version;
+    }
+
+    // visible for testing
+    static String getLockFileName(String key) {
+        try {
+            // keys differing in characters a file name can not hold must not share a file
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            return Util.toHexString(digest.digest(key.getBytes(StandardCharsets.UTF_8))) + ".lock";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static Path getLockDirectory(Path localRepository) {
+        return localRepository == null ? null : localRepository.resolve(LOCK_DIRECTORY);
+    }
+
+    static String getMetadataKey(String groupId, String artifactId, String version) {
+        // group level metadata, ie of maven plugins, has neither artifact id nor version
+        StringBuilder key = new StringBuilder("metadata:").append(groupId);
+
+        if (!artifactId.isEmpty()) {
+            key.append(':').append(artifactId);
+        }
+
+        if (!version.isEmpty()) {
+            key.append(':').append(version);
+        }
+
+        return key.toString();
+    }
+
+    /**
+     * Waits up to {@value #TIMEOUT} seconds for the lock of the key.
+     *
+     * @param lockDirectory where the lock files are kept, <code>null</code> to only lock within this jvm
+     */
+    static Held lock(Path lockDirectory, String key) {
+        KeyLock lock = reference(lockDirectory, key);
+
+        try {
+            if (!lock.lock.tryLock(TIMEOUT, TimeUnit.SECONDS)) {
+                throw new LockTimeoutException("timed out waiting for local repository lock " + key);
+            }
+        } catch (InterruptedException e) {
+            dereference(lock);
+
+            Thread.currentThread().interrupt();
+            throw new LockTimeoutException("interrupted waiting for local repository lock " + key, e);
+        } catch (RuntimeException e) {
+            dereference(lock);
+            throw e;
+        }
+
+        try {
+            lock.lockFile(true);
+        } catch (RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+
+        return lock::unlock;
+    }
+
+    // visible for testing
+    static int size() {
+        return locks.size();
+    }
+
+    private static Held tryLock(Path lockDirectory, String key) {
+        KeyLock lock = reference(lockDirectory, key);
+
+        if (!lock.lock.tryLock()) {
+            dereference(lock);
+            return null;
+        }
+
+        if (!lock.lockFile(false)) {
+            lock.unlock();
+            return null;
+        }
+
+        return lock::unlock;
+    }
+
+    private static void dereference(KeyLock lock) {
+        locks.computeIfPresent(lock.id, (id, existing) -> --existing.references == 0 ? null : existing);
+    }
+
+    private static KeyLock reference(Path lockDirectory, String key) {
+        String id = lockDirectory == null ? key : lockDirectory + "!" + key;
+
+        // counted before waiting, so the lock is not dropped while anybody waits for it
+        return locks.compute(id, (k, existing) -> {
+            KeyLock lock = existing == null ? new KeyLock(k, lockDirectory, key) : existing;
+            lock.references++;
+
+            return lock;
+        });
+    }
+
+    /**
+     * A held lock, released when closed.
+     */
+    @FunctionalInterface
+    public interface Held extends AutoCloseable {
+
+        @Override
+        void close();
+    }
+
+    private static final class KeyLock {
+
+        // only used by the thread holding the lock
+        private FileChannel channel;
+
+        // only used by the thread holding the lock
+        private Object fileKey;
+
+        // only used by the thread holding the lock
+        private FileLock fileLock;
+
+        private final String id;
+
+        private final String key;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final Path lockDirectory;
+
+        // only used by the thread holding the lock
+        private Path path;
+
+        // guarded by the map
+        private int references;
+
+        KeyLock(String id, Path lockDirectory, String key) {
+            this.id = id;
+            this.lockDirectory = lockDirectory;
+            this.key = key;
+        }
+
+        /**
+         * Locks the lock file once the lock is held by this thread for the first time, returns <code>false</code> if
+         * another process holds it and <code>wait</code> is not set.
+         */
+        boolean lockFile(boolean wait) {
+            if (lockDirectory == null || lock.getHoldCount() > 1) {
+                return true;
+            }
+
+            Path path = lockDirectory.resolve(getLockFileName(key));
+
+            try {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT);
+
+                // held by another process, or deleted by the process that held it last
+                while ((fileLock = tryLockFile(path)) == null) {
+                    if (!wait) {
+                        return false;
+                    }
+
+                    if (System.nanoTime() > deadline) {
+                        throw new LockTimeoutException("timed out waiting for local repository lock " + path);
+                    }
+
+                    Thread.sleep(POLL_INTERVAL);
+                }
+
+                this.path = path;
+            } catch (IOException e) {
+                // ie a read only repository, other processes are not kept out but the jvm still is
+                logger.log(Level.FINE, "failed to lock " + path, e);
+                closeChannel();
+            } catch (InterruptedException e) {
+                closeChannel();
+
+                Thread.currentThread().interrupt();
+                throw new LockTimeoutException("interrupted waiting for local repository lock " + path, e);
+            } catch (RuntimeException e) {
+                closeChannel();
+                throw e;
+            }
+
+            return true;
+        }
+
+        void unlock() {
+            try {
+                if (lock.getHoldCount() == 1 && fileLock != null) {
+                    try {
+                        // while still locked, whoever locks the file next checks it was not deleted meanwhile
+                        if (fileKey != null && !lock.hasQueuedThreads()) {
+                            Files.deleteIfExists(path);
+                        }
+
+                        fileLock.release();
+                    } catch (IOException e) {
+                        logger.log(Level.FINE, "failed to release local repository lock", e);
+                    } finally {
+                        fileKey = null;
+                        fileLock = null;
+                        path = null;
+                        closeChannel();
+                    }
+                }
+            } finally {
+                lock.unlock();
+                dereference(this);
+            }
+        }
+
+        private void closeChannel() {
+            if (channel != null) {
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.log(Level.FINE, "failed to close lock file", e);
+                } finally {
+                    channel = null;
+                }
+            }
+        }
+
+        /**
+         * Locks the lock file, returns <code>null</code> if another process or another key of this jvm holds it. Lock
+         * files are only deleted while locked, so a file that is no longer at its path once locked was deleted after it
+         * was opened here and the file that replaced it is locked instead.
+         */
+        private FileLock tryLockFile(Path path) throws IOException {
+            Files.createDirectories(path.getParent());
+
+            while (true) {
+                try {
+                    Files.createFile(path);
+                } catch (@SuppressWarnings("unused") FileAlreadyExistsException e) {
+                    // locked by somebody else or left behind
+                }
+
+                Object current;
+                try {
+                    current = Files.readAttributes(path, BasicFileAttributes.class).fileKey();
+                    channel = FileChannel.open(path, StandardOpenOption.WRITE);
+                } catch (@SuppressWarnings("unused") NoSuchFileException e) {
+                    continue;
+                }
+
+                FileLock locked;
+                try {
+                    locked = channel.tryLock();
+                } catch (@SuppressWarnings("unused") OverlappingFileLockException e) {
+                    locked = null;
+                }
+
+                if (locked == null) {
+                    closeChannel();
+                    return null;
+                }
+
+                // without file keys, ie on windows, there is no telling and the file is never deleted
+                if (current == null || isCurrent(path, current)) {
+                    fileKey = current;
+                    return locked;
+                }
+
+                locked.release();
+                closeChannel();
+            }
+        }
+
+        private static boolean isCurrent(Path path, Object key) throws IOException {
+            try {
+                return key.equals(Files.readAttributes(path, BasicFileAttributes.class).fileKey());
+            } catch (@SuppressWarnings("unused") NoSuchFileException e) {
+                return false;
+            }
+        }
+    }
+}
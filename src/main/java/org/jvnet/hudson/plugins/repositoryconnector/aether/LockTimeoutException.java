@@ -0,0 +1,18 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+/**
+ * Thrown by the {@link LocalRepositoryLocks} if a lock could not be acquired in time, or waiting for it was
+ * interrupted. It passes through the repository system unchanged, {@link Aether} reports it like any other failure.
+ */
+final class LockTimeoutException extends IllegalStateException {
+
+    private static final long serialVersionUID = 1L;
+
+    LockTimeoutException(String message) {
+        super(message);
+    }
+
+    LockTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,198 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.repository.ArtifactRepository;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Feeds the {@link RepositoryMetrics} from the events of a single session.
+ * <p>
+ * The session may be used by several threads at once, so the start and end of an operation are matched by the trace
+ * of the request they belong to as well. An artifact counts as a cache hit if it was resolved without being downloaded
+ * by the same session first.
+ * <p>
+ * Sessions on an agent record into the metrics of the agent, which are not sent to the controller.
+ */
+class MetricsListener extends AbstractRepositoryListener implements TransferListener {
+
+    private static final String LOCAL = "local";
+
+    private final LongSupplier clock;
+
+    private final Set<String> downloaded = ConcurrentHashMap.newKeySet();
+
+    private final Map<EventKey, Long> started = new ConcurrentHashMap<>();
+
+    MetricsListener() {
+        this(System::nanoTime);
+    }
+
+    // visible for testing
+    MetricsListener(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void artifactDeployed(RepositoryEvent event) {
+        end(RepositoryMetrics.DEPLOY, event);
+    }
+
+    @Override
+    public void artifactDeploying(RepositoryEvent event) {
+        start(RepositoryMetrics.DEPLOY, event);
+    }
+
+    @Override
+    public void artifactDownloaded(RepositoryEvent event) {
+        end(RepositoryMetrics.RESOLVE, event);
+    }
+
+    @Override
+    public void artifactDownloading(RepositoryEvent event) {
+        downloaded.add(event.getArtifact().toString());
+        start(RepositoryMetrics.RESOLVE, event);
+    }
+
+    @Override
+    public void artifactInstalled(RepositoryEvent event) {
+        end(RepositoryMetrics.INSTALL, event);
+    }
+
+    @Override
+    public void artifactInstalling(RepositoryEvent event) {
+        start(RepositoryMetrics.INSTALL, event);
+    }
+
+    @Override
+    public void artifactResolved(RepositoryEvent event) {
+        if (event.getException() != null || event.getArtifact().getFile() == null) {
+            return;
+        }
+
+        if (downloaded.remove(event.getArtifact().toString())) {
+            RepositoryMetrics.cacheMiss();
+        } else {
+            RepositoryMetrics.cacheHit();
+        }
+    }
+
+    @Override
+    public void metadataResolved(RepositoryEvent event) {
+        end(getMetadataOperation(event), event);
+    }
+
+    @Override
+    public void metadataResolving(RepositoryEvent event) {
+        start(getMetadataOperation(event), event);
+    }
+
+    @Override
+    public void transferCorrupted(TransferEvent event) {
+        // retried or failed, both are signaled separately
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        transferCompleted(event, true);
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent event) {
+        RepositoryMetrics.transferStarted();
+    }
+
+    @Override
+    public void transferProgressed(TransferEvent event) {
+        // only completed transfers are counted
+    }
+
+    @Override
+    public void transferStarted(TransferEvent event) {
+        // counted once initiated
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        transferCompleted(event, false);
+    }
+
+    private void end(String operation, RepositoryEvent event) {
+        Long start = started.remove(getEventKey(operation, event));
+
+        if (start != null) {
+            RepositoryMetrics.operationCompleted(getRepositoryId(event.getRepository()), operation,
+                    clock.getAsLong() - start, isError(event.getException()));
+        }
+    }
+
+    private void start(String operation, RepositoryEvent event) {
+        started.put(getEventKey(operation, event), clock.getAsLong());
+    }
+
+    private static EventKey getEventKey(String operation, RepositoryEvent event) {
+        Object subject = event.getArtifact() != null ? event.getArtifact() : event.getMetadata();
+
+        // both events of an operation carry the trace of its request, unique to the request
+        Object trace = event.getTrace() != null ? event.getTrace() : Thread.currentThread();
+        return new EventKey(operation + ":" + subject + "@" + event.getRepository(), trace);
+    }
+
+    private static String getMetadataOperation(RepositoryEvent event) {
+        // the metadata of an artifact lists its versions, the metadata of a version its snapshots
+        return event.getMetadata().getVersion().isEmpty() ? RepositoryMetrics.VERSION_RANGE : RepositoryMetrics.VERSION;
+    }
+
+    private static String getRepositoryId(ArtifactRepository repository) {
+        return repository == null ? LOCAL : repository.getId();
+    }
+
+    private static boolean isError(Exception exception) {
+        return exception != null && !(exception instanceof ArtifactNotFoundException)
+                && !(exception instanceof MetadataNotFoundException);
+    }
+
+    private static void transferCompleted(TransferEvent event, boolean failed) {
+        TransferResource resource = event.getResource();
+        String repositoryId = resource.getRepositoryId().isEmpty() ? LOCAL : resource.getRepositoryId();
+
+        RepositoryMetrics.transferCompleted(repositoryId, event.getTransferredBytes(),
+                event.getRequestType() == TransferEvent.RequestType.PUT, failed);
+    }
+
+    private static final class EventKey {
+
+        private final String name;
+
+        private final Object trace;
+
+        EventKey(String name, Object trace) {
+            this.name = name;
+            this.trace = trace;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof EventKey)) {
+                return false;
+            }
+
+            EventKey other = (EventKey) obj;
+            return trace == other.trace && name.equals(other.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + System.identityHashCode(trace);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.Proxy;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+/**
+ * Holds the {@link RemoteRepository} instances built for the configured repositories, they are immutable and can be
+ * shared by every {@link Aether} instance.
+ * <p>
+ * An instance is looked up by everything it is built from, including the credentials and proxy, so a changed
+ * repository or credential never returns a stale instance. The cache is still cleared when the repositories are saved
+ * or credentials change, so instances that are no longer used do not linger.
+ */
+public final class RemoteRepositoryCache {
+
+    // visible for unit testing
+    static final int MAX_ENTRIES = 256;
+
+    private static final Logger logger = Logger.getLogger(RemoteRepositoryCache.class.getName());
+
+    private static final Map<Key, RemoteRepository> entries = new LinkedHashMap<Key, RemoteRepository>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, RemoteRepository> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private RemoteRepositoryCache() {
+        // static access only
+    }
+
+    public static synchronized void clear() {
+        if (!entries.isEmpty()) {
+            logger.fine("clearing cached remote repositories");
+            entries.clear();
+        }
+    }
+
+    static RemoteRepository get(Key key, Supplier<RemoteRepository> factory) {
+        synchronized (RemoteRepositoryCache.class) {
+            RemoteRepository repository = entries.get(key);
+            if (repository != null) {
+                return repository;
+            }
+        }
+
+        // building is cheap enough that two threads racing for the same key is not worth blocking for
+        RemoteRepository repository = factory.get();
+
+        synchronized (RemoteRepositoryCache.class) {
+            RemoteRepository existing = entries.putIfAbsent(key, repository);
+            return existing == null ? repository : existing;
+        }
+    }
+
+    // visible for unit testing
+    static synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Identifies a remote repository by the values it is built from.
+     */
+    static final class Key {
+
+        private final Authentication authentication;
+
+        private final String id;
+
+        private final Proxy proxy;
+
+        private final RepositoryPolicy releasePolicy;
+
+        private final RepositoryPolicy snapshotPolicy;
+
+        private final String type;
+
+        private final String url;
+
+        Key(String id, String type, String url, RepositoryPolicy releasePolicy, RepositoryPolicy snapshotPolicy,
+                Authentication authentication, Proxy proxy) {
+            this.id = id;
+            this.type = type;
+            this.url = url;
+            this.releasePolicy = releasePolicy;
+            this.snapshotPolicy = snapshotPolicy;
+            this.authentication = authentication;
+            this.proxy = proxy;
+        }
+
+        Authentication getAuthentication() {
+            return authentication;
+        }
+
+        Proxy getProxy() {
+            return proxy;
+        }
+
+        RepositoryPolicy getReleasePolicy() {
+            return releasePolicy;
+        }
+
+        RepositoryPolicy getSnapshotPolicy() {
+            return snapshotPolicy;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return Objects.equals(id, other.id)
+                    && Objects.equals(type, other.type)
+                    && Objects.equals(url, other.url)
+                    && Objects.equals(releasePolicy, other.releasePolicy)
+                    && Objects.equals(snapshotPolicy, other.snapshotPolicy)
+                    && Objects.equals(authentication, other.authentication)
+                    && Objects.equals(proxy, other.proxy);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(id, type, url, releasePolicy, snapshotPolicy, authentication, proxy);
+        }
+    }
+}
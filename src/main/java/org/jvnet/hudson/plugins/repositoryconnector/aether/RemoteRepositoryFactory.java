@@ -1,12 +1,15 @@
 package org.jvnet.hudson.plugins.repositoryconnector.aether;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.Proxy;
 import org.eclipse.aether.repository.ProxySelector;
 import org.eclipse.aether.repository.RemoteRepository;
 import org.eclipse.aether.repository.RemoteRepository.Builder;
@@ -22,11 +25,17 @@ class RemoteRepositoryFactory {
 
     private final Collection<Repository> repositories;
 
+    // shared by every thread resolving through the same aether instance, so it is never modified
+    private final Map<String, Repository> repositoriesById;
+
     RemoteRepositoryFactory(Collection<Repository> repositories, ProxySelector proxySelector,
             Function<Repository, Authentication> credentials) {
         this.repositories = repositories;
         this.credentials = credentials;
         this.proxySelector = proxySelector;
+
+        this.repositoriesById = repositories.stream()
+                .collect(Collectors.toMap(Repository::getId, Function.identity(), (first, second) -> first));
     }
 
     RemoteRepository getDeloymentRepository(String repositoryId, boolean snapshot) throws AetherException {
@@ -47,33 +56,39 @@ class RemoteRepositoryFactory {
             throw new AetherException("no repositories are configured, unable to perform artifact resolution!");
         }
 
+        if (repositoryId != null) {
+            return Optional.ofNullable(findRepository(repositoryId))
+                    .map(this::createRemoteRepository)
+                    .map(Collections::singletonList)
+                    .orElse(Collections.emptyList());
+        }
+
         return repositories.stream()
-                .filter(repository -> repositoryId == null || repository.getId().equals(repositoryId))
                 .map(this::createRemoteRepository)
                 .collect(Collectors.toList());
     }
 
-    private void addReleasePolicy(Builder builder, Repository repository) {
-        builder.setReleasePolicy(createRepositoryPolicy(repository.isEnableReleaseRepository(), repository.getReleaseRepository()));
-    }
-
-    private void addSnapshotPolicy(Builder builder, Repository repository) {
-        builder.setSnapshotPolicy(createRepositoryPolicy(repository.isEnableSnapshotRepository(), repository.getSnapshotRepository()));
-    }
-
     private RemoteRepository createRemoteRepository(Repository repository) {
-        RemoteRepository.Builder builder = new RemoteRepository.Builder(repository.getId(), repository.getType(), repository.getUrl());
-        builder.setAuthentication(credentials.apply(repository));
+        Builder builder = new Builder(repository.getId(), repository.getType(), repository.getUrl());
 
-        addReleasePolicy(builder, repository);
-        addSnapshotPolicy(builder, repository);
+        // the proxy only depends on the url, so it is selected before anything else is added
+        Proxy proxy = proxySelector == null ? null : proxySelector.getProxy(builder.build());
 
-        RemoteRepository mirror = builder.build();
+        RemoteRepositoryCache.Key key = new RemoteRepositoryCache.Key(repository.getId(), repository.getType(),
+                repository.getUrl(),
+                createRepositoryPolicy(repository.isEnableReleaseRepository(), repository.getReleaseRepository()),
+                createRepositoryPolicy(repository.isEnableSnapshotRepository(), repository.getSnapshotRepository()),
+                credentials.apply(repository), proxy);
 
-        if (proxySelector != null) {
-            // irritating
-            mirror = builder.setProxy(proxySelector.getProxy(mirror)).build();
-        }
+        return RemoteRepositoryCache.get(key, () -> createRemoteRepository(builder, key));
+    }
+
+    private RemoteRepository createRemoteRepository(Builder builder, RemoteRepositoryCache.Key key) {
+        RemoteRepository mirror = builder.setAuthentication(key.getAuthentication())
+                .setReleasePolicy(key.getReleasePolicy())
+                .setSnapshotPolicy(key.getSnapshotPolicy())
+                .setProxy(key.getProxy())
+                .build();
 
         /*- 
          * it seems this is required for snapshot resolution, otherwise only the first version found is ever returned.
@@ -93,11 +108,7 @@ class RemoteRepositoryFactory {
     }
 
     private Repository findRepository(String repositoryId) {
-        return repositories
-                .stream()
-                .filter(repository -> repository.getId().equals(repositoryId))
-                .findFirst()
-                .get();
+        return repositoriesById.get(repositoryId);
     }
 
     private Repository mapToDeployable(Repository repository, boolean snapshot) {
@@ -0,0 +1,417 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Controller wide counters and latency histograms of the operations performed by every {@link Aether} instance,
+ * gathered by the {@link MetricsListener} installed on each of their sessions.
+ * <p>
+ * Operations are recorded per repository id:
+ * <ul>
+ * <li><code>version-range</code> - resolving the metadata listing the versions of an artifact</li>
+ * <li><code>version</code> - resolving the metadata of a snapshot version</li>
+ * <li><code>resolve</code> - downloading an artifact</li>
+ * <li><code>deploy</code> - uploading an artifact</li>
+ * <li><code>install</code> - copying an artifact into the local repository</li>
+ * <li><code>queue</code> - waiting for a transfer slot, only counted if the transfer had to wait</li>
+ * </ul>
+ * An artifact or metadata missing from a repository is not counted as an error, a failed transfer always is. Latencies
+ * are counted in fixed buckets, percentiles are approximated by the upper bound of the bucket they fall into.
+ * <p>
+ * Only operations performed on the controller are included, artifacts resolved or deployed on an agent are recorded
+ * in the agent's jvm and never reach these metrics.
+ */
+public final class RepositoryMetrics {
+
+    public static final String DEPLOY = "deploy";
+
+    public static final String INSTALL = "install";
+
+    public static final String QUEUE = "queue";
+
+    public static final String RESOLVE = "resolve";
+
+    public static final String VERSION = "version";
+
+    public static final String VERSION_RANGE = "version-range";
+
+    // upper bounds in milliseconds, anything slower is counted in an additional bucket
+    // visible for unit testing
+    static final long[] BUCKETS = { 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000, 30000, 60000 };
+
+    private static final LongAdder cacheHits = new LongAdder();
+
+    private static final LongAdder cacheMisses = new LongAdder();
+
+    private static final LongAdder coalesced = new LongAdder();
+
+    private static final AtomicInteger inFlight = new AtomicInteger();
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private static final Logger logger = Logger.getLogger(RepositoryMetrics.class.getName());
+
+    private static final Map<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+
+    private static final Map<String, TransferMetrics> transfers = new ConcurrentHashMap<>();
+
+    private RepositoryMetrics() {
+        // static access only
+    }
+
+    /**
+     * Adds a listener notified of every completed operation and transfer, used to publish them elsewhere.
+     */
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Returns the upper bounds in milliseconds of the histogram buckets, the last bucket has none.
+     */
+    public static long[] getBuckets() {
+        return BUCKETS.clone();
+    }
+
+    public static long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns the share of resolved artifacts found in the local repository, <code>0</code> if none were resolved yet.
+     */
+    public static double getCacheHitRatio() {
+        long hits = cacheHits.sum();
+        long total = hits + cacheMisses.sum();
+
+        return total == 0 ? 0 : hits / (double) total;
+    }
+
+    public static long getCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * Returns the number of resolutions that waited for a concurrent resolution of the same artifact instead of
+     * resolving it themselves.
+     */
+    public static long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * Returns the errors of every operation and the failed transfers of every repository.
+     */
+    public static long getErrors() {
+        return operations.values().stream().mapToLong(OperationMetrics::getErrors).sum()
+                + transfers.values().stream().mapToLong(TransferMetrics::getFailures).sum();
+    }
+
+    public static int getInFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * Returns the metrics of every operation, ordered by repository id and operation.
+     */
+    public static List<OperationMetrics> getOperations() {
+        return operations.values().stream()
+                .sorted(Comparator.comparing(OperationMetrics::getRepositoryId)
+                        .thenComparing(OperationMetrics::getOperation))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the transfer metrics of every repository, ordered by repository id.
+     */
+    public static List<TransferMetrics> getTransfers() {
+        return transfers.values().stream()
+                .sorted(Comparator.comparing(TransferMetrics::getRepositoryId))
+                .collect(Collectors.toList());
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    static void cacheHit() {
+        cacheHits.increment();
+    }
+
+    static void cacheMiss() {
+        cacheMisses.increment();
+    }
+
+    static void coalesced() {
+        coalesced.increment();
+    }
+
+    // visible for unit testing
+    static void clear() {
+        operations.clear();
+        transfers.clear();
+        cacheHits.reset();
+        cacheMisses.reset();
+        coalesced.reset();
+        inFlight.set(0);
+    }
+
+    static void operationCompleted(String repositoryId, String operation, long nanos, boolean failed) {
+        operations.computeIfAbsent(repositoryId + " " + operation, key -> new OperationMetrics(repositoryId, operation))
+                .record(nanos, failed);
+
+        for (Listener listener : listeners) {
+            try {
+                listener.operationCompleted(repositoryId, operation, nanos, failed);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "failed to publish repository metrics", e);
+            }
+        }
+    }
+
+    static void transferCompleted(String repositoryId, long bytes, boolean upload, boolean failed) {
+        inFlight.decrementAndGet();
+
+        transfers.computeIfAbsent(repositoryId, TransferMetrics::new)
+                .record(bytes, upload, failed);
+
+        for (Listener listener : listeners) {
+            try {
+                listener.transferCompleted(repositoryId, bytes, upload, failed);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "failed to publish repository metrics", e);
+            }
+        }
+    }
+
+    static void transferStarted() {
+        inFlight.incrementAndGet();
+    }
+
+    /**
+     * Notified of every completed operation and transfer, on the thread that completed it.
+     */
+    public interface Listener {
+
+        void operationCompleted(String repositoryId, String operation, long nanos, boolean failed);
+
+        void transferCompleted(String repositoryId, long bytes, boolean upload, boolean failed);
+    }
+
+    @ExportedBean(defaultVisibility = 2)
+    public static final class OperationMetrics {
+
+        private final LongAdder[] buckets;
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder errors = new LongAdder();
+
+        private final AtomicLong maxTime = new AtomicLong();
+
+        private final String operation;
+
+        private final String repositoryId;
+
+        private final LongAdder totalTime = new LongAdder();
+
+        OperationMetrics(String repositoryId, String operation) {
+            this.repositoryId = repositoryId;
+            this.operation = operation;
+
+            this.buckets = new LongAdder[BUCKETS.length + 1];
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        @Exported
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Exported
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        /**
+         * Returns the number of operations per bucket, the bucket bounds are {@link RepositoryMetrics#getBuckets()}.
+         */
+        @Exported
+        public long[] getHistogram() {
+            long[] histogram = new long[buckets.length];
+            for (int i = 0; i < buckets.length; i++) {
+                histogram[i] = buckets[i].sum();
+            }
+
+            return histogram;
+        }
+
+        /**
+         * Milliseconds the slowest operation took.
+         */
+        @Exported
+        public long getMaxTime() {
+            return TimeUnit.NANOSECONDS.toMillis(maxTime.get());
+        }
+
+        /**
+         * Average milliseconds an operation took.
+         */
+        @Exported
+        public long getMeanTime() {
+            long total = count.sum();
+            return total == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(totalTime.sum() / total);
+        }
+
+        @Exported
+        public String getOperation() {
+            return operation;
+        }
+
+        @Exported
+        public long getP50() {
+            return getPercentile(50);
+        }
+
+        @Exported
+        public long getP90() {
+            return getPercentile(90);
+        }
+
+        @Exported
+        public long getP99() {
+            return getPercentile(99);
+        }
+
+        /**
+         * Returns the upper bound in milliseconds of the bucket the percentile falls into, or the slowest operation if
+         * it falls into the last one.
+         */
+        public long getPercentile(double percentile) {
+            long[] histogram = getHistogram();
+            long total = sum(histogram);
+
+            if (total == 0) {
+                return 0;
+            }
+
+            // nearest rank
+            long rank = Math.max((long) Math.ceil(percentile / 100 * total), 1);
+
+            long seen = 0;
+            for (int i = 0; i < BUCKETS.length; i++) {
+                seen += histogram[i];
+
+                if (seen >= rank) {
+                    return Math.min(BUCKETS[i], getMaxTime());
+                }
+            }
+
+            return getMaxTime();
+        }
+
+        @Exported
+        public String getRepositoryId() {
+            return repositoryId;
+        }
+
+        void record(long nanos, boolean failed) {
+            count.increment();
+            totalTime.add(nanos);
+            maxTime.accumulateAndGet(nanos, Math::max);
+
+            if (failed) {
+                errors.increment();
+            }
+
+            buckets[getBucket(TimeUnit.NANOSECONDS.toMillis(nanos))].increment();
+        }
+
+        private static int getBucket(long millis) {
+            for (int i = 0; i < BUCKETS.length; i++) {
+                if (millis <= BUCKETS[i]) {
+                    return i;
+                }
+            }
+
+            return BUCKETS.length;
+        }
+
+        private static long sum(long[] histogram) {
+            long sum = 0;
+            for (long count : histogram) {
+                sum += count;
+            }
+
+            return sum;
+        }
+    }
+
+    @ExportedBean(defaultVisibility = 2)
+    public static final class TransferMetrics {
+
+        private final LongAdder bytesIn = new LongAdder();
+
+        private final LongAdder bytesOut = new LongAdder();
+
+        private final LongAdder count = new LongAdder();
+
+        private final LongAdder failures = new LongAdder();
+
+        private final String repositoryId;
+
+        TransferMetrics(String repositoryId) {
+            this.repositoryId = repositoryId;
+        }
+
+        @Exported
+        public long getBytesIn() {
+            return bytesIn.sum();
+        }
+
+        @Exported
+        public long getBytesOut() {
+            return bytesOut.sum();
+        }
+
+        @Exported
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Exported
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        @Exported
+        public String getRepositoryId() {
+            return repositoryId;
+        }
+
+        void record(long bytes, boolean upload, boolean failed) {
+            count.increment();
+            (upload ? bytesOut : bytesIn).add(bytes);
+
+            if (failed) {
+                failures.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.connector.basic.BasicRepositoryConnectorFactory;
+import org.eclipse.aether.impl.DefaultServiceLocator;
+import org.eclipse.aether.impl.SyncContextFactory;
+import org.eclipse.aether.spi.connector.RepositoryConnectorFactory;
+import org.eclipse.aether.spi.connector.transport.TransporterFactory;
+import org.eclipse.aether.spi.connector.transport.TransporterProvider;
+import org.eclipse.aether.transport.file.FileTransporterFactory;
+import org.eclipse.aether.transport.http.HttpTransporterFactory;
+
+import hudson.init.Terminator;
+import hudson.util.DaemonThreadFactory;
+import hudson.util.NamingThreadFactory;
+
+/**
+ * Holds the single {@link RepositorySystem} shared by every {@link Aether} instance created in this jvm.
+ * <p>
+ * The repository system and the services registered with it are stateless and thread safe, so only the session built by
+ * {@link AetherBuilder} needs to be created for each use.
+ */
+public final class RepositorySystemProvider {
+
+    private static final Logger logger = Logger.getLogger(RepositorySystemProvider.class.getName());
+
+    // every pool created for the plugin that was not shut down yet
+    private static final Set<ExecutorService> executors = ConcurrentHashMap.newKeySet();
+
+    private static volatile RepositorySystem repositorySystem;
+
+    private static ExecutorService versionRangeExecutor;
+
+    private RepositorySystemProvider() {
+        // static access only
+    }
+
+    /**
+     * Returns the executor used to look up the available versions of an artifact in several repositories at once.
+     */
+    public static synchronized Executor getVersionRangeExecutor() {
+        if (versionRangeExecutor == null) {
+            // threads only block on remote repositories
+            versionRangeExecutor = createExecutor("RepositoryConnector.versionRange", 8);
+        }
+
+        return versionRangeExecutor;
+    }
+
+    /**
+     * Creates a pool of daemon threads, idle ones go away. It is shut down along with the repository system unless the
+     * caller shut it down before.
+     */
+    public static ExecutorService createExecutor(String name, int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamingThreadFactory(new DaemonThreadFactory(), name)) {
+            @Override
+            protected void terminated() {
+                executors.remove(this);
+            }
+        };
+        executor.allowCoreThreadTimeOut(true);
+        executors.add(executor);
+
+        return executor;
+    }
+
+    public static RepositorySystem get() {
+        RepositorySystem system = repositorySystem;
+
+        if (system == null) {
+            synchronized (RepositorySystemProvider.class) {
+                system = repositorySystem;
+
+                if (system == null) {
+                    logger.fine("creating shared repository system");
+
+                    system = createRepositorySystem();
+                    repositorySystem = system;
+                }
+            }
+        }
+
+        return system;
+    }
+
+    @Terminator
+    public static synchronized void shutdown() {
+        // interrupts version lookups, refreshes and downloads still running
+        for (ExecutorService executor : executors) {
+            executor.shutdownNow();
+        }
+
+        versionRangeExecutor = null;
+
+        if (repositorySystem != null) {
+            logger.fine("releasing shared repository system");
+            repositorySystem = null;
+        }
+    }
+
+    private static RepositorySystem createRepositorySystem() {
+        DefaultServiceLocator locator = MavenRepositorySystemUtils.newServiceLocator();
+        locator.addService(RepositoryConnectorFactory.class, BasicRepositoryConnectorFactory.class);
+        locator.addService(TransporterFactory.class, FileTransporterFactory.class);
+        locator.addService(TransporterFactory.class, HttpTransporterFactory.class);
+
+        // every build on the controller shares the local repository
+        locator.setServices(SyncContextFactory.class, new KeyedSyncContextFactory());
+
+        // and the limits on concurrent transfers
+        locator.setService(TransporterProvider.class, ScheduledTransporterProvider.class);
+
+        locator.setErrorHandler(new DefaultServiceLocator.ErrorHandler() {
+            @Override
+            public void serviceCreationFailed(Class<?> type, Class<?> impl, Throwable exception) {
+                logger.log(Level.SEVERE, "Service creation failed for {0} with implementation {1} - {2}",
+                        new Object[] { type, impl, exception });
+            }
+        });
+
+        return locator.getService(RepositorySystem.class);
+    }
+}
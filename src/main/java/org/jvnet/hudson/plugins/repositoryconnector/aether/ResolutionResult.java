@@ -0,0 +1,38 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+
+/**
+ * Outcome of resolving a single artifact as part of a batch, holding either the resolved file or the failure.
+ */
+public class ResolutionResult {
+
+    private final AetherException exception;
+
+    private final File file;
+
+    private ResolutionResult(File file, AetherException exception) {
+        this.file = file;
+        this.exception = exception;
+    }
+
+    public AetherException getException() {
+        return exception;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public boolean isResolved() {
+        return exception == null;
+    }
+
+    public static ResolutionResult failed(AetherException exception) {
+        return new ResolutionResult(null, exception);
+    }
+
+    public static ResolutionResult resolved(File file) {
+        return new ResolutionResult(file, null);
+    }
+}
@@ -0,0 +1,180 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.internal.impl.DefaultTransporterProvider;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.spi.connector.transport.GetTask;
+import org.eclipse.aether.spi.connector.transport.PeekTask;
+import org.eclipse.aether.spi.connector.transport.PutTask;
+import org.eclipse.aether.spi.connector.transport.TransportListener;
+import org.eclipse.aether.spi.connector.transport.Transporter;
+import org.eclipse.aether.spi.connector.transport.TransporterProvider;
+import org.eclipse.aether.spi.locator.Service;
+import org.eclipse.aether.spi.locator.ServiceLocator;
+import org.eclipse.aether.transfer.NoTransporterException;
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.util.ConfigUtils;
+
+/**
+ * Passes every transfer to a remote repository through the {@link TransferScheduler}, artifacts as well as metadata and
+ * checksums.
+ * <p>
+ * The latency and failures of the transfers are reported back when releasing their slot, for repositories whose limit
+ * adapts to them. The latency of a download is the time to its first byte, so it does not depend on the size of the
+ * file, and does not include the time waited for the slot.
+ */
+final class ScheduledTransporterProvider implements TransporterProvider, Service {
+
+    private final DefaultTransporterProvider delegate = new DefaultTransporterProvider();
+
+    @Override
+    public void initService(ServiceLocator locator) {
+        delegate.initService(locator);
+    }
+
+    @Override
+    public Transporter newTransporter(RepositorySystemSession session, RemoteRepository repository)
+        throws NoTransporterException {
+
+        String owner = ConfigUtils.getString(session, null, TransferScheduler.OWNER);
+        Object queueWait = session.getData().get(TransferScheduler.QUEUE_WAIT);
+
+        return new ScheduledTransporter(delegate.newTransporter(session, repository), owner, repository.getId(),
+                queueWait instanceof TransferScheduler.QueueWait ? (TransferScheduler.QueueWait) queueWait : null);
+    }
+
+    private static final class ScheduledTransporter implements Transporter {
+
+        private final Transporter delegate;
+
+        private final String owner;
+
+        private final TransferScheduler.QueueWait queueWait;
+
+        private final String repositoryId;
+
+        ScheduledTransporter(Transporter delegate, String owner, String repositoryId,
+                TransferScheduler.QueueWait queueWait) {
+            this.delegate = delegate;
+            this.owner = owner;
+            this.repositoryId = repositoryId;
+            this.queueWait = queueWait;
+        }
+
+        @Override
+        public int classify(Throwable error) {
+            return delegate.classify(error);
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public void get(GetTask task) throws Exception {
+            acquire();
+
+            TransportListener listener = task.getListener();
+            FirstByteListener firstByte = new FirstByteListener(listener);
+
+            long started = System.nanoTime();
+            boolean failed = false;
+
+            try {
+                delegate.get(task.setListener(firstByte));
+            } catch (Exception e) {
+                failed = isFailure(e);
+                throw e;
+            } finally {
+                task.setListener(listener);
+                TransferScheduler.release(repositoryId, started, firstByte.getLatency(started), failed);
+            }
+        }
+
+        @Override
+        public void peek(PeekTask task) throws Exception {
+            acquire();
+
+            long started = System.nanoTime();
+            boolean failed = false;
+
+            try {
+                delegate.peek(task);
+            } catch (Exception e) {
+                failed = isFailure(e);
+                throw e;
+            } finally {
+                // nothing but the response, a missing file counts too
+                TransferScheduler.release(repositoryId, started, System.nanoTime() - started, failed);
+            }
+        }
+
+        @Override
+        public void put(PutTask task) throws Exception {
+            acquire();
+
+            long started = System.nanoTime();
+            boolean failed = false;
+
+            try {
+                delegate.put(task);
+            } catch (Exception e) {
+                failed = isFailure(e);
+                throw e;
+            } finally {
+                // uploads start right away, the response only comes once everything is sent
+                TransferScheduler.release(repositoryId, started, -1, failed);
+            }
+        }
+
+        private void acquire() throws InterruptedException {
+            long waited = TransferScheduler.acquire(owner, repositoryId);
+
+            if (queueWait != null) {
+                queueWait.add(waited);
+            }
+        }
+
+        private boolean isFailure(Exception e) {
+            // an aborted build says nothing about the repository
+            if (e instanceof TransferCancelledException || e instanceof InterruptedException) {
+                return false;
+            }
+
+            return classify(e) != ERROR_NOT_FOUND;
+        }
+    }
+
+    private static final class FirstByteListener extends TransportListener {
+
+        private final TransportListener delegate;
+
+        private long firstByte = -1;
+
+        FirstByteListener(TransportListener delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void transportProgressed(ByteBuffer data) throws TransferCancelledException {
+            delegate.transportProgressed(data);
+        }
+
+        @Override
+        public void transportStarted(long dataOffset, long dataLength) throws TransferCancelledException {
+            // started again if resumed
+            if (firstByte < 0) {
+                firstByte = System.nanoTime();
+            }
+
+            delegate.transportStarted(dataOffset, dataLength);
+        }
+
+        long getLatency(long started) {
+            return firstByte < 0 ? -1 : firstByte - started;
+        }
+    }
+}
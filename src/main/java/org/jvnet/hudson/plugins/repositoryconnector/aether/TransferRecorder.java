@@ -0,0 +1,290 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.eclipse.aether.AbstractRepositoryListener;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.MetadataRequest;
+import org.eclipse.aether.spi.connector.ArtifactTransfer;
+import org.eclipse.aether.spi.connector.MetadataTransfer;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * Records the time spent resolving metadata, transferring artifacts and verifying their checksums, per artifact.
+ * <p>
+ * Artifacts are identified by the coordinates they were requested with, so an artifact requested as
+ * <code>LATEST</code> is still found after its version was resolved. Metadata is shared by all artifacts of a
+ * <code>groupId:artifactId</code>, every one of them reports the full time spent on it.
+ * <p>
+ * The repository system only signals when a transfer completed, which is after the checksums were verified or
+ * uploaded. The time between the last transferred bytes and completion is reported as checksum time.
+ */
+class TransferRecorder extends AbstractRepositoryListener implements TransferListener {
+
+    private final LongSupplier clock;
+
+    private final Map<String, LongAdder> metadata = new ConcurrentHashMap<>();
+
+    private final Map<String, Record> records = new ConcurrentHashMap<>();
+
+    private final Map<String, Long> started = new ConcurrentHashMap<>();
+
+    private final Map<TransferResource, AtomicLong> transfers = new ConcurrentHashMap<>();
+
+    private final Map<File, Artifact> uploads = new ConcurrentHashMap<>();
+
+    TransferRecorder() {
+        this(System::nanoTime);
+    }
+
+    // visible for testing
+    TransferRecorder(LongSupplier clock) {
+        this.clock = clock;
+    }
+
+    @Override
+    public void artifactDeployed(RepositoryEvent event) {
+        if (event.getArtifact().getFile() != null) {
+            uploads.remove(event.getArtifact().getFile());
+        }
+
+        getRecord(event).transferred(end("deploy", event), event);
+    }
+
+    @Override
+    public void artifactDeploying(RepositoryEvent event) {
+        if (event.getArtifact().getFile() != null) {
+            uploads.put(event.getArtifact().getFile(), event.getArtifact());
+        }
+
+        start("deploy", event);
+    }
+
+    @Override
+    public void artifactDownloaded(RepositoryEvent event) {
+        getRecord(event).transferred(end("download", event), event);
+    }
+
+    @Override
+    public void artifactDownloading(RepositoryEvent event) {
+        start("download", event);
+    }
+
+    @Override
+    public void artifactResolved(RepositoryEvent event) {
+        Record record = getRecord(event);
+        record.resolved = event.getException() == null && event.getArtifact().getFile() != null;
+
+        // the local repository if nothing was downloaded
+        if (event.getRepository() != null) {
+            record.repositoryId = event.getRepository().getId();
+        }
+    }
+
+    @Override
+    public void metadataDeployed(RepositoryEvent event) {
+        addMetadataTime(event);
+    }
+
+    @Override
+    public void metadataDeploying(RepositoryEvent event) {
+        start("metadata", event);
+    }
+
+    @Override
+    public void metadataResolved(RepositoryEvent event) {
+        addMetadataTime(event);
+    }
+
+    @Override
+    public void metadataResolving(RepositoryEvent event) {
+        start("metadata", event);
+    }
+
+    @Override
+    public void transferCorrupted(TransferEvent event) {
+        // retried or failed, both are signaled separately
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        transfers.remove(event.getResource());
+    }
+
+    @Override
+    public void transferInitiated(TransferEvent event) {
+        transfers.put(event.getResource(), new AtomicLong(clock.getAsLong()));
+    }
+
+    @Override
+    public void transferProgressed(TransferEvent event) {
+        AtomicLong lastProgress = transfers.get(event.getResource());
+        if (lastProgress != null) {
+            lastProgress.set(clock.getAsLong());
+        }
+    }
+
+    @Override
+    public void transferStarted(TransferEvent event) {
+        transferProgressed(event);
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        AtomicLong lastProgress = transfers.remove(event.getResource());
+        Artifact artifact = findTransferredArtifact(event.getResource());
+
+        if (artifact != null && lastProgress != null) {
+            getRecord(artifact).checksummed(clock.getAsLong() - lastProgress.get(), event.getTransferredBytes());
+        }
+    }
+
+    /**
+     * Returns what was recorded for the artifact, as it was passed to the repository system.
+     */
+    TransferTimings getTimings(String name, Artifact artifact) {
+        Record record = records.get(getKey(artifact));
+        LongAdder metadataTime = metadata.get(getKey(artifact.getGroupId(), artifact.getArtifactId()));
+
+        long metadataNanos = metadataTime == null ? 0 : metadataTime.sum();
+
+        if (record == null) {
+            return new TransferTimings(name, null, 0, false, toMillis(metadataNanos), 0, 0);
+        }
+
+        return new TransferTimings(name, record.repositoryId, record.bytes.sum(), record.resolved && !record.remote,
+                toMillis(metadataNanos), toMillis(record.transferTime.sum()), toMillis(record.checksumTime.sum()));
+    }
+
+    private void addMetadataTime(RepositoryEvent event) {
+        Metadata resolved = event.getMetadata();
+        long elapsed = end("metadata", event);
+
+        if (resolved != null) {
+            metadata.computeIfAbsent(getKey(resolved.getGroupId(), resolved.getArtifactId()), key -> new LongAdder())
+                    .add(elapsed);
+        }
+    }
+
+    private long end(String phase, RepositoryEvent event) {
+        Long start = started.remove(getEventKey(phase, event));
+        return start == null ? 0 : clock.getAsLong() - start;
+    }
+
+    private Record getRecord(Artifact artifact) {
+        return records.computeIfAbsent(getKey(artifact), key -> new Record());
+    }
+
+    private Record getRecord(RepositoryEvent event) {
+        return getRecord(findArtifact(event.getTrace(), event.getArtifact()));
+    }
+
+    private void start(String phase, RepositoryEvent event) {
+        started.put(getEventKey(phase, event), clock.getAsLong());
+    }
+
+    private static Artifact findArtifact(RequestTrace trace, Artifact fallback) {
+        for (RequestTrace current = trace; current != null; current = current.getParent()) {
+            // the request holds the coordinates before the version was resolved
+            if (current.getData() instanceof ArtifactRequest) {
+                return ((ArtifactRequest) current.getData()).getArtifact();
+            }
+        }
+
+        return fallback;
+    }
+
+    private Artifact findTransferredArtifact(TransferResource resource) {
+        Artifact transferred = null;
+
+        for (RequestTrace current = resource.getTrace(); current != null; current = current.getParent()) {
+            Object data = current.getData();
+
+            // resolving the version of an artifact downloads metadata on behalf of its request
+            if (data instanceof MetadataTransfer || data instanceof MetadataRequest) {
+                return null;
+            }
+
+            if (data instanceof ArtifactRequest) {
+                return ((ArtifactRequest) data).getArtifact();
+            }
+
+            if (transferred == null && data instanceof ArtifactTransfer) {
+                transferred = ((ArtifactTransfer) data).getArtifact();
+            }
+        }
+
+        // uploads are only traced to the request deploying all of the artifacts
+        if (transferred == null && resource.getFile() != null) {
+            transferred = uploads.get(resource.getFile());
+        }
+
+        return transferred;
+    }
+
+    private static String getEventKey(String phase, RepositoryEvent event) {
+        Object subject = event.getArtifact() != null ? getKey(findArtifact(event.getTrace(), event.getArtifact()))
+                : event.getMetadata();
+
+        return phase + ":" + subject + "@" + event.getRepository();
+    }
+
+    // visible for testing
+    static String getKey(Artifact artifact) {
+        return String.join(":", artifact.getGroupId(), artifact.getArtifactId(), artifact.getExtension(),
+                artifact.getClassifier(), artifact.getBaseVersion());
+    }
+
+    private static String getKey(String groupId, String artifactId) {
+        return groupId + ":" + artifactId;
+    }
+
+    private static long toMillis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private static class Record {
+
+        private final LongAdder bytes = new LongAdder();
+
+        private final LongAdder checksumTime = new LongAdder();
+
+        // downloaded or deployed
+        private volatile boolean remote;
+
+        private volatile String repositoryId;
+
+        private volatile boolean resolved;
+
+        private final LongAdder transferTime = new LongAdder();
+
+        void checksummed(long elapsed, long transferred) {
+            checksumTime.add(elapsed);
+            bytes.add(transferred);
+        }
+
+        void transferred(long elapsed, RepositoryEvent event) {
+            transferTime.add(elapsed);
+
+            if (event.getException() == null) {
+                remote = true;
+
+                if (event.getRepository() != null) {
+                    repositoryId = event.getRepository().getId();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Limits the number of concurrent transfers of every build on the controller, in total and to each repository.
+ * <p>
+ * Transfers over a limit are queued by the build (or anything else) that started them, and granted round robin across
+ * the builds, so a build transferring hundreds of artifacts does not starve one that needs a single artifact. A limit
+ * of <code>0</code> means unlimited, the default.
+ * <p>
+ * The limit of a repository may also adapt to how it copes with the load, see {@link AdaptiveLimit}. The configured
+ * limit is then the highest it grows to.
+ */
+public final class TransferScheduler {
+
+    /**
+     * Session config property holding the name transfers are queued under, see
+     * {@link AetherBuilder#setTransferOwner(String)}.
+     */
+    static final String OWNER = "repositoryConnector.transferOwner";
+
+    /**
+     * Session data key of the {@link QueueWait} of a session.
+     */
+    static final String QUEUE_WAIT = TransferScheduler.class.getName() + ".queueWait";
+
+    private static final Logger logger = Logger.getLogger(TransferScheduler.class.getName());
+
+    private static final String UNKNOWN_OWNER = "";
+
+    private static final Map<String, AdaptiveLimit> adaptiveLimits = new HashMap<>();
+
+    private static final Map<String, Integer> limits = new HashMap<>();
+
+    // round robin, an owner that was granted a transfer moves to the end
+    private static final Map<String, Deque<Ticket>> queues = new LinkedHashMap<>();
+
+    private static final Map<String, Integer> running = new HashMap<>();
+
+    private static int maxTransfers;
+
+    private static int queued;
+
+    private static int total;
+
+    private TransferScheduler() {
+        // static access only
+    }
+
+    /**
+     * Sets the maximum number of concurrent transfers in total and to each repository by id, repositories that are not
+     * included are only limited by the total.
+     */
+    public static void configure(int maxTransfers, Map<String, Integer> repositoryLimits) {
+        configure(maxTransfers, repositoryLimits, Collections.emptySet());
+    }
+
+    /**
+     * Sets the limits, see {@link #configure(int, Map)}, the limits of the adaptive repositories adapt to their latency
+     * and errors. An adaptive repository keeps its current limit when configured again.
+     */
+    public static synchronized void configure(int maxTransfers, Map<String, Integer> repositoryLimits,
+            Set<String> adaptiveRepositories) {
+        TransferScheduler.maxTransfers = Math.max(maxTransfers, 0);
+
+        limits.clear();
+        limits.putAll(repositoryLimits);
+
+        adaptiveLimits.keySet().retainAll(adaptiveRepositories);
+        adaptiveRepositories.forEach(repositoryId -> adaptiveLimits
+                .computeIfAbsent(repositoryId, id -> new AdaptiveLimit(0))
+                .setMax(limits.getOrDefault(repositoryId, 0)));
+
+        // raised limits may let some through
+        dispatch();
+    }
+
+    /**
+     * Returns the current limit of every adaptive repository, ordered by repository id.
+     */
+    public static synchronized Map<String, Integer> getAdaptiveLimits() {
+        Map<String, Integer> current = new TreeMap<>();
+        adaptiveLimits.forEach((repositoryId, limit) -> current.put(repositoryId, limit.get()));
+
+        return current;
+    }
+
+    /**
+     * Returns the number of transfers waiting for a slot.
+     */
+    public static synchronized int getQueued() {
+        return queued;
+    }
+
+    /**
+     * Returns the number of transfers holding a slot.
+     */
+    public static synchronized int getRunning() {
+        return total;
+    }
+
+    /**
+     * Waits until a transfer to the repository may start, returning the time waited in nanoseconds. Every acquired slot
+     * must be released.
+     */
+    static long acquire(String owner, String repositoryId) throws InterruptedException {
+        long start = System.nanoTime();
+        Ticket ticket = new Ticket(repositoryId);
+
+        synchronized (TransferScheduler.class) {
+            String key = owner == null ? UNKNOWN_OWNER : owner;
+
+            // nothing waiting, no need to queue
+            if (queued == 0 && hasCapacity(repositoryId)) {
+                start(ticket);
+                return 0;
+            }
+
+            queues.computeIfAbsent(key, k -> new ArrayDeque<>()).add(ticket);
+            queued++;
+
+            // behind transfers to full repositories only
+            dispatch();
+
+            try {
+                while (!ticket.granted) {
+                    TransferScheduler.class.wait();
+                }
+            } catch (InterruptedException e) {
+                if (ticket.granted) {
+                    release(repositoryId);
+                } else {
+                    remove(key, ticket);
+                }
+
+                throw e;
+            }
+        }
+
+        long waited = System.nanoTime() - start;
+        RepositoryMetrics.operationCompleted(repositoryId, RepositoryMetrics.QUEUE, waited, false);
+
+        return waited;
+    }
+
+    /**
+     * Releases the slot of a completed transfer, adjusting the limit of an adaptive repository to it.
+     *
+     * @param started when the transfer started, in nanoseconds
+     * @param latency time to the first byte in nanoseconds, negative if unknown
+     * @param failed if the transfer failed, an artifact that was not found is not a failure
+     */
+    static synchronized void release(String repositoryId, long started, long latency, boolean failed) {
+        AdaptiveLimit limit = adaptiveLimits.get(repositoryId);
+
+        if (limit != null && limit.update(started, latency, failed, System.nanoTime(),
+                running.getOrDefault(repositoryId, 0))) {
+            logger.log(Level.FINE, "adjusted the concurrency limit of repository [{0}] to {1}",
+                    new Object[] { repositoryId, limit.get() });
+        }
+
+        release(repositoryId);
+    }
+
+    static synchronized void release(String repositoryId) {
+        total--;
+        running.computeIfPresent(repositoryId, (id, count) -> count == 1 ? null : count - 1);
+
+        dispatch();
+    }
+
+    // visible for testing
+    static synchronized void clear() {
+        maxTransfers = 0;
+        queued = 0;
+        total = 0;
+
+        adaptiveLimits.clear();
+        limits.clear();
+        queues.clear();
+        running.clear();
+    }
+
+    /**
+     * Grants every queued transfer that fits, one per owner at a time.
+     */
+    private static void dispatch() {
+        boolean granted = true;
+
+        while (granted && queued > 0 && (maxTransfers == 0 || total < maxTransfers)) {
+            granted = false;
+
+            for (Map.Entry<String, Deque<Ticket>> entry : queues.entrySet()) {
+                Ticket ticket = poll(entry.getValue());
+
+                if (ticket != null) {
+                    String owner = entry.getKey();
+                    Deque<Ticket> queue = queues.remove(owner);
+
+                    if (!queue.isEmpty()) {
+                        queues.put(owner, queue);
+                    }
+
+                    queued--;
+                    start(ticket);
+
+                    granted = true;
+                    break;
+                }
+            }
+        }
+
+        TransferScheduler.class.notifyAll();
+    }
+
+    private static boolean hasCapacity(String repositoryId) {
+        if (maxTransfers > 0 && total >= maxTransfers) {
+            return false;
+        }
+
+        AdaptiveLimit adaptiveLimit = adaptiveLimits.get(repositoryId);
+        int limit = adaptiveLimit == null ? limits.getOrDefault(repositoryId, 0) : adaptiveLimit.get();
+
+        return limit == 0 || running.getOrDefault(repositoryId, 0) < limit;
+    }
+
+    /**
+     * Removes the first ticket of the queue whose repository has capacity, skipping those of full repositories.
+     */
+    private static Ticket poll(Deque<Ticket> queue) {
+        for (Iterator<Ticket> iterator = queue.iterator(); iterator.hasNext();) {
+            Ticket ticket = iterator.next();
+
+            if (hasCapacity(ticket.repositoryId)) {
+                iterator.remove();
+                return ticket;
+            }
+        }
+
+        return null;
+    }
+
+    private static void remove(String owner, Ticket ticket) {
+        Deque<Ticket> queue = queues.get(owner);
+
+        if (queue != null && queue.remove(ticket)) {
+            queued--;
+
+            if (queue.isEmpty()) {
+                queues.remove(owner);
+            }
+        }
+    }
+
+    private static void start(Ticket ticket) {
+        ticket.granted = true;
+
+        total++;
+        running.merge(ticket.repositoryId, 1, Integer::sum);
+    }
+
+    /**
+     * Time the transfers of a single session waited for a slot.
+     */
+    static final class QueueWait {
+
+        private final LongAdder nanos = new LongAdder();
+
+        private final LongAdder transfers = new LongAdder();
+
+        void add(long waited) {
+            if (waited > 0) {
+                nanos.add(waited);
+                transfers.increment();
+            }
+        }
+
+        long getNanos() {
+            return nanos.sum();
+        }
+
+        long getTransfers() {
+            return transfers.sum();
+        }
+    }
+
+    private static final class Ticket {
+
+        private boolean granted;
+
+        private final String repositoryId;
+
+        Ticket(String repositoryId) {
+            this.repositoryId = repositoryId;
+        }
+    }
+}
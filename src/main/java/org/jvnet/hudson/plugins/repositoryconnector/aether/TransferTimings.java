@@ -0,0 +1,96 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.Serializable;
+
+import org.kohsuke.stapler.export.Exported;
+import org.kohsuke.stapler.export.ExportedBean;
+
+/**
+ * Where the time went while resolving or deploying a single artifact, all times are in milliseconds.
+ * <p>
+ * The transfer time includes verifying (or uploading) the checksums, which is also reported on its own. The copy time is
+ * spent outside of the repository system, copying between the workspace and the local repository.
+ */
+@ExportedBean(defaultVisibility = 2)
+public class TransferTimings implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String artifact;
+
+    private final long bytes;
+
+    private final boolean cached;
+
+    private final long checksumTime;
+
+    private long copyTime;
+
+    private final long metadataTime;
+
+    private final String repositoryId;
+
+    private final long transferTime;
+
+    TransferTimings(String artifact, String repositoryId, long bytes, boolean cached, long metadataTime, long transferTime,
+            long checksumTime) {
+        this.artifact = artifact;
+        this.repositoryId = repositoryId;
+        this.bytes = bytes;
+        this.cached = cached;
+        this.metadataTime = metadataTime;
+        this.transferTime = transferTime;
+        this.checksumTime = checksumTime;
+    }
+
+    @Exported
+    public String getArtifact() {
+        return artifact;
+    }
+
+    @Exported
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Exported
+    public long getChecksumTime() {
+        return checksumTime;
+    }
+
+    @Exported
+    public long getCopyTime() {
+        return copyTime;
+    }
+
+    @Exported
+    public long getMetadataTime() {
+        return metadataTime;
+    }
+
+    /**
+     * Returns the id of the repository the artifact was resolved from or deployed to, <code>null</code> if it was not.
+     */
+    @Exported
+    public String getRepositoryId() {
+        return repositoryId;
+    }
+
+    @Exported
+    public long getTransferTime() {
+        return transferTime;
+    }
+
+    /**
+     * Returns <code>true</code> if the artifact was resolved from the local repository without being downloaded.
+     */
+    @Exported
+    public boolean isCached() {
+        return cached;
+    }
+
+    public TransferTimings setCopyTime(long copyTime) {
+        this.copyTime = copyTime;
+        return this;
+    }
+}
@@ -0,0 +1,410 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+
+import hudson.FilePath;
+import hudson.Util;
+import hudson.model.Computer;
+import hudson.model.Node;
+import hudson.remoting.VirtualChannel;
+import jenkins.MasterToSlaveFileCallable;
+
+/**
+ * Persistent cache of resolved artifacts kept on an agent, so artifacts resolved on the controller only need to be sent
+ * over the remoting channel the first time they are used on that agent.
+ * <p>
+ * Entries are stored by coordinates below the cache directory, next to a file holding their SHA-1 checksum. An entry is
+ * only used when its checksum matches the file resolved on the controller, otherwise it is replaced.
+ */
+public class AgentArtifactCache {
+
+    private static final Logger logger = Logger.getLogger(AgentArtifactCache.class.getName());
+
+    private static final String CHECKSUM_EXTENSION = ".sha1";
+
+    private static final Map<String, Statistics> statistics = new ConcurrentHashMap<>();
+
+    private static final String TRANSFER_EXTENSION = ".tmp";
+
+    // visible for testing
+    static final int MAX_CHECKSUMS = 1000;
+
+    // avoids hashing unchanged files in the controller's local repository again, by path and in access order
+    private static final Map<String, Checksum> checksums = Collections.synchronizedMap(
+            new LinkedHashMap<String, Checksum>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Checksum> eldest) {
+                    return size() > MAX_CHECKSUMS;
+                }
+            });
+
+    // running size of the cache directories of this agent, known once they were walked
+    private static final Map<Path, AtomicLong> sizes = new ConcurrentHashMap<>();
+
+    private final FilePath cacheDirectory;
+
+    private final long maxSize;
+
+    private final String nodeName;
+
+    AgentArtifactCache(String nodeName, FilePath cacheDirectory, long maxSize) {
+        this.nodeName = nodeName;
+        this.cacheDirectory = cacheDirectory;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Copies the resolved file to its destination, using the cached copy on the agent if it matches.
+     */
+    public void copy(Artifact artifact, File resolved, FilePath destination) throws IOException, InterruptedException {
+        String checksum = getChecksum(resolved);
+        FilePath entry = cacheDirectory.child(getEntryPath(artifact, resolved));
+
+        Statistics stats = getStatistics(nodeName);
+
+        if (entry.act(new CopyFromCache(checksum, destination.getRemote()))) {
+            stats.hit(resolved.length());
+            return;
+        }
+
+        // transfer to a unique temporary file first, other builds may be using the same entry
+        FilePath transfer = entry.getParent().child(entry.getName() + "." + UUID.randomUUID() + TRANSFER_EXTENSION);
+        new FilePath(resolved).copyTo(transfer);
+
+        long evicted = transfer.act(new StoreInCache(entry.getRemote(), checksum, destination.getRemote(),
+                cacheDirectory.getRemote(), maxSize));
+
+        stats.miss(resolved.length(), evicted);
+    }
+
+    /**
+     * Creates the cache for the agent holding the given directory, or <code>null</code> if caching does not apply.
+     */
+    public static AgentArtifactCache forTarget(FilePath target, String directory, long maxSizeInMb) {
+        directory = Util.fixEmpty(directory);
+
+        // nothing to save when the target is on the controller itself
+        if (directory == null || !target.isRemote()) {
+            return null;
+        }
+
+        Computer computer = target.toComputer();
+        Node node = computer == null ? null : computer.getNode();
+        FilePath root = node == null ? null : node.getRootPath();
+
+        if (root == null) {
+            return null;
+        }
+
+        return new AgentArtifactCache(computer.getName(), root.child(directory), maxSizeInMb * 1024 * 1024);
+    }
+
+    public static Statistics getStatistics(String nodeName) {
+        return statistics.computeIfAbsent(nodeName, name -> new Statistics());
+    }
+
+    // visible for testing
+    static String getChecksum(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        long length = file.length();
+        long lastModified = file.lastModified();
+
+        Checksum checksum = checksums.get(path);
+
+        // a file downloaded again replaces the entry of its previous content
+        if (checksum == null || checksum.length != length || checksum.lastModified != lastModified) {
+            checksum = new Checksum(length, lastModified, sha1(file));
+            checksums.put(path, checksum);
+        }
+
+        return checksum.sha1;
+    }
+
+    // visible for testing
+    static int getChecksumCount() {
+        return checksums.size();
+    }
+
+    // visible for testing
+    static String getEntryPath(Artifact artifact, File resolved) {
+        return String.join("/", artifact.getGroupId().replace('.', '/'), artifact.getArtifactId(),
+                Objects.toString(artifact.getVersion(), "unknown"), resolved.getName());
+    }
+
+    /**
+     * Evicts the least recently used entries once the cache grew beyond its maximum size, returning the bytes evicted.
+     * <p>
+     * The size of the cache is kept while the agent is running, so the cache directory is only walked the first time
+     * and whenever entries need to be evicted.
+     *
+     * @param added bytes just added to the cache
+     */
+    // visible for testing
+    static long evict(Path cacheDirectory, long maxSize, long added) throws IOException {
+        if (maxSize <= 0 || !Files.isDirectory(cacheDirectory)) {
+            return 0;
+        }
+
+        Path key = cacheDirectory.toAbsolutePath().normalize();
+
+        AtomicLong known = sizes.get(key);
+        if (known != null && known.addAndGet(added) <= maxSize) {
+            return 0;
+        }
+
+        // one pass at a time, concurrent passes would evict the same entries twice
+        synchronized (sizes) {
+            return evict(key, maxSize);
+        }
+    }
+
+    private static long evict(Path cacheDirectory, long maxSize) throws IOException {
+        List<Path> entries;
+        try (Stream<Path> files = Files.walk(cacheDirectory)) {
+            // files still being transferred by other builds are not part of the cache yet
+            entries = files.filter(Files::isRegularFile)
+                    .filter(path -> !path.getFileName().toString().endsWith(CHECKSUM_EXTENSION))
+                    .filter(path -> !path.getFileName().toString().endsWith(TRANSFER_EXTENSION))
+                    .collect(Collectors.toCollection(ArrayList::new));
+        }
+
+        long size = 0;
+        for (Path entry : entries) {
+            size += size(entry);
+        }
+
+        // least recently used first, entries are touched every time they are copied from
+        entries.sort(Comparator.comparingLong(AgentArtifactCache::lastModified));
+
+        long evicted = 0;
+        for (Path entry : entries) {
+            if (size <= maxSize) {
+                break;
+            }
+
+            long length = size(entry);
+            Files.deleteIfExists(getChecksumPath(entry));
+            Files.deleteIfExists(entry);
+
+            size -= length;
+            evicted += length;
+        }
+
+        sizes.put(cacheDirectory, new AtomicLong(size));
+
+        return evicted;
+    }
+
+    private static Path getChecksumPath(Path entry) {
+        return entry.resolveSibling(entry.getFileName() + CHECKSUM_EXTENSION);
+    }
+
+    private static long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (@SuppressWarnings("unused") IOException e) {
+            // deleted by another build, evict first
+            return 0;
+        }
+    }
+
+    private static long size(Path path) throws IOException {
+        try {
+            return Files.size(path);
+        } catch (@SuppressWarnings("unused") NoSuchFileException e) {
+            // evicted by another build
+            return 0;
+        }
+    }
+
+    private static String sha1(File file) throws IOException {
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            byte[] buffer = new byte[8192];
+
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+
+            return Util.toHexString(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Checksum {
+
+        private final long lastModified;
+
+        private final long length;
+
+        private final String sha1;
+
+        Checksum(long length, long lastModified, String sha1) {
+            this.length = length;
+            this.lastModified = lastModified;
+            this.sha1 = sha1;
+        }
+    }
+
+    /**
+     * Usage counters of the cache on a single agent, since the controller was started.
+     */
+    public static class Statistics {
+
+        private final AtomicLong bytesFromCache = new AtomicLong();
+
+        private final AtomicLong bytesTransferred = new AtomicLong();
+
+        private final AtomicLong bytesEvicted = new AtomicLong();
+
+        private final AtomicLong hits = new AtomicLong();
+
+        private final AtomicLong misses = new AtomicLong();
+
+        public long getBytesEvicted() {
+            return bytesEvicted.get();
+        }
+
+        public long getBytesFromCache() {
+            return bytesFromCache.get();
+        }
+
+        public long getBytesTransferred() {
+            return bytesTransferred.get();
+        }
+
+        public long getHits() {
+            return hits.get();
+        }
+
+        public long getMisses() {
+            return misses.get();
+        }
+
+        void hit(long bytes) {
+            hits.incrementAndGet();
+            bytesFromCache.addAndGet(bytes);
+        }
+
+        void miss(long bytes, long evicted) {
+            misses.incrementAndGet();
+            bytesTransferred.addAndGet(bytes);
+            bytesEvicted.addAndGet(evicted);
+        }
+    }
+
+    private static class CopyFromCache extends MasterToSlaveFileCallable<Boolean> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String checksum;
+
+        private final String destination;
+
+        CopyFromCache(String checksum, String destination) {
+            this.checksum = checksum;
+            this.destination = destination;
+        }
+
+        @Override
+        public Boolean invoke(File entry, VirtualChannel channel) throws IOException, InterruptedException {
+            Path path = entry.toPath();
+            Path checksumPath = getChecksumPath(path);
+
+            if (!Files.isRegularFile(path) || !Files.isRegularFile(checksumPath)) {
+                return false;
+            }
+
+            if (!checksum.equals(new String(Files.readAllBytes(checksumPath), StandardCharsets.US_ASCII).trim())) {
+                return false;
+            }
+
+            Path target = new File(destination).toPath();
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+
+            // mark as recently used for eviction
+            entry.setLastModified(System.currentTimeMillis());
+
+            return true;
+        }
+    }
+
+    private static class StoreInCache extends MasterToSlaveFileCallable<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String cacheDirectory;
+
+        private final String checksum;
+
+        private final String destination;
+
+        private final String entry;
+
+        private final long maxSize;
+
+        StoreInCache(String entry, String checksum, String destination, String cacheDirectory, long maxSize) {
+            this.entry = entry;
+            this.checksum = checksum;
+            this.destination = destination;
+            this.cacheDirectory = cacheDirectory;
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        public Long invoke(File transfer, VirtualChannel channel) throws IOException, InterruptedException {
+            Path path = new File(entry).toPath();
+            Path checksumPath = getChecksumPath(path);
+
+            long replaced = size(path);
+            long length = Files.size(transfer.toPath());
+
+            // remove the old checksum first so the entry is never matched against it while being replaced
+            Files.deleteIfExists(checksumPath);
+            Files.move(transfer.toPath(), path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.write(checksumPath, checksum.getBytes(StandardCharsets.US_ASCII));
+
+            Path target = new File(destination).toPath();
+            Files.createDirectories(target.toAbsolutePath().getParent());
+            Files.copy(path, target, StandardCopyOption.REPLACE_EXISTING);
+
+            try {
+                return evict(new File(cacheDirectory).toPath(), maxSize, length - replaced);
+            } catch (IOException e) {
+                // the entry is in place, failing to trim the cache should not fail the build
+                logger.log(Level.WARNING, "failed to evict entries from artifact cache " + cacheDirectory, e);
+                return 0L;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.eclipse.aether.repository.Authentication;
+
+/**
+ * Short lived cache of the {@link Authentication} created for the credentials of a repository, so building an
+ * <code>Aether</code> instance does not look up the same credentials again for every repository, form validation and
+ * parameter rendering.
+ * <p>
+ * Entries are grouped by the item or run the credentials were looked up for. The credentials visible to an item are
+ * looked up once and indexed by id, the credentials of a run are looked up one id at a time, so their usage is still
+ * tracked. The cache is cleared whenever credentials are saved, the time to live only bounds how long changes made
+ * outside of Jenkins go unnoticed.
+ */
+public class CredentialsCache {
+
+    public static final int DEFAULT_TTL = 30;
+
+    // visible for testing
+    static final int MAX_ENTRIES = 100;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Entry> entries;
+
+    private final long ttl;
+
+    public CredentialsCache() {
+        this(System::nanoTime, DEFAULT_TTL);
+    }
+
+    // visible for testing
+    CredentialsCache(LongSupplier clock, int ttlSeconds) {
+        this.clock = clock;
+        this.ttl = TimeUnit.SECONDS.toNanos(ttlSeconds);
+
+        // access order, the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        };
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Returns the authentication for the credentials id, looking it up on its own if it has not been looked up for the
+     * given scope yet.
+     */
+    public Authentication get(String scope, String credentialsId, Function<String, Authentication> lookup) {
+        return getEntry(scope, ConcurrentHashMap::new).byId
+                .computeIfAbsent(credentialsId, id -> Optional.ofNullable(lookup.apply(id)))
+                .orElse(null);
+    }
+
+    /**
+     * Returns the authentication for the credentials id, using the index of every credentials visible to the given
+     * scope. The index is only created if there is none for the scope yet.
+     */
+    public Authentication getIndexed(String scope, String credentialsId, Supplier<Map<String, Authentication>> index) {
+        return getEntry(scope, () -> toEntries(index.get())).byId
+                .getOrDefault(credentialsId, Optional.empty())
+                .orElse(null);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Entry getEntry(String scope, Supplier<Map<String, Optional<Authentication>>> factory) {
+        synchronized (this) {
+            Entry entry = entries.get(scope);
+
+            if (entry != null && clock.getAsLong() - entry.created <= ttl) {
+                return entry;
+            }
+        }
+
+        // looked up outside the lock, concurrent lookups for the same scope just do the work twice
+        Entry created = new Entry(factory.get(), clock.getAsLong());
+
+        synchronized (this) {
+            if (ttl > 0) {
+                entries.put(scope, created);
+            }
+        }
+
+        return created;
+    }
+
+    private static Map<String, Optional<Authentication>> toEntries(Map<String, Authentication> index) {
+        Map<String, Optional<Authentication>> byId = new ConcurrentHashMap<>();
+        index.forEach((id, authentication) -> byId.put(id, Optional.ofNullable(authentication)));
+
+        return byId;
+    }
+
+    private static class Entry {
+
+        private final Map<String, Optional<Authentication>> byId;
+
+        private final long created;
+
+        Entry(Map<String, Optional<Authentication>> byId, long created) {
+            this.byId = byId;
+            this.created = created;
+        }
+    }
+}
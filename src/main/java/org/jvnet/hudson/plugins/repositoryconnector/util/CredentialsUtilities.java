@@ -2,10 +2,14 @@ package org.jvnet.hudson.plugins.repositoryconnector.util;
 
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import com.cloudbees.plugins.credentials.CredentialsMatchers;
 import com.cloudbees.plugins.credentials.CredentialsProvider;
@@ -42,6 +46,15 @@ public class CredentialsUtilities {
                 .orElse(null);
     }
 
+    /**
+     * Returns every username/password credentials visible to the item, by id.
+     */
+    public static Map<String, StandardUsernamePasswordCredentials> getAll(Item item) {
+        return lookupCredentials(item).stream()
+                .collect(Collectors.toMap(StandardUsernamePasswordCredentials::getId, Function.identity(),
+                        (first, second) -> first));
+    }
+
     public static ListBoxModel getListBox(String credentialsId, Jenkins jenkins) {
         if (!jenkins.hasPermission(Jenkins.ADMINISTER)) {
             return new StandardListBoxModel().includeCurrentValue(credentialsId);
@@ -97,8 +110,12 @@ public class CredentialsUtilities {
         return new UsernamePasswordCredentialsImpl(CredentialsScope.GLOBAL, credentialsId, description, decryptedUser, password);
     }
 
+    private static List<StandardUsernamePasswordCredentials> lookupCredentials(Item item) {
+        return CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, item, ACL.SYSTEM, Collections.emptyList());
+    }
+
     private static StandardUsernamePasswordCredentials lookupCredentials(String credentialsId, Item item) {
-        return CredentialsProvider.lookupCredentials(StandardUsernamePasswordCredentials.class, item, ACL.SYSTEM, Collections.emptyList())
+        return lookupCredentials(item)
                 .stream()
                 .filter(credentials -> credentials.getId().equals(credentialsId))
                 .findAny()
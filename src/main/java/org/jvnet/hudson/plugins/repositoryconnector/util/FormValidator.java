@@ -18,6 +18,18 @@ public final class FormValidator {
         return isNotEmpty(artifactId, "ArtifactId cannot be blank");
     }
 
+    public static FormValidation validateCacheEntries(String entries) {
+        return isPositiveNumber(entries, "Entries must be a number > 0");
+    }
+
+    public static FormValidation validateCacheSize(String size) {
+        return isNonNegativeNumber(size, "Size must be a number >= 0");
+    }
+
+    public static FormValidation validateCacheTtl(String ttl) {
+        return isNonNegativeNumber(ttl, "Time to live must be a number >= 0");
+    }
+
     public static FormValidation validateCoordinates(String repositoryId, String groupId, String artifactId, Aether aether,
             VersionFilter filter) {
         // do nothing, other validation will indicate these are missing
@@ -59,6 +71,18 @@ public final class FormValidator {
                 .orElse(FormValidation.ok());
     }
 
+    public static FormValidation validateMaxAge(String age) {
+        return isNonNegativeNumber(age, "Age must be a number >= 0");
+    }
+
+    public static FormValidation validateMaxTransfers(String transfers) {
+        return isNonNegativeNumber(transfers, "Transfers must be a number >= 0");
+    }
+
+    public static FormValidation validateParallelism(String parallelism) {
+        return isPositiveNumber(parallelism, "Parallelism must be a number > 0");
+    }
+
     public static FormValidation validateReleasesAndOrSnapshots(boolean releases, boolean snapshots) {
         if (releases || snapshots) {
             return FormValidation.ok();
@@ -92,6 +116,38 @@ public final class FormValidator {
         return isNotEmpty(name, "Name cannot be blank");
     }
 
+    private static FormValidation isNonNegativeNumber(String value, String message) {
+        value = Util.fixEmpty(value);
+
+        if (value != null) {
+            try {
+                if (Long.parseLong(value) < 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (@SuppressWarnings("unused") NumberFormatException e) {
+                return FormValidation.error(message);
+            }
+        }
+
+        return FormValidation.ok();
+    }
+
+    private static FormValidation isPositiveNumber(String value, String message) {
+        value = Util.fixEmpty(value);
+
+        if (value != null) {
+            try {
+                if (Integer.parseInt(value) <= 0) {
+                    throw new NumberFormatException();
+                }
+            } catch (@SuppressWarnings("unused") NumberFormatException e) {
+                return FormValidation.error(message);
+            }
+        }
+
+        return FormValidation.ok();
+    }
+
     private static FormValidation isNotEmpty(String value, String message) {
         if (Util.fixEmpty(value) == null) {
             return FormValidation.error(message);
@@ -0,0 +1,343 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.LocalRepositoryLocks;
+
+/**
+ * Tracks when the artifacts of a local repository were last used, so the least recently used ones can be evicted once
+ * the repository grows too large or they were not used for too long.
+ * <p>
+ * The unit of eviction is a version directory (<code>group/artifact/version</code>), holding every file of a single
+ * artifact version. Recording a use only updates a map in memory, the index is written to a compressed file in the
+ * repository after each eviction. Directories that are not in the index, ie resolved before eviction was enabled, count
+ * as last used when their newest file was modified.
+ * <p>
+ * A version directory is only evicted while holding its {@link LocalRepositoryLocks lock}, versions being resolved are
+ * skipped.
+ */
+public class LocalRepositoryIndex {
+
+    private static final Logger logger = Logger.getLogger(LocalRepositoryIndex.class.getName());
+
+    static final String INDEX_FILE = ".repository-connector-index";
+
+    // resolutions still using a version directory must not lose it while they read it
+    static final long GRACE_PERIOD = TimeUnit.MINUTES.toMillis(10);
+
+    private static final Map<Path, LocalRepositoryIndex> indexes = new ConcurrentHashMap<>();
+
+    private static final int MAGIC = 0x52434958;
+
+    private static final int VERSION = 1;
+
+    private final Map<String, Long> accessed = new ConcurrentHashMap<>();
+
+    private final LongSupplier clock;
+
+    private final Path directory;
+
+    // visible for testing
+    LocalRepositoryIndex(Path directory, LongSupplier clock) {
+        this.directory = directory.toAbsolutePath().normalize();
+        this.clock = clock;
+
+        load();
+    }
+
+    /**
+     * Evicts the version directories not used for longer than the maximum age, then the least recently used ones until
+     * the repository is no larger than the maximum size. A maximum of <code>0</code> means unlimited.
+     * <p>
+     * Directories used within the last {@value #GRACE_PERIOD} milliseconds are kept regardless.
+     */
+    public synchronized Result evict(long maxSize, long maxAge) throws IOException {
+        long now = clock.getAsLong();
+
+        List<Entry> entries = scan();
+        accessed.keySet().retainAll(entries.stream().map(entry -> entry.key).collect(Collectors.toSet()));
+
+        long size = entries.stream().mapToLong(entry -> entry.size).sum();
+        entries.sort(Comparator.comparingLong(entry -> entry.lastAccess));
+
+        Result result = new Result();
+        for (Entry entry : entries) {
+            boolean expired = maxAge > 0 && now - entry.lastAccess > maxAge;
+            boolean oversized = maxSize > 0 && size > maxSize;
+
+            // ordered by last use, everything after this is more recent
+            if ((!expired && !oversized) || now - entry.lastAccess < GRACE_PERIOD) {
+                break;
+            }
+
+            // being resolved, the resolution records its use while it still holds the lock
+            try (LocalRepositoryLocks.Held held = tryLock(entry)) {
+                if (held == null) {
+                    continue;
+                }
+
+                // used since the scan
+                if (getLastAccess(entry.key, entry.lastAccess) != entry.lastAccess) {
+                    continue;
+                }
+
+                if (delete(entry)) {
+                    accessed.remove(entry.key);
+
+                    size -= entry.size;
+                    result.evicted++;
+                    result.freed += entry.size;
+                }
+            }
+        }
+
+        result.size = size;
+        save();
+
+        return result;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Records the use of a file of the repository, files outside of it are ignored.
+     */
+    public void touch(File file) {
+        Path parent = file.toPath().toAbsolutePath().normalize().getParent();
+
+        if (parent != null && !parent.equals(directory) && parent.startsWith(directory)) {
+            accessed.put(getKey(directory.relativize(parent)), clock.getAsLong());
+        }
+    }
+
+    /**
+     * Returns the index of the given local repository, loading it the first time.
+     */
+    public static LocalRepositoryIndex forDirectory(Path directory) {
+        return indexes.computeIfAbsent(directory.toAbsolutePath().normalize(),
+                path -> new LocalRepositoryIndex(path, System::currentTimeMillis));
+    }
+
+    // visible for testing
+    synchronized void save() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        Path index = directory.resolve(INDEX_FILE);
+        Path tmp = directory.resolve(INDEX_FILE + ".tmp");
+
+        Map<String, Long> snapshot = new HashMap<>(accessed);
+
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp))))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(snapshot.size());
+
+            for (Map.Entry<String, Long> entry : snapshot.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+        }
+
+        Files.move(tmp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private boolean delete(Entry entry) {
+        try {
+            for (Path file : entry.files) {
+                Files.deleteIfExists(file);
+            }
+
+            // remove the directories left empty, up to the repository itself
+            Path parent = entry.path;
+            while (!parent.equals(directory) && isEmpty(parent)) {
+                Files.delete(parent);
+                parent = parent.getParent();
+            }
+
+            return true;
+        } catch (IOException e) {
+            // in use, ie on windows, try again next time
+            logger.log(Level.FINE, "failed to evict " + entry.path, e);
+            return false;
+        }
+    }
+
+    private long getLastAccess(String key, long lastModified) {
+        return accessed.getOrDefault(key, lastModified);
+    }
+
+    private void load() {
+        Path index = directory.resolve(INDEX_FILE);
+
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(new GZIPInputStream(Files.newInputStream(index))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("unknown index format");
+            }
+
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                accessed.put(in.readUTF(), in.readLong());
+            }
+        } catch (@SuppressWarnings("unused") NoSuchFileException e) {
+            // nothing recorded yet
+        } catch (IOException e) {
+            // falls back to the modification times
+            logger.log(Level.WARNING, "failed to read local repository index " + index, e);
+            accessed.clear();
+        }
+    }
+
+    private List<Entry> scan() throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return new ArrayList<>();
+        }
+
+        Map<Path, List<Path>> files;
+        try (Stream<Path> walk = Files.walk(directory)) {
+            files = walk.filter(Files::isRegularFile)
+                    .filter(path -> !path.getParent().equals(directory))
+                    // lock files and the like
+                    .filter(path -> !directory.relativize(path).getName(0).toString().startsWith("."))
+                    .collect(Collectors.groupingBy(Path::getParent));
+        } catch (UncheckedIOException e) {
+            // ie a directory removed while walking
+            throw e.getCause();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        files.forEach((parent, children) -> {
+            // artifact directories only hold metadata, their versions are evicted individually
+            if (children.stream().allMatch(LocalRepositoryIndex::isMetadata)) {
+                return;
+            }
+
+            String key = getKey(directory.relativize(parent));
+
+            long lastModified = 0;
+            long size = 0;
+            for (Path child : children) {
+                File file = child.toFile();
+
+                lastModified = Math.max(lastModified, file.lastModified());
+                size += file.length();
+            }
+
+            entries.add(new Entry(key, parent, children, size, getLastAccess(key, lastModified)));
+        });
+
+        return entries;
+    }
+
+    private LocalRepositoryLocks.Held tryLock(Entry entry) {
+        String[] names = entry.key.split("/");
+
+        // not laid out as group/artifact/version, nothing resolves it
+        if (names.length < 3) {
+            return () -> {
+            };
+        }
+
+        String groupId = String.join(".", Arrays.copyOfRange(names, 0, names.length - 2));
+        return LocalRepositoryLocks.tryLockVersion(directory, groupId, names[names.length - 2], names[names.length - 1]);
+    }
+
+    private static String getKey(Path relative) {
+        List<String> names = new ArrayList<>();
+        relative.forEach(name -> names.add(name.toString()));
+
+        return String.join("/", names);
+    }
+
+    private static boolean isEmpty(Path path) throws IOException {
+        try (Stream<Path> children = Files.list(path)) {
+            return !children.findAny().isPresent();
+        }
+    }
+
+    private static boolean isMetadata(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith("maven-metadata") || name.equals("resolver-status.properties");
+    }
+
+    /**
+     * Outcome of a single eviction.
+     */
+    public static class Result {
+
+        private int evicted;
+
+        private long freed;
+
+        private long size;
+
+        /**
+         * Number of version directories removed.
+         */
+        public int getEvicted() {
+            return evicted;
+        }
+
+        public long getFreed() {
+            return freed;
+        }
+
+        /**
+         * Size of the artifacts left in the repository.
+         */
+        public long getSize() {
+            return size;
+        }
+    }
+
+    private static class Entry {
+
+        private final List<Path> files;
+
+        private final String key;
+
+        private final long lastAccess;
+
+        private final Path path;
+
+        private final long size;
+
+        Entry(String key, Path path, List<Path> files, long size, long lastAccess) {
+            this.key = key;
+            this.path = path;
+            this.files = files;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Controller wide cache of artifacts that were not found in any of the repositories they were resolved from, so a
+ * missing artifact is not looked up in every repository again, build after build.
+ * <p>
+ * Entries are identified by the coordinates of the artifact and the repositories it was looked up in, a changed
+ * repository is a different entry. An entry expires after a fixed time, the least recently used entry is evicted once
+ * the maximum number of entries is reached. A time to live of <code>0</code> disables the cache.
+ */
+public class MissingArtifactCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+
+    public static final int DEFAULT_TTL = 600;
+
+    private final LongSupplier clock;
+
+    private final Map<String, Long> entries;
+
+    private int maxEntries;
+
+    private long ttl;
+
+    public MissingArtifactCache() {
+        this(System::nanoTime);
+    }
+
+    // visible for testing
+    MissingArtifactCache(LongSupplier clock) {
+        this.clock = clock;
+
+        this.maxEntries = DEFAULT_MAX_ENTRIES;
+        this.ttl = TimeUnit.SECONDS.toNanos(DEFAULT_TTL);
+
+        // access order, the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<String, Long>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Removes every entry, returning how many there were.
+     */
+    public synchronized int clear() {
+        int size = entries.size();
+        entries.clear();
+
+        return size;
+    }
+
+    /**
+     * Sets the time to live in seconds and the maximum number of entries, dropping entries above the new maximum.
+     */
+    public synchronized void configure(int ttlSeconds, int maxEntries) {
+        this.ttl = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        this.maxEntries = Math.max(maxEntries, 1);
+
+        if (ttl == 0) {
+            entries.clear();
+        }
+
+        while (entries.size() > this.maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Removes the entries of an artifact for every set of repositories, ie once it was deployed.
+     */
+    public synchronized void invalidate(String artifact) {
+        String prefix = artifact + "@";
+        entries.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Returns if the artifact was not found in the repositories the last time it was looked up, an expired entry is
+     * removed.
+     *
+     * @param repositories identifies the repositories the artifact is resolved from
+     */
+    public synchronized boolean isMissing(String artifact, String repositories) {
+        String key = getKey(artifact, repositories);
+        Long created = entries.get(key);
+
+        if (created == null) {
+            return false;
+        }
+
+        if (clock.getAsLong() - created > ttl) {
+            entries.remove(key);
+            return false;
+        }
+
+        return true;
+    }
+
+    public synchronized void putMissing(String artifact, String repositories) {
+        if (ttl > 0) {
+            entries.put(getKey(artifact, repositories), clock.getAsLong());
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static String getKey(String artifact, String repositories) {
+        return artifact + "@" + repositories;
+    }
+}
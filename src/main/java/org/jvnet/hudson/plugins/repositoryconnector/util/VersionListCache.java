@@ -0,0 +1,315 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositorySystemProvider;
+
+/**
+ * Controller wide cache of the versions resolved for an artifact, so rendering a parameterized build page does not
+ * download the same <code>maven-metadata.xml</code> again for every user.
+ * <p>
+ * Entries become stale after a fixed time. A stale entry is still returned, while the versions are resolved again in
+ * the background, so a slow repository never blocks the page once an artifact has been resolved. Only one resolution
+ * per entry is running at any time, concurrent callers share its result. A failed background refresh keeps the last
+ * successfully resolved versions.
+ * <p>
+ * The least recently used entry is evicted once the maximum number of entries is reached. A time to live of
+ * <code>0</code> disables the cache.
+ */
+public class VersionListCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 500;
+
+    public static final int DEFAULT_TTL = 300;
+
+    private static final Logger logger = Logger.getLogger(VersionListCache.class.getName());
+
+    private final Map<Key, Entry> entries;
+
+    private final LongSupplier clock;
+
+    private final Executor executor;
+
+    private final Map<Key, CompletableFuture<List<String>>> inFlight;
+
+    private int maxEntries;
+
+    private long ttl;
+
+    public VersionListCache() {
+        this(createExecutor(), System::nanoTime);
+    }
+
+    // visible for testing
+    VersionListCache(Executor executor, LongSupplier clock) {
+        this.executor = executor;
+        this.clock = clock;
+        this.inFlight = new ConcurrentHashMap<>();
+
+        this.maxEntries = DEFAULT_MAX_ENTRIES;
+        this.ttl = TimeUnit.SECONDS.toNanos(DEFAULT_TTL);
+
+        // access order, the eldest entry is the least recently used one
+        this.entries = new LinkedHashMap<Key, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Sets the time to live in seconds and the maximum number of entries, dropping entries above the new maximum.
+     */
+    public synchronized void configure(int ttlSeconds, int maxEntries) {
+        this.ttl = TimeUnit.SECONDS.toNanos(Math.max(ttlSeconds, 0));
+        this.maxEntries = Math.max(maxEntries, 1);
+
+        if (ttl == 0) {
+            entries.clear();
+        }
+
+        while (entries.size() > this.maxEntries) {
+            entries.remove(entries.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Returns the cached versions, or <code>null</code> if there are none or they are stale.
+     */
+    public synchronized List<String> get(Key key) {
+        Entry entry = entries.get(key);
+
+        if (entry == null || isStale(entry)) {
+            return null;
+        }
+
+        return entry.versions;
+    }
+
+    /**
+     * Returns the cached versions, resolving them with the loader if there are none. Stale versions are returned as
+     * they are and refreshed in the background.
+     */
+    public List<String> get(Key key, Loader loader) throws AetherException {
+        Entry entry;
+
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null) {
+            return load(key, loader);
+        }
+
+        if (isStale(entry)) {
+            refresh(key, loader);
+        }
+
+        return entry.versions;
+    }
+
+    public synchronized void invalidate(Key key) {
+        entries.remove(key);
+    }
+
+    public void put(Key key, Collection<String> versions) {
+        // callers modify the lists they are handed, the cached copy must not change
+        store(key, copy(versions));
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized boolean isStale(Entry entry) {
+        return clock.getAsLong() - entry.created > ttl;
+    }
+
+    private List<String> load(Key key, Loader loader) throws AetherException {
+        CompletableFuture<List<String>> created = new CompletableFuture<>();
+        CompletableFuture<List<String>> running = inFlight.putIfAbsent(key, created);
+
+        if (running == null) {
+            // this caller resolves, everyone else waits for the result
+            resolve(key, loader, created);
+            running = created;
+        }
+
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AetherException) {
+                throw (AetherException) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+
+    private void refresh(Key key, Loader loader) {
+        CompletableFuture<List<String>> created = new CompletableFuture<>();
+
+        if (inFlight.putIfAbsent(key, created) != null) {
+            // already being refreshed
+            return;
+        }
+
+        try {
+            executor.execute(() -> resolve(key, loader, created));
+        } catch (RejectedExecutionException e) {
+            logger.log(Level.WARNING, "unable to schedule refresh of versions for " + key, e);
+            inFlight.remove(key, created);
+        }
+
+        // failures are logged and the stale versions are kept
+        created.whenComplete((versions, e) -> {
+            if (e != null) {
+                logger.log(Level.WARNING, "failed to refresh versions for " + key, e);
+            }
+        });
+    }
+
+    private void resolve(Key key, Loader loader, CompletableFuture<List<String>> result) {
+        try {
+            List<String> versions = copy(loader.load());
+            store(key, versions);
+
+            result.complete(versions);
+        } catch (AetherException | RuntimeException e) {
+            result.completeExceptionally(e);
+        } finally {
+            inFlight.remove(key, result);
+        }
+    }
+
+    private synchronized void store(Key key, List<String> versions) {
+        if (ttl > 0) {
+            entries.put(key, new Entry(versions, clock.getAsLong()));
+        }
+    }
+
+    private static List<String> copy(Collection<String> versions) {
+        return Collections.unmodifiableList(new ArrayList<>(versions));
+    }
+
+    private static Executor createExecutor() {
+        // a couple of threads is plenty, refreshes of the same entry never run concurrently
+        return RepositorySystemProvider.createExecutor(VersionListCache.class.getSimpleName(), 2);
+    }
+
+    /**
+     * Resolves the versions of an artifact, called on a background thread when refreshing stale versions.
+     */
+    @FunctionalInterface
+    public interface Loader {
+
+        Collection<String> load() throws AetherException;
+    }
+
+    /**
+     * Identifies the versions resolved for an artifact from a repository, or all repositories if
+     * <code>repositoryId</code> is <code>null</code>.
+     */
+    public static final class Key {
+
+        private final String artifactId;
+
+        private final String groupId;
+
+        private final int limit;
+
+        private final boolean oldestFirst;
+
+        private final boolean releases;
+
+        private final String repositoryId;
+
+        private final String scope;
+
+        private final boolean snapshots;
+
+        /**
+         * @param scope what the credentials used to list the versions are resolved for, ie the folder of a job, so
+         *            versions only visible with the credentials of one folder are not served to another
+         */
+        public Key(String scope, String repositoryId, String groupId, String artifactId, boolean releases,
+                boolean snapshots, boolean oldestFirst, int limit) {
+            this.scope = scope;
+            this.repositoryId = repositoryId;
+            this.groupId = groupId;
+            this.artifactId = artifactId;
+            this.releases = releases;
+            this.snapshots = snapshots;
+            this.oldestFirst = oldestFirst;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) obj;
+
+            return Objects.equals(scope, other.scope)
+                    && Objects.equals(repositoryId, other.repositoryId)
+                    && Objects.equals(groupId, other.groupId)
+                    && Objects.equals(artifactId, other.artifactId)
+                    && releases == other.releases
+                    && snapshots == other.snapshots
+                    && oldestFirst == other.oldestFirst
+                    && limit == other.limit;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, repositoryId, groupId, artifactId, releases, snapshots, oldestFirst, limit);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s:%s@%s [scope=%s, releases=%s, snapshots=%s, oldestFirst=%s, limit=%d]", groupId,
+                    artifactId, repositoryId, scope, releases, snapshots, oldestFirst, limit);
+        }
+    }
+
+    private static class Entry {
+
+        private final long created;
+
+        private final List<String> versions;
+
+        Entry(List<String> versions, long created) {
+            this.versions = versions;
+            this.created = created;
+        }
+    }
+}
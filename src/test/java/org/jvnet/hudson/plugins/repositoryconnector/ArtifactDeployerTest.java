@@ -1,16 +1,28 @@
 package org.jvnet.hudson.plugins.repositoryconnector;
 
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilder;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherSettings;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
 import org.jvnet.hudson.plugins.repositoryconnector.util.TokenMacroExpander;
+import org.mockito.Mock;
 
 import hudson.FilePath;
 import hudson.model.Run;
@@ -18,18 +30,35 @@ import hudson.model.TaskListener;
 
 public class ArtifactDeployerTest extends AbstractArtifactTest {
 
+    @Mock
+    private AetherBuilder mockAetherBuilder;
+
+    @Mock
+    private AetherSettings mockSettings;
+
+    @Mock
+    private TransferTimings mockTimings;
+
     private ArtifactDeployer deployer;
 
     @Override
     public void before() throws Exception {
         super.before();
 
+        when(mockSettings.createAetherBuilder()).thenReturn(mockAetherBuilder);
+        when(mockAetherBuilder.build()).thenReturn(mockAether);
+
         deployer = new ArtifactDeployer(artifacts) {
             @Override
             Aether createAether(Run<?, ?> context, PrintStream console) {
                 return mockAether;
             }
 
+            @Override
+            AetherSettings createAetherSettings(Run<?, ?> context) {
+                return mockSettings;
+            }
+
             @Override
             TokenMacroExpander createExpander(Run<?, ?> run, FilePath workspace, TaskListener listener) {
                 return mockExpander;
@@ -41,9 +70,91 @@ public class ArtifactDeployerTest extends AbstractArtifactTest {
     @Test(expected = AetherException.class)
     public void testFailOnError() throws Exception {
         Artifact artifact = createArtifact(true);
-        when(mockAether.deploy("central", artifact)).thenThrow(new AetherException("failed"));
+        when(mockAether.deployAll("central", singletonList(artifact)))
+                .thenReturn(singletonMap(artifact, new AetherException("failed")));
+
+        deployer.perform(mockRun, workspace, null, mockListener);
+    }
+
+    @Test(expected = AetherException.class)
+    public void testFailOnErrorInGroup() throws Exception {
+        Artifact artifact = createArtifact(true);
+        Artifact sources = createArtifact(false);
+        sources.setClassifier("sources");
+
+        // only the upload of the sources failed, but the group is deployed as a whole
+        Map<Artifact, AetherException> failures = new LinkedHashMap<>();
+        failures.put(sources, new AetherException("failed"));
+        failures.put(artifact, new AetherException("not deployed"));
+
+        when(mockAether.deployAll("central", Arrays.asList(artifact, sources))).thenReturn(failures);
+
+        deployer.perform(mockRun, workspace, null, mockListener);
+    }
+
+    @Test
+    public void testDeployOnAgent() throws Exception {
+        Artifact artifact = createArtifact(true);
+
+        deployer.setDeployOnAgent(true);
+        deployer.perform(mockRun, workspace, null, mockListener);
+
+        verify(mockSettings).createAetherBuilder();
+        verify(mockAether).installAll(singletonList(artifact));
+        verify(mockAether).deployAll("central", singletonList(artifact));
+
+        // the workspace file is deployed in place and must be left alone
+        assertTrue(getTestJar().exists());
+    }
+
+    @Test
+    public void testDeployOnAgentFailure() throws Exception {
+        Artifact artifact = createArtifact(true);
+        when(mockAether.deployAll("central", singletonList(artifact)))
+                .thenReturn(singletonMap(artifact, new AetherException("failed")));
+        when(mockAether.getTransferTimings(singletonList(artifact))).thenReturn(singletonList(mockTimings));
+
+        deployer.setDeployOnAgent(true);
+
+        try {
+            deployer.perform(mockRun, workspace, null, mockListener);
+            fail("deployed a failed artifact");
+        } catch (AetherException e) {
+            // expected
+        }
+
+        // reported like the step failing on the controller
+        verify(mockRun).addAction(any(TransferReportAction.class));
+    }
+
+    @Test
+    public void testDeployMultiple() throws Exception {
+        Artifact artifact = createArtifact(true);
+        Artifact sources = createArtifact(true);
+        sources.setClassifier("sources");
 
         deployer.perform(mockRun, workspace, null, mockListener);
+
+        // a single call, grouping is done by aether
+        verify(mockAether).installAll(Arrays.asList(artifact, sources));
+        verify(mockAether).deployAll("central", Arrays.asList(artifact, sources));
+        verify(mockAether).getTransferTimings(Arrays.asList(artifact, sources));
+        verifyNoMoreInteractions(mockAether);
+    }
+
+    @Test
+    public void testInstallFailureSkipsDeploy() throws Exception {
+        Artifact artifact = createArtifact(false);
+        when(mockAether.installAll(singletonList(artifact)))
+                .thenReturn(singletonMap(artifact, new AetherException("failed")));
+
+        deployer.perform(mockRun, workspace, null, mockListener);
+
+        verify(mockAether).installAll(singletonList(artifact));
+        verify(mockAether).getTransferTimings(singletonList(artifact));
+        verifyNoMoreInteractions(mockAether);
+
+        verify(mockPrintStream).println(anyString());
     }
 
     @Test
@@ -53,7 +164,8 @@ public class ArtifactDeployerTest extends AbstractArtifactTest {
 
         deployer.perform(mockRun, workspace, null, mockListener);
 
-        verify(mockAether).install(artifact);
+        verify(mockAether).installAll(singletonList(artifact));
+        verify(mockAether).getTransferTimings(singletonList(artifact));
         verifyNoMoreInteractions(mockAether);
     }
 
@@ -63,19 +175,20 @@ public class ArtifactDeployerTest extends AbstractArtifactTest {
 
         deployer.perform(mockRun, workspace, null, mockListener);
 
-        verify(mockAether).install(artifact);
-        verify(mockAether).deploy("central", artifact);
+        verify(mockAether).installAll(singletonList(artifact));
+        verify(mockAether).deployAll("central", singletonList(artifact));
     }
 
     @Test
     public void testSuccessOnError() throws Exception {
         Artifact artifact = createArtifact(false);
-        when(mockAether.deploy("central", artifact)).thenThrow(new AetherException("failed"));
+        when(mockAether.deployAll("central", singletonList(artifact)))
+                .thenReturn(singletonMap(artifact, new AetherException("failed")));
 
         deployer.perform(mockRun, workspace, null, mockListener);
 
-        verify(mockAether).install(artifact);
-        verify(mockAether).deploy("central", artifact);
+        verify(mockAether).installAll(singletonList(artifact));
+        verify(mockAether).deployAll("central", singletonList(artifact));
 
         verify(mockPrintStream).println(anyString());
     }
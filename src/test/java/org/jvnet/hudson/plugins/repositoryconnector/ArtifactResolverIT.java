@@ -9,13 +9,17 @@ import static org.mockito.Mockito.when;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.Ignore;
 import org.junit.Test;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilder;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilderFactory;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.ResolutionResult;
 import org.jvnet.hudson.test.recipes.LocalData;
 
 import hudson.FilePath;
@@ -65,7 +69,14 @@ public class ArtifactResolverIT extends AbstractArtifactIT {
     public void testTokenExpansion() throws Exception {
         // jenkins won't copy the contents of an empty file so return a tiny, local jar instead
         File file = new File(this.getClass().getResource("test.jar").toURI());
-        when(mockAether.resolve(any(), any())).thenReturn(file);
+        when(mockAether.resolveAll(any(), any())).thenAnswer(invocation -> {
+            Collection<Artifact> requested = invocation.getArgument(1);
+
+            Map<Artifact, ResolutionResult> results = new LinkedHashMap<>();
+            requested.forEach(artifact -> results.put(artifact, ResolutionResult.resolved(file)));
+
+            return results;
+        });
 
         ArtifactResolver resolver = createResolver(createTokenizedArtifact());
         resolver.setTargetDirectory("target");
@@ -1,18 +1,29 @@
 package org.jvnet.hudson.plugins.repositoryconnector;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import org.junit.Test;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilder;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherSettings;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.ResolutionResult;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.TransferTimings;
 import org.jvnet.hudson.plugins.repositoryconnector.util.TokenMacroExpander;
+import org.mockito.Mock;
 
 import hudson.FilePath;
 import hudson.model.Run;
@@ -20,18 +31,35 @@ import hudson.model.TaskListener;
 
 public class ArtifactResolverTest extends AbstractArtifactTest {
    
+    @Mock
+    private AetherBuilder mockAetherBuilder;
+
+    @Mock
+    private AetherSettings mockSettings;
+
+    @Mock
+    private TransferTimings mockTimings;
+
     private ArtifactResolver resolver;
    
     @Override
     public void before() throws Exception {
         super.before();
-        
+
+        when(mockSettings.createAetherBuilder()).thenReturn(mockAetherBuilder);
+        when(mockAetherBuilder.build()).thenReturn(mockAether);
+
         resolver = new ArtifactResolver(artifacts) {
             @Override
             Aether createAether(Run<?, ?> context, PrintStream console) {
                 return mockAether;
             }
 
+            @Override
+            AetherSettings createAetherSettings(Run<?, ?> context) {
+                return mockSettings;
+            }
+
             @Override
             TokenMacroExpander createExpander(Run<?, ?> run, FilePath workspace, TaskListener listener) {
                 return mockExpander;
@@ -42,7 +70,7 @@ public class ArtifactResolverTest extends AbstractArtifactTest {
     @Test
     public void testSuccess() throws Exception {
         Artifact artifact = createArtifact(true);
-        when(mockAether.resolve(any(), eq(artifact))).thenReturn(getTestJar());
+        mockResolution(artifact, ResolutionResult.resolved(getTestJar()));
 
         resolver.perform(mockRun, workspace, null, mockListener);
 
@@ -53,7 +81,7 @@ public class ArtifactResolverTest extends AbstractArtifactTest {
     @Test(expected = AetherException.class)
     public void testFailOnError() throws Exception {
         Artifact artifact = createArtifact(true);
-        when(mockAether.resolve(any(), eq(artifact))).thenThrow(new AetherException("failed"));
+        mockResolution(artifact, ResolutionResult.failed(new AetherException("failed")));
 
         resolver.perform(mockRun, workspace, null, mockListener);
     }
@@ -61,7 +89,7 @@ public class ArtifactResolverTest extends AbstractArtifactTest {
     @Test
     public void testSuccessOnError() throws Exception {
         Artifact artifact = createArtifact(false);
-        when(mockAether.resolve(any(), eq(artifact))).thenThrow(new AetherException("failed"));
+        mockResolution(artifact, ResolutionResult.failed(new AetherException("failed")));
 
         resolver.perform(mockRun, workspace, null, mockListener);
 
@@ -70,4 +98,106 @@ public class ArtifactResolverTest extends AbstractArtifactTest {
 
         verify(mockPrintStream).println(anyString());
     }
+
+    @Test
+    public void testParallelism() throws Exception {
+        createArtifact(true).setTargetFileName("first.jar");
+        createArtifact(true).setTargetFileName("second.jar");
+
+        mockResolutions(ResolutionResult.resolved(getTestJar()));
+
+        resolver.setParallelism(2);
+        resolver.perform(mockRun, workspace, null, mockListener);
+
+        assertEquals(1, workspace.list("first.jar").length);
+        assertEquals(1, workspace.list("second.jar").length);
+
+        // summary of total vs. summed transfer time
+        verify(mockPrintStream).println(anyString());
+    }
+
+    @Test(expected = AetherException.class)
+    public void testParallelismFailOnError() throws Exception {
+        createArtifact(true);
+        createArtifact(true);
+
+        mockResolutions(ResolutionResult.failed(new AetherException("failed")));
+
+        resolver.setParallelism(2);
+        resolver.perform(mockRun, workspace, null, mockListener);
+    }
+
+    @Test
+    public void testParallelismSuccessOnError() throws Exception {
+        createArtifact(false);
+        createArtifact(false);
+
+        mockResolutions(ResolutionResult.failed(new AetherException("failed")));
+
+        resolver.setParallelism(2);
+        resolver.perform(mockRun, workspace, null, mockListener);
+
+        // one line per failure plus the summary
+        verify(mockPrintStream, times(3)).println(anyString());
+    }
+
+    @Test
+    public void testTransferReport() throws Exception {
+        Artifact artifact = createArtifact(true);
+        mockResolution(artifact, ResolutionResult.resolved(getTestJar()));
+
+        when(mockAether.getTransferTimings(any())).thenReturn(Collections.singletonList(mockTimings));
+
+        resolver.perform(mockRun, workspace, null, mockListener);
+
+        verify(mockTimings).setCopyTime(anyLong());
+        verify(mockRun).addAction(any(TransferReportAction.class));
+    }
+
+    @Test
+    public void testResolveOnAgent() throws Exception {
+        Artifact artifact = createArtifact(true);
+        mockResolution(artifact, ResolutionResult.resolved(getTestJar()));
+
+        resolver.setResolveOnAgent(true);
+        resolver.perform(mockRun, workspace, null, mockListener);
+
+        assertEquals(1, workspace.list("test.jar").length);
+        verify(mockSettings).createAetherBuilder();
+    }
+
+    @Test
+    public void testResolveOnAgentFailure() throws Exception {
+        Artifact artifact = createArtifact(true);
+        mockResolution(artifact, ResolutionResult.failed(new AetherException("failed")));
+
+        when(mockAether.getTransferTimings(any())).thenReturn(Collections.singletonList(mockTimings));
+
+        resolver.setResolveOnAgent(true);
+
+        try {
+            resolver.perform(mockRun, workspace, null, mockListener);
+            fail("resolved a failed artifact");
+        } catch (AetherException e) {
+            // expected
+        }
+
+        // reported like the step failing on the controller
+        verify(mockRun).addAction(any(TransferReportAction.class));
+    }
+
+    private void mockResolution(Artifact artifact, ResolutionResult result) {
+        when(mockAether.resolveAll(any(), any())).thenReturn(Collections.singletonMap(artifact, result));
+    }
+
+    private void mockResolutions(ResolutionResult result) {
+        when(mockAether.resolveAll(any(), any())).thenAnswer(invocation -> {
+            Collection<Artifact> requested = invocation.getArgument(1);
+
+            Map<Artifact, ResolutionResult> results = new LinkedHashMap<>();
+            requested.forEach(artifact -> results.put(artifact, result));
+
+            return results;
+        });
+    }
 }
@@ -4,6 +4,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.Arrays;
@@ -11,19 +14,39 @@ import java.util.List;
 
 import org.junit.Test;
 import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionListCache;
 import org.mockito.Mock;
 
 import hudson.model.Item;
+import hudson.model.ItemGroup;
 
 public class VersionParameterDefinitionTest extends AbstractArtifactTest {
 
+    @Mock
+    private ItemGroup<Item> mockFolder;
+
     @Mock
     private Item mockItem;
 
+    @Mock
+    private ItemGroup<Item> mockOtherFolder;
+
+    private VersionListCache versionCache;
+
+    @Override
+    public void before() throws Exception {
+        super.before();
+        versionCache = new VersionListCache();
+
+        doReturn(mockFolder).when(mockItem).getParent();
+        when(mockFolder.getFullName()).thenReturn("folder");
+        when(mockOtherFolder.getFullName()).thenReturn("other-folder");
+    }
+
     @Test
     public void testGetVersions() throws Exception {
-        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(false), any())).thenReturn(Arrays.asList("2"));
-        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(true), any())).thenReturn(Arrays.asList("1"));
+        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0))).thenReturn(Arrays.asList("2"));
+        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(true), any(), eq(0))).thenReturn(Arrays.asList("1"));
 
         VersionParameterDefinition definition = createVersionParameterDefinition();
         definition.setUseLatest(false);
@@ -53,6 +76,49 @@ public class VersionParameterDefinitionTest extends AbstractArtifactTest {
         assertEquals("LATEST", versions.get(2));
     }
 
+    @Test
+    public void testGetVersionsCached() throws Exception {
+        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0))).thenReturn(Arrays.asList("2", "1"));
+
+        VersionParameterDefinition definition = createVersionParameterDefinition();
+
+        assertEquals(Arrays.asList("RELEASE", "LATEST", "2", "1"), definition.getVersions());
+        // the cached list must not contain the entries added for the first call
+        assertEquals(Arrays.asList("RELEASE", "LATEST", "2", "1"), definition.getVersions());
+
+        verify(mockAether, times(1)).resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0));
+
+        // a different filter is a different entry
+        definition.setIncludeSnapshots(false);
+        definition.getVersions();
+
+        verify(mockAether, times(2)).resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0));
+    }
+
+    @Test
+    public void testGetVersionsScopedToFolder() throws Exception {
+        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0))).thenReturn(Arrays.asList("2", "1"));
+
+        VersionParameterDefinition definition = createVersionParameterDefinition();
+        definition.getVersions();
+
+        // the same parameter in another folder resolves with the credentials of that folder
+        doReturn(mockOtherFolder).when(mockItem).getParent();
+        definition.getVersions();
+
+        verify(mockAether, times(2)).resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(0));
+    }
+
+    @Test
+    public void testGetVersionsWithLimit() throws Exception {
+        when(mockAether.resolveAvailableVersions(eq(null), any(), eq(false), any(), eq(2))).thenReturn(Arrays.asList("3", "2"));
+
+        VersionParameterDefinition definition = createVersionParameterDefinition();
+        definition.setLimit("2");
+
+        assertEquals(Arrays.asList("RELEASE", "LATEST", "3", "2"), definition.getVersions());
+    }
+
     @Test
     public void testGetVersionParameterValue() {
         VersionParameterDefinition definition = createVersionParameterDefinition();
@@ -84,7 +150,7 @@ public class VersionParameterDefinitionTest extends AbstractArtifactTest {
     private VersionParameterDefinition createVersionParameterDefinition() {
         return new VersionParameterDefinition("name", "desc", "groupId", "artifactId") {
             @Override
-            Aether createAether() {
+            Aether createAether(Item project) {
                 return mockAether;
             }
 
@@ -92,6 +158,11 @@ public class VersionParameterDefinitionTest extends AbstractArtifactTest {
             Item getProject() {
                 return mockItem;
             }
+
+            @Override
+            VersionListCache getVersionCache() {
+                return versionCache;
+            }
         };
     }
 }
@@ -0,0 +1,123 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class AdaptiveLimitTest {
+
+    private static final long LATENCY = 20_000_000L;
+
+    private AdaptiveLimit limit;
+
+    private long now;
+
+    @Before
+    public void before() {
+        limit = new AdaptiveLimit(0);
+        now = 0;
+    }
+
+    @Test
+    public void testBackoffOncePerRound() {
+        // all running when the limit was lowered for the first of them
+        long started = complete(LATENCY, false);
+
+        assertTrue(limit.update(started, -1, true, next(), AdaptiveLimit.INITIAL));
+        assertFalse(limit.update(started, -1, true, next(), AdaptiveLimit.INITIAL));
+
+        assertEquals(3, limit.get());
+
+        // started after the decrease
+        assertTrue(limit.update(next(), -1, true, next(), AdaptiveLimit.INITIAL));
+        assertEquals(2, limit.get());
+    }
+
+    @Test
+    public void testFailed() {
+        complete(LATENCY, false);
+        assertEquals(AdaptiveLimit.INITIAL, limit.get());
+
+        complete(LATENCY, true);
+        assertEquals(3, limit.get());
+    }
+
+    @Test
+    public void testIncrease() {
+        assertEquals(AdaptiveLimit.INITIAL, limit.get());
+
+        // about one per round of transfers
+        for (int i = 0; i <= AdaptiveLimit.INITIAL; i++) {
+            complete(LATENCY, false);
+        }
+
+        assertEquals(AdaptiveLimit.INITIAL + 1, limit.get());
+    }
+
+    @Test
+    public void testMax() {
+        limit = new AdaptiveLimit(2);
+        assertEquals(2, limit.get());
+
+        for (int i = 0; i < 100; i++) {
+            complete(LATENCY, false);
+        }
+
+        assertEquals(2, limit.get());
+
+        limit.setMax(1);
+        assertEquals(1, limit.get());
+
+        // never below a single transfer
+        complete(LATENCY, true);
+        assertEquals(1, limit.get());
+    }
+
+    @Test
+    public void testSlow() {
+        for (int i = 0; i < 10; i++) {
+            complete(LATENCY, false);
+        }
+
+        int before = limit.get();
+
+        complete((long) (LATENCY * AdaptiveLimit.TOLERANCE), false);
+        assertTrue(limit.get() >= before);
+
+        complete(LATENCY * 3, false);
+        assertTrue(limit.get() < before);
+    }
+
+    @Test
+    public void testUnknownLatency() {
+        // ie an upload, still counts as a success
+        for (int i = 0; i <= AdaptiveLimit.INITIAL; i++) {
+            limit.update(next(), -1, false, next(), AdaptiveLimit.INITIAL);
+        }
+
+        assertEquals(AdaptiveLimit.INITIAL + 1, limit.get());
+    }
+
+    @Test
+    public void testUnused() {
+        for (int i = 0; i < 100; i++) {
+            limit.update(next(), LATENCY, false, next(), 1);
+        }
+
+        assertEquals(AdaptiveLimit.INITIAL, limit.get());
+    }
+
+    private long complete(long latency, boolean failed) {
+        long started = next();
+        limit.update(started, latency, failed, next(), limit.get());
+
+        return started;
+    }
+
+    private long next() {
+        return ++now;
+    }
+}
@@ -0,0 +1,120 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hudson.model.Run;
+
+/**
+ * Lists the versions of an artifact with 10k versions from a <code>file://</code> repository, the metadata is read
+ * again on every lookup, same as rendering a version parameter.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AetherBenchmark {
+
+    private static final String ARTIFACT_ID = "benchmark";
+
+    private static final String GROUP_ID = "repository-connector-benchmark";
+
+    @Param({ "0", "10" })
+    public int limit;
+
+    @Param("10000")
+    public int versions;
+
+    private Aether aether;
+
+    private Artifact artifact;
+
+    private Path root;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        root = Files.createTempDirectory("aether-benchmark");
+
+        Path remote = Files.createDirectories(root.resolve("remote"));
+        Path metadata = Files.createDirectories(remote.resolve(GROUP_ID).resolve(ARTIFACT_ID));
+        Files.write(metadata.resolve("maven-metadata.xml"), createMetadata(versions).getBytes(StandardCharsets.UTF_8));
+
+        // no checksums are generated, only the metadata lookup is measured
+        RepositoryType policy = new RepositoryType(RepositoryPolicy.CHECKSUM_POLICY_IGNORE,
+                RepositoryPolicy.UPDATE_POLICY_ALWAYS, null, null);
+
+        Repository repository = new Repository("benchmark", remote.toUri().toString());
+        repository.setReleaseRepository(policy);
+        repository.setSnapshotRepository(policy);
+
+        File local = Files.createDirectories(root.resolve("local")).toFile();
+
+        aether = new AetherBuilderFactory(local.getAbsolutePath(), repository)
+                .createAetherBuilder((Run<?, ?>) null)
+                .build();
+
+        artifact = new Artifact(GROUP_ID, ARTIFACT_ID, null);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+        }
+    }
+
+    @Benchmark
+    public Collection<String> resolveAvailableVersions() throws AetherException {
+        return aether.resolveAvailableVersions(null, artifact, false, VersionFilter.ALL, limit);
+    }
+
+    private static String createMetadata(int count) {
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<metadata>\n")
+                .append("  <groupId>").append(GROUP_ID).append("</groupId>\n")
+                .append("  <artifactId>").append(ARTIFACT_ID).append("</artifactId>\n")
+                .append("  <versioning>\n")
+                .append("    <versions>\n");
+
+        for (int i = 0; i < count; i++) {
+            // every tenth version is a snapshot, so filtering has something to do
+            String version = (1 + i / 100) + "." + (i % 100) + ".0" + (i % 10 == 0 ? "-SNAPSHOT" : "");
+            xml.append("      <version>").append(version).append("</version>\n");
+        }
+
+        return xml.append("    </versions>\n")
+                .append("    <lastUpdated>20200101000000</lastUpdated>\n")
+                .append("  </versioning>\n")
+                .append("</metadata>\n")
+                .toString();
+    }
+}
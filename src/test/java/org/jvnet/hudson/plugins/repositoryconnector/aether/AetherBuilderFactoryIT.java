@@ -0,0 +1,77 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+
+import com.cloudbees.plugins.credentials.CredentialsScope;
+import com.cloudbees.plugins.credentials.SystemCredentialsProvider;
+import com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.test.JenkinsRule;
+
+import hudson.model.FreeStyleBuild;
+
+public class AetherBuilderFactoryIT {
+
+    @Rule
+    public JenkinsRule jenkinsRule = new JenkinsRule();
+
+    private AetherBuilderFactory factory;
+
+    private FreeStyleBuild run;
+
+    @Before
+    public void before() throws Exception {
+        for (String credentialsId : Arrays.asList("first", "first-releases", "second")) {
+            SystemCredentialsProvider.getInstance().getCredentials().add(new UsernamePasswordCredentialsImpl(
+                    CredentialsScope.GLOBAL, credentialsId, null, "user", "password"));
+        }
+
+        Repository first = createRepository("first");
+        first.setReleaseRepository(new RepositoryType(null, null, null, "first-releases"));
+
+        factory = new AetherBuilderFactory(null, Arrays.asList(first, createRepository("second")));
+        run = jenkinsRule.buildAndAssertSuccess(jenkinsRule.createFreeStyleProject());
+    }
+
+    @Test
+    public void testDeploymentSettings() {
+        AetherSettings settings = factory.createDeploymentSettings(run, "first");
+
+        // the snapshot repository falls back to the credentials of the repository
+        assertNotNull(settings.getAuthentication("first-releases"));
+        assertNotNull(settings.getAuthentication("first"));
+        assertNull(settings.getAuthentication("second"));
+    }
+
+    @Test
+    public void testResolutionSettings() {
+        AetherSettings settings = factory.createResolutionSettings(run, "first");
+
+        assertNotNull(settings.getAuthentication("first"));
+        assertNull(settings.getAuthentication("first-releases"));
+        assertNull(settings.getAuthentication("second"));
+    }
+
+    @Test
+    public void testResolutionSettingsAllRepositories() {
+        AetherSettings settings = factory.createResolutionSettings(run, null);
+
+        assertNotNull(settings.getAuthentication("first"));
+        assertNotNull(settings.getAuthentication("second"));
+    }
+
+    private Repository createRepository(String id) {
+        Repository repository = new Repository(id, "https://" + id + ".example.org/");
+        repository.setCredentialsId(id);
+
+        return repository;
+    }
+}
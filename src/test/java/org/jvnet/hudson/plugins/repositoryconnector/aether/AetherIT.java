@@ -1,5 +1,6 @@
 package org.jvnet.hudson.plugins.repositoryconnector.aether;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
@@ -7,7 +8,10 @@ import static org.junit.Assert.assertTrue;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 
 import java.nio.file.Files;
 
@@ -41,6 +45,37 @@ public class AetherIT {
         assertTrue(aether.hasAvailableVersions(null, artifact.getGroupId(), artifact.getArtifactId(), VersionFilter.ALL));
     }
 
+    @Test
+    public void testDeployAll() throws Exception {
+        File remote = Files.createTempDirectory(null).toFile();
+        Aether fileRepository = new AetherBuilderFactory(null, new Repository("file", remote.toURI().toString()))
+                .createAetherBuilder((Run<?, ?>) null)
+                .build();
+
+        Artifact artifact = createInstallableArtifact();
+        Artifact sources = createInstallableArtifact();
+        sources.setClassifier("sources");
+
+        Map<Artifact, AetherException> failures = fileRepository.deployAll("file", Arrays.asList(artifact, sources));
+        assertTrue(failures.isEmpty());
+
+        File deployed = new File(remote, "repository-connector-test/test/0.1.0");
+
+        assertTrue(new File(deployed, "test-0.1.0.jar").exists());
+        assertTrue(new File(deployed, "test-0.1.0-sources.jar").exists());
+        assertTrue(new File(deployed, "test-0.1.0.pom").exists());
+        assertTrue(new File(remote, "repository-connector-test/test/maven-metadata.xml").exists());
+    }
+
+    @Test
+    public void testDeployAllUnknownRepository() throws Exception {
+        Artifact artifact = createInstallableArtifact();
+        Map<Artifact, AetherException> failures = aether.deployAll("unknown", Arrays.asList(artifact));
+
+        assertEquals(1, failures.size());
+        assertNotNull(failures.get(artifact));
+    }
+
     @Test
     public void testInstall() throws Exception {
         Collection<File> installed = aether.install(createInstallableArtifact());
@@ -49,6 +84,15 @@ public class AetherIT {
         assertFalse(installed.isEmpty());
     }
 
+    @Test
+    public void testInstallAll() throws Exception {
+        Artifact artifact = createInstallableArtifact();
+        Artifact sources = createInstallableArtifact();
+        sources.setClassifier("sources");
+
+        assertTrue(aether.installAll(Arrays.asList(artifact, sources)).isEmpty());
+    }
+
     @Test
     @Ignore("not to be run as part of ci - connects to maven central")
     public void testResolveArtifact() throws AetherException {
@@ -58,6 +102,35 @@ public class AetherIT {
         assertTrue(resolved.exists());
     }
 
+    @Test
+    @Ignore("not to be run as part of ci - connects to maven central")
+    public void testResolveAll() throws AetherException {
+        Artifact artifact = createResolveableArtifact();
+        Artifact missing = new Artifact("repository-connector-test", "missing", "0.1.0");
+
+        Map<Artifact, ResolutionResult> resolved = aether.resolveAll(null, Arrays.asList(artifact, missing));
+
+        assertEquals(2, resolved.size());
+        assertTrue(resolved.get(artifact).isResolved());
+        assertTrue(resolved.get(artifact).getFile().exists());
+
+        assertFalse(resolved.get(missing).isResolved());
+        assertNotNull(resolved.get(missing).getException());
+    }
+
+    @Test
+    public void testResolveAllWithoutRepositories() {
+        Aether noRepositories = new AetherBuilderFactory(null, Collections.emptyList())
+                .createAetherBuilder((Run<?, ?>) null)
+                .build();
+
+        Artifact artifact = createResolveableArtifact();
+        Map<Artifact, ResolutionResult> resolved = noRepositories.resolveAll(null, Arrays.asList(artifact));
+
+        assertEquals(1, resolved.size());
+        assertFalse(resolved.get(artifact).isResolved());
+    }
+
     @Test
     @Ignore("not to be run as part of ci - connects to maven central")
     public void testResolveWithDependencies() throws AetherException {
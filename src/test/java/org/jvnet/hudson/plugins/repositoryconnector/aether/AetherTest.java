@@ -0,0 +1,420 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.deployment.DeployRequest;
+import org.eclipse.aether.deployment.DeploymentException;
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.repository.LocalRepositoryManager;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResolutionException;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.eclipse.aether.resolution.VersionRangeRequest;
+import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.ArtifactTransferException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.MetadataTransferException;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
+
+public class AetherTest {
+
+    private static final String REMOTE = "remote";
+
+    private static final GenericVersionScheme scheme = new GenericVersionScheme();
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testDeployAllFailedInGroup() throws Exception {
+        Artifact artifact = createDeployable(null);
+        Artifact sources = createDeployable("sources");
+
+        Aether aether = createAether((proxy, method, args) -> {
+            DeployRequest request = (DeployRequest) args[1];
+            throw new DeploymentException("Failed to deploy artifacts: unauthorized", new ArtifactTransferException(
+                    request.getArtifacts().iterator().next(), request.getRepository(), "unauthorized"));
+        });
+
+        Map<Artifact, AetherException> failures = aether.deployAll(REMOTE, Arrays.asList(sources, artifact));
+
+        // the metadata is not updated, so neither of them is deployed
+        assertEquals(Arrays.asList(sources, artifact), new ArrayList<>(failures.keySet()));
+
+        assertEquals("Failed to deploy artifacts: unauthorized", failures.get(sources).getMessage());
+        assertTrue(failures.get(artifact).getMessage().contains("was not deployed"));
+    }
+
+    @Test
+    public void testLockTimeout() throws Exception {
+        Aether aether = createAether((proxy, method, args) -> {
+            throw new LockTimeoutException("timed out waiting for local repository lock");
+        });
+
+        Artifact artifact = new Artifact("repository-connector-test", "locked", "1.0.0");
+
+        // reported like any other failure, instead of escaping the step
+        Map<Artifact, ResolutionResult> resolved = aether.resolveAll(REMOTE, Arrays.asList(artifact));
+        assertFalse(resolved.get(artifact).isResolved());
+        assertTrue(resolved.get(artifact).getException().getMessage().contains("timed out"));
+
+        try {
+            aether.resolve(REMOTE, artifact);
+            fail("resolved a locked artifact");
+        } catch (AetherException e) {
+            assertTrue(e.getMessage().contains("timed out"));
+        }
+
+        artifact.setTargetFileName("locked-1.0.0.jar");
+        artifact.setPomFile("locked-1.0.0.pom");
+
+        Map<Artifact, AetherException> failures = aether.deployAll(REMOTE, Arrays.asList(artifact));
+        assertTrue(failures.get(artifact).getMessage().contains("timed out"));
+    }
+
+    @Test
+    public void testMergeVersionRanges() throws Exception {
+        RemoteRepository central = createRepository("central");
+        RemoteRepository internal = createRepository("internal");
+
+        VersionRangeRequest request = new VersionRangeRequest(new DefaultArtifact("org.example:artifactId:[0,)"),
+                Arrays.asList(central, internal), null);
+
+        VersionRangeResult fromCentral = createResult(request, central, "1.0", "1.1");
+        VersionRangeResult fromInternal = createResult(request, internal, "1.1-SNAPSHOT", "1.1", "1.2");
+
+        Exception failure = new Exception("unreachable");
+        fromInternal.addException(failure);
+
+        VersionRangeResult merged = Aether.mergeVersionRanges(request, Arrays.asList(fromCentral, fromInternal));
+
+        assertEquals(parse("1.0", "1.1-SNAPSHOT", "1.1", "1.2"), merged.getVersions());
+        assertEquals(Arrays.asList(failure), merged.getExceptions());
+
+        // the first repository listing a version wins
+        assertSame(central, merged.getRepository(scheme.parseVersion("1.1")));
+        assertSame(internal, merged.getRepository(scheme.parseVersion("1.2")));
+
+        assertEquals("1.0 from central, 1.1-SNAPSHOT from internal, 1.1 from central, 1.2 from internal",
+                Aether.describeVersions(merged));
+    }
+
+    @Test
+    public void testMissingPerCredentials() throws Exception {
+        AtomicInteger requests = new AtomicInteger();
+        InvocationHandler repositorySystem = (proxy, method, args) -> {
+            requests.incrementAndGet();
+
+            // some repository managers report artifacts the credentials may not read as missing
+            ArtifactRequest request = (ArtifactRequest) args[1];
+            throw new ArtifactResolutionException(Arrays.asList(new ArtifactResult(request)
+                    .addException(new ArtifactNotFoundException(request.getArtifact(), null))));
+        };
+
+        MissingArtifactCache missingArtifacts = new MissingArtifactCache();
+        Artifact artifact = new Artifact("repository-connector-test", "hidden", "1.0.0");
+
+        for (String user : Arrays.asList("first", "first", "second")) {
+            try {
+                Authentication authentication = new AuthenticationBuilder().addUsername(user).build();
+
+                createBuilder(repositorySystem, UnaryOperator.identity())
+                        .setCredentials(repository -> authentication)
+                        .setMissingArtifactCache(missingArtifacts)
+                        .build()
+                        .resolve(REMOTE, artifact);
+                fail("resolved a missing artifact");
+            } catch (AetherException e) {
+                // expected
+            }
+        }
+
+        // known missing for the first credentials only
+        assertEquals(2, requests.get());
+    }
+
+    @Test
+    public void testMissingVersions() throws Exception {
+        Aether aether = createAether((proxy, method, args) -> {
+            VersionRangeRequest request = (VersionRangeRequest) args[1];
+            return new VersionRangeResult(request).addException(new MetadataNotFoundException(null,
+                    request.getRepositories().get(0)));
+        });
+
+        // an artifact nobody published is not a failure
+        assertTrue(aether.resolveAvailableVersions(REMOTE, new Artifact("org.example", "missing", null), false,
+                VersionFilter.ALL).isEmpty());
+    }
+
+    @Test
+    public void testResolveAllCrossed() throws Exception {
+        Artifact first = new Artifact("repository-connector-test", "first", "1.0.0");
+        Artifact second = new Artifact("repository-connector-test", "second", "1.0.0");
+
+        List<List<String>> led = Collections.synchronizedList(new ArrayList<>());
+        CyclicBarrier joined = new CyclicBarrier(2);
+
+        Aether aether = createAether((proxy, method, args) -> {
+            @SuppressWarnings("unchecked")
+            Collection<ArtifactRequest> requests = (Collection<ArtifactRequest>) args[1];
+
+            // neither leader completes before the other one joined its artifact
+            joined.await(10, TimeUnit.SECONDS);
+            led.add(requests.stream().map(request -> request.getArtifact().getArtifactId()).collect(Collectors.toList()));
+            return requests.stream().map(this::resolved).collect(Collectors.toList());
+        }, this::joinCrossed);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // each leads the artifact it asks for first and follows the other
+            Future<Map<Artifact, ResolutionResult>> firstLed = executor
+                    .submit(() -> aether.resolveAll(REMOTE, Arrays.asList(first, second)));
+            Future<Map<Artifact, ResolutionResult>> secondLed = executor
+                    .submit(() -> aether.resolveAll(REMOTE, Arrays.asList(second, first)));
+
+            for (Map<Artifact, ResolutionResult> resolved : Arrays.asList(firstLed.get(10, TimeUnit.SECONDS),
+                    secondLed.get(10, TimeUnit.SECONDS))) {
+                assertEquals(new File(folder.getRoot(), "first.jar"), resolved.get(first).getFile());
+                assertEquals(new File(folder.getRoot(), "second.jar"), resolved.get(second).getFile());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // every artifact resolved once, by its leader
+        assertEquals(2, led.size());
+        assertTrue(led.contains(Arrays.asList("first")));
+        assertTrue(led.contains(Arrays.asList("second")));
+
+        assertEquals(0, InFlightResolutions.size());
+    }
+
+    @Test
+    public void testResolveLeaderFailed() throws Exception {
+        RepositoryMetrics.clear();
+
+        Artifact artifact = new Artifact("repository-connector-test", "shared", "1.0.0");
+        AtomicInteger calls = new AtomicInteger();
+
+        Aether aether = createAether((proxy, method, args) -> {
+            ArtifactRequest request = (ArtifactRequest) args[1];
+
+            if (calls.incrementAndGet() > 1) {
+                return resolved(request);
+            }
+
+            // fails once the follower joined, ie with the credentials of its own folder
+            while (RepositoryMetrics.getCoalesced() == 0) {
+                Thread.sleep(10);
+            }
+
+            throw new ArtifactResolutionException(Collections.singletonList(
+                    new ArtifactResult(request).addException(new IllegalStateException("unauthorized"))));
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<File> leader = executor.submit(() -> aether.resolve(REMOTE, artifact));
+            while (InFlightResolutions.size() == 0) {
+                Thread.sleep(10);
+            }
+
+            Future<File> follower = executor.submit(() -> aether.resolve(REMOTE, artifact));
+
+            // resolved by the follower itself
+            assertEquals(new File(folder.getRoot(), "shared.jar"), follower.get(10, TimeUnit.SECONDS));
+
+            try {
+                leader.get(10, TimeUnit.SECONDS);
+                fail("resolved with failing credentials");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof AetherException);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    public void testSelectAll() throws Exception {
+        List<Version> versions = parse("1.0", "1.2-SNAPSHOT", "1.1", "1.10");
+
+        assertEquals(Arrays.asList("1.10", "1.2-SNAPSHOT", "1.1", "1.0"),
+                Aether.selectVersions(versions, false, VersionFilter.ALL, 0));
+        assertEquals(Arrays.asList("1.0", "1.1", "1.2-SNAPSHOT", "1.10"),
+                Aether.selectVersions(versions, true, VersionFilter.ALL, 0));
+    }
+
+    @Test
+    public void testSelectFiltered() throws Exception {
+        List<Version> versions = parse("1.0", "1.2-SNAPSHOT", "1.1");
+
+        assertEquals(Arrays.asList("1.1", "1.0"), Aether.selectVersions(versions, false, new VersionFilter(true, false), 0));
+        assertEquals(Arrays.asList("1.2-SNAPSHOT"), Aether.selectVersions(versions, false, new VersionFilter(false, true), 0));
+    }
+
+    @Test
+    public void testSelectLimitAboveSize() throws Exception {
+        List<Version> versions = parse("1.0", "1.1");
+
+        assertEquals(Arrays.asList("1.1", "1.0"), Aether.selectVersions(versions, false, VersionFilter.ALL, 5));
+    }
+
+    @Test
+    public void testSelectNewest() throws Exception {
+        List<Version> versions = parse("1.0", "2.0", "1.2-SNAPSHOT", "1.1", "1.10", "0.9");
+
+        assertEquals(Arrays.asList("2.0", "1.10", "1.2-SNAPSHOT"),
+                Aether.selectVersions(versions, false, VersionFilter.ALL, 3));
+
+        // filtering happens before the limit is applied
+        assertEquals(Arrays.asList("2.0", "1.10", "1.1"),
+                Aether.selectVersions(versions, false, new VersionFilter(true, false), 3));
+    }
+
+    @Test
+    public void testSelectOldest() throws Exception {
+        List<Version> versions = parse("1.0", "2.0", "1.1", "0.9");
+
+        assertEquals(Arrays.asList("0.9", "1.0"), Aether.selectVersions(versions, true, VersionFilter.ALL, 2));
+    }
+
+    @Test
+    public void testUnreachableVersions() throws Exception {
+        Aether aether = createAether((proxy, method, args) -> {
+            VersionRangeRequest request = (VersionRangeRequest) args[1];
+            return new VersionRangeResult(request).addException(new MetadataTransferException(null,
+                    request.getRepositories().get(0), new IOException("connection refused")));
+        });
+
+        // an empty list would replace the versions cached before the outage
+        try {
+            aether.resolveAvailableVersions(REMOTE, new Artifact("org.example", "unreachable", null), false,
+                    VersionFilter.ALL);
+            fail("resolved versions from an unreachable repository");
+        } catch (AetherException e) {
+            assertTrue(e.getMessage().contains("connection refused"));
+        }
+    }
+
+    private Aether createAether(InvocationHandler repositorySystem) {
+        return createBuilder(repositorySystem, UnaryOperator.identity()).build();
+    }
+
+    private Aether createAether(InvocationHandler repositorySystem,
+            UnaryOperator<LocalRepositoryManager> localRepositoryManager) {
+        return createBuilder(repositorySystem, localRepositoryManager).build();
+    }
+
+    private AetherBuilder createBuilder(InvocationHandler repositorySystem,
+            UnaryOperator<LocalRepositoryManager> localRepositoryManager) {
+        RepositorySystem shared = RepositorySystemProvider.get();
+
+        // the builder creates the session with the repository system it is given
+        InvocationHandler handler = (proxy, method, args) -> method.getName().equals("newLocalRepositoryManager")
+                ? localRepositoryManager.apply((LocalRepositoryManager) method.invoke(shared, args))
+                : repositorySystem.invoke(proxy, method, args);
+
+        return new AetherBuilder(folder.getRoot(), Collections.singletonList(new Repository(REMOTE, "file:///remote/")))
+                .setRepositorySystem((RepositorySystem) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] { RepositorySystem.class }, handler));
+    }
+
+    /**
+     * Holds back every resolution before it joins its second artifact until another one got there as well, so each of
+     * them leads its first artifact.
+     */
+    private LocalRepositoryManager joinCrossed(LocalRepositoryManager manager) {
+        CyclicBarrier barrier = new CyclicBarrier(2);
+        ThreadLocal<AtomicInteger> joined = ThreadLocal.withInitial(AtomicInteger::new);
+
+        return (LocalRepositoryManager) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] { LocalRepositoryManager.class }, (proxy, method, args) -> {
+                    // looked up for the in flight key of every artifact
+                    if (method.getName().equals("getRepository") && joined.get().incrementAndGet() == 2) {
+                        barrier.await(10, TimeUnit.SECONDS);
+                    }
+
+                    return method.invoke(manager, args);
+                });
+    }
+
+    private ArtifactResult resolved(ArtifactRequest request) {
+        File file = new File(folder.getRoot(), request.getArtifact().getArtifactId() + ".jar");
+        return new ArtifactResult(request).setArtifact(request.getArtifact().setFile(file));
+    }
+
+    private Artifact createDeployable(String classifier) {
+        Artifact artifact = new Artifact("repository-connector-test", "deployed", "1.0.0");
+        artifact.setClassifier(classifier);
+        artifact.setTargetFileName(new File(folder.getRoot(), "deployed.jar").getAbsolutePath());
+        artifact.setPomFile(new File(folder.getRoot(), "deployed.pom").getAbsolutePath());
+
+        return artifact;
+    }
+
+    private RemoteRepository createRepository(String id) {
+        return new RemoteRepository.Builder(id, "default", "https://" + id + ".example.org/").build();
+    }
+
+    private VersionRangeResult createResult(VersionRangeRequest request, RemoteRepository repository, String... versions)
+        throws InvalidVersionSpecificationException {
+
+        VersionRangeResult result = new VersionRangeResult(request);
+        for (Version version : parse(versions)) {
+            result.addVersion(version);
+            result.setRepository(version, repository);
+        }
+
+        return result;
+    }
+
+    private List<Version> parse(String... versions) throws InvalidVersionSpecificationException {
+        List<Version> parsed = new ArrayList<>();
+        for (String version : versions) {
+            parsed.add(scheme.parseVersion(version));
+        }
+
+        return parsed;
+    }
+}
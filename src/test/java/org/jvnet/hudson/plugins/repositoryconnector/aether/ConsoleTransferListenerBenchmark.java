@@ -0,0 +1,118 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.io.File;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reports progress from concurrent threads while many transfers are in flight, the way the http connector calls the
+ * listener when downloading in parallel.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ConsoleTransferListenerBenchmark {
+
+    private static final long CONTENT_LENGTH = 10 * 1024 * 1024;
+
+    /**
+     * Milliseconds between progress lines, <code>0</code> prints every event.
+     */
+    @Param({ "0", "1000" })
+    public long interval;
+
+    @Param({ "1", "16", "64" })
+    public int transfers;
+
+    private ConsoleTransferListener listener;
+
+    private TransferResource[] resources;
+
+    private RepositorySystemSession session;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // the console of a build, everything printed is thrown away
+        listener = new ConsoleTransferListener(new PrintStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+            }
+        }), interval, System::nanoTime);
+
+        session = new DefaultRepositorySystemSession();
+        resources = new TransferResource[transfers];
+
+        for (int i = 0; i < transfers; i++) {
+            resources[i] = new TransferResource("benchmark", "https://repository.example.com/maven2/",
+                    "group/artifact/1.0." + i + "/artifact-1.0." + i + ".jar", new File("artifact-1.0." + i + ".jar"), null);
+            resources[i].setContentLength(CONTENT_LENGTH);
+
+            listener.transferProgressed(createEvent(resources[i], 0));
+        }
+    }
+
+    @Benchmark
+    public void transferProgressed(Transfer transfer) throws Exception {
+        listener.transferProgressed(createEvent(resources[transfer.index], transfer.next()));
+    }
+
+    private TransferEvent createEvent(TransferResource resource, long transferred) {
+        return new TransferEvent.Builder(session, resource)
+                .setType(TransferEvent.EventType.PROGRESSED)
+                .setTransferredBytes(transferred)
+                .build();
+    }
+
+    /**
+     * The transfer a thread reports progress for, threads share transfers when there are fewer transfers than threads.
+     */
+    @State(Scope.Thread)
+    public static class Transfer {
+
+        private static final AtomicInteger THREADS = new AtomicInteger();
+
+        private static final int CHUNK_SIZE = 8 * 1024;
+
+        int index;
+
+        private long transferred;
+
+        @Setup(Level.Trial)
+        public void setup(ConsoleTransferListenerBenchmark benchmark) {
+            index = THREADS.getAndIncrement() % benchmark.transfers;
+        }
+
+        long next() {
+            transferred = (transferred + CHUNK_SIZE) % CONTENT_LENGTH;
+            return transferred;
+        }
+    }
+}
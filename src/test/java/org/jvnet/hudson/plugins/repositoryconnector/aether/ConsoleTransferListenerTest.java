@@ -0,0 +1,118 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.PrintStream;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConsoleTransferListenerTest {
+
+    private AtomicLong clock;
+
+    private ByteArrayOutputStream console;
+
+    private DefaultRepositorySystemSession session;
+
+    @Before
+    public void before() {
+        clock = new AtomicLong();
+        console = new ByteArrayOutputStream();
+        session = new DefaultRepositorySystemSession();
+    }
+
+    @Test
+    public void testCombined() throws Exception {
+        ConsoleTransferListener listener = createListener(1000);
+
+        TransferResource first = createResource("first", 2048);
+        TransferResource second = createResource("second", 4096);
+
+        listener.transferProgressed(createEvent(first, 1024));
+        listener.transferProgressed(createEvent(second, 1024));
+
+        clock.set(TimeUnit.SECONDS.toNanos(1));
+        listener.transferProgressed(createEvent(second, 2048));
+
+        // a single line for all transfers, the rate of everything transferred since the previous line
+        assertEquals(Arrays.asList("1 transfer: 1/2 KB", "2 transfers: 3/6 KB at 2.0 KB/sec"), getLines());
+    }
+
+    @Test
+    public void testThrottled() throws Exception {
+        ConsoleTransferListener listener = createListener(1000);
+        TransferResource resource = createResource("throttled", 1024 * 1024);
+
+        // every 10 milliseconds for a second
+        for (int i = 1; i <= 101; i++) {
+            listener.transferProgressed(createEvent(resource, i * 1024));
+            clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+
+        // printed right away, then once the interval passed
+        assertEquals(Arrays.asList("1 transfer: 1/1024 KB", "1 transfer: 101/1024 KB at 100.0 KB/sec"), getLines());
+    }
+
+    @Test
+    public void testUnknownLength() throws Exception {
+        ConsoleTransferListener listener = createListener(1000);
+
+        TransferResource unknown = createResource("unknown", -1);
+
+        listener.transferProgressed(createEvent(createResource("known", 2048), 1024));
+        listener.transferProgressed(createEvent(unknown, 1024));
+
+        clock.set(TimeUnit.SECONDS.toNanos(1));
+        listener.transferProgressed(createEvent(unknown, 2048));
+
+        assertEquals(Arrays.asList("1 transfer: 1/2 KB", "2 transfers: 3 KB at 2.0 KB/sec"), getLines());
+    }
+
+    @Test
+    public void testUnthrottled() throws Exception {
+        ConsoleTransferListener listener = createListener(0);
+        TransferResource resource = createResource("unthrottled", 4096);
+
+        for (int i = 1; i <= 3; i++) {
+            listener.transferProgressed(createEvent(resource, i * 1024));
+        }
+
+        assertEquals(3, getLines().size());
+    }
+
+    private TransferEvent createEvent(TransferResource resource, long transferred) {
+        return new TransferEvent.Builder(session, resource)
+                .setType(TransferEvent.EventType.PROGRESSED)
+                .setTransferredBytes(transferred)
+                .setDataBuffer(ByteBuffer.allocate(1024))
+                .build();
+    }
+
+    private ConsoleTransferListener createListener(long interval) throws UnsupportedEncodingException {
+        return new ConsoleTransferListener(new PrintStream(console, true, "UTF-8"), interval, clock::get);
+    }
+
+    private TransferResource createResource(String artifactId, long contentLength) {
+        TransferResource resource = new TransferResource("remote", "file:///remote/",
+                artifactId + "/1.0.0/" + artifactId + "-1.0.0.jar", new File(artifactId + "-1.0.0.jar"), null);
+
+        return resource.setContentLength(contentLength);
+    }
+
+    private List<String> getLines() throws UnsupportedEncodingException {
+        // progress lines overwrite each other
+        return Arrays.asList(console.toString("UTF-8").trim().split("\\s*\r"));
+    }
+}
@@ -0,0 +1,89 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The flight recorder api is used reflectively, same as by the plugin, so this still builds for java 8.
+ */
+public class FlightRecorderEventsTest {
+
+    private static final String RESOLVE_EVENT = FlightRecorderEvents.class.getPackage().getName() + ".RepositoryResolve";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testNotRecording() {
+        FlightRecorderEvents.Event event = FlightRecorderEvents.RESOLVE.begin();
+
+        assertFalse(event.isRecording());
+
+        // nothing to do
+        event.commit("repository-connector-test:recorded:jar:1.0.0", "remote", 1024L, false);
+    }
+
+    @Test
+    public void testRecording() throws Exception {
+        assumeTrue(FlightRecorderEvents.isAvailable());
+
+        Class<?> recordingClass = Class.forName("jdk.jfr.Recording");
+        Object recording = recordingClass.getConstructor().newInstance();
+
+        try {
+            recordingClass.getMethod("enable", String.class).invoke(recording, RESOLVE_EVENT);
+            recordingClass.getMethod("start").invoke(recording);
+
+            FlightRecorderEvents.Event event = FlightRecorderEvents.RESOLVE.begin();
+            assertTrue(event.isRecording());
+
+            event.commit("repository-connector-test:recorded:jar:1.0.0", "remote", 1024L, false);
+
+            Path dump = folder.newFile("recording.jfr").toPath();
+            recordingClass.getMethod("stop").invoke(recording);
+            recordingClass.getMethod("dump", Path.class).invoke(recording, dump);
+
+            List<Object> recorded = readEvents(dump, RESOLVE_EVENT);
+
+            assertEquals(1, recorded.size());
+            assertEquals("repository-connector-test:recorded:jar:1.0.0", getValue(recorded.get(0), "artifact"));
+            assertEquals("remote", getValue(recorded.get(0), "repositoryId"));
+            assertEquals(1024L, getValue(recorded.get(0), "bytes"));
+        } finally {
+            recordingClass.getMethod("close").invoke(recording);
+        }
+    }
+
+    private static Object getValue(Object recorded, String field) throws ReflectiveOperationException {
+        return recorded.getClass().getMethod("getValue", String.class).invoke(recorded, field);
+    }
+
+    private static List<Object> readEvents(Path dump, String name) throws ReflectiveOperationException {
+        List<?> events = (List<?>) Class.forName("jdk.jfr.consumer.RecordingFile")
+                .getMethod("readAllEvents", Path.class)
+                .invoke(null, dump);
+
+        return events.stream()
+                .filter(event -> name.equals(getEventName(event)))
+                .collect(Collectors.toList());
+    }
+
+    private static String getEventName(Object event) {
+        try {
+            Object type = event.getClass().getMethod("getEventType").invoke(event);
+            return (String) type.getClass().getMethod("getName").invoke(type);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
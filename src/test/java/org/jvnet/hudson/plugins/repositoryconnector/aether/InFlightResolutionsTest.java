@@ -0,0 +1,108 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.resolution.ArtifactRequest;
+import org.eclipse.aether.resolution.ArtifactResult;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class InFlightResolutionsTest {
+
+    private static final String KEY = "repository-connector-test:shared:jar:1.0.0@remote=file:///remote/@/local";
+
+    private ExecutorService executor;
+
+    private ArtifactRequest request;
+
+    @Before
+    public void before() {
+        RepositoryMetrics.clear();
+
+        executor = Executors.newSingleThreadExecutor();
+        request = new ArtifactRequest(new DefaultArtifact("repository-connector-test:shared:1.0.0"), null, null);
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testCompleted() {
+        InFlightResolutions.Flight leader = InFlightResolutions.join(KEY);
+        leader.complete(new ArtifactResult(request));
+
+        assertEquals(0, InFlightResolutions.size());
+
+        // a new resolution once the previous one completed
+        InFlightResolutions.Flight next = InFlightResolutions.join(KEY);
+        assertTrue(next.isLeader());
+
+        next.complete(new ArtifactResult(request));
+        assertEquals(0, RepositoryMetrics.getCoalesced());
+    }
+
+    @Test
+    public void testFailed() {
+        InFlightResolutions.Flight leader = InFlightResolutions.join(KEY);
+        InFlightResolutions.Flight follower = InFlightResolutions.join(KEY);
+
+        leader.fail(new IllegalStateException("failed"));
+
+        // resolved by the follower itself
+        assertNull(follower.await(request));
+        assertEquals(0, InFlightResolutions.size());
+    }
+
+    @Test
+    public void testNotResolved() {
+        InFlightResolutions.Flight leader = InFlightResolutions.join(KEY);
+        InFlightResolutions.Flight follower = InFlightResolutions.join(KEY);
+
+        // ie unauthorized with the credentials of the leader
+        leader.complete(new ArtifactResult(request).addException(new IllegalStateException("unauthorized")));
+
+        assertNull(follower.await(request));
+        assertEquals(0, InFlightResolutions.size());
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        InFlightResolutions.Flight leader = InFlightResolutions.join(KEY);
+        assertTrue(leader.isLeader());
+
+        Future<ArtifactResult> followed = executor.submit(() -> {
+            InFlightResolutions.Flight follower = InFlightResolutions.join(KEY);
+            assertFalse(follower.isLeader());
+
+            return follower.await(request);
+        });
+
+        // the follower joined
+        while (RepositoryMetrics.getCoalesced() == 0) {
+            Thread.sleep(10);
+        }
+
+        assertFalse(followed.isDone());
+
+        ArtifactResult result = new ArtifactResult(request)
+                .setArtifact(request.getArtifact().setFile(new File("shared.jar")));
+        leader.complete(result);
+
+        assertSame(result, followed.get(10, TimeUnit.SECONDS));
+        assertEquals(1, RepositoryMetrics.getCoalesced());
+    }
+}
@@ -0,0 +1,176 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.SyncContext;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.metadata.DefaultMetadata;
+import org.eclipse.aether.metadata.Metadata;
+import org.eclipse.aether.repository.LocalRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KeyedSyncContextFactoryTest {
+
+    private static final Artifact ARTIFACT = new DefaultArtifact("repository-connector-test:locked:1.0.0");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private ExecutorService executor;
+
+    private KeyedSyncContextFactory factory;
+
+    private File local;
+
+    private DefaultRepositorySystemSession session;
+
+    @Before
+    public void before() throws Exception {
+        executor = Executors.newSingleThreadExecutor();
+        factory = new KeyedSyncContextFactory();
+
+        local = folder.newFolder("local");
+
+        session = MavenRepositorySystemUtils.newSession();
+        session.setLocalRepositoryManager(
+                RepositorySystemProvider.get().newLocalRepositoryManager(session, new LocalRepository(local)));
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testDifferentArtifacts() throws Exception {
+        List<Artifact> others = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            others.add(new DefaultArtifact("repository-connector-test:unrelated-" + i + ":1.0.0"));
+        }
+
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(others, null);
+
+            // not blocked by any of the artifacts held by this thread
+            Future<?> acquired = executor.submit(() -> acquire(ARTIFACT));
+            acquired.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testDifferentVersions() throws Exception {
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(Collections.singletonList(ARTIFACT), null);
+
+            Future<?> acquired = executor.submit(() -> acquire(ARTIFACT.setVersion("2.0.0")));
+            acquired.get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void testLockFile() {
+        File lockFile = new File(local, LocalRepositoryLocks.LOCK_DIRECTORY + "/"
+                + LocalRepositoryLocks.getLockFileName("artifact:repository-connector-test:locked:1.0.0"));
+
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(Collections.singletonList(ARTIFACT), null);
+            assertTrue(lockFile.isFile());
+        }
+
+        // nobody waits for it anymore
+        assertFalse(lockFile.exists());
+    }
+
+    @Test
+    public void testLockFileNames() {
+        // would share a file if the characters a file name can not hold were replaced
+        assertNotEquals(LocalRepositoryLocks.getLockFileName("artifact:g:a_b:1.0.0"),
+                LocalRepositoryLocks.getLockFileName("artifact:g_a:b:1.0.0"));
+    }
+
+    @Test
+    public void testReentrant() {
+        Metadata metadata = new DefaultMetadata(ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), "maven-metadata.xml",
+                Metadata.Nature.RELEASE);
+
+        try (SyncContext outer = factory.newInstance(session, false)) {
+            outer.acquire(Collections.singletonList(ARTIFACT), null);
+
+            try (SyncContext inner = factory.newInstance(session, true)) {
+                inner.acquire(Collections.singletonList(ARTIFACT), Collections.singletonList(metadata));
+            }
+        }
+
+        // released entirely, nothing left behind
+        assertEquals(0, LocalRepositoryLocks.size());
+        acquire(ARTIFACT);
+    }
+
+    @Test
+    public void testSameArtifact() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> acquired;
+
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(Collections.singletonList(ARTIFACT), null);
+
+            acquired = executor.submit(() -> {
+                started.countDown();
+                acquire(ARTIFACT);
+            });
+
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(200);
+
+            assertFalse(acquired.isDone());
+        }
+
+        acquired.get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void testTryLockVersion() throws Exception {
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(Collections.singletonList(ARTIFACT), null);
+
+            Future<LocalRepositoryLocks.Held> held = executor.submit(() -> LocalRepositoryLocks.tryLockVersion(
+                    local.toPath(), ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getVersion()));
+            assertNull(held.get(10, TimeUnit.SECONDS));
+        }
+
+        try (LocalRepositoryLocks.Held held = LocalRepositoryLocks.tryLockVersion(local.toPath(),
+                ARTIFACT.getGroupId(), ARTIFACT.getArtifactId(), ARTIFACT.getVersion())) {
+            assertNotNull(held);
+        }
+
+        assertEquals(0, LocalRepositoryLocks.size());
+    }
+
+    private void acquire(Artifact artifact) {
+        try (SyncContext context = factory.newInstance(session, false)) {
+            context.acquire(Collections.singletonList(artifact), null);
+        }
+    }
+}
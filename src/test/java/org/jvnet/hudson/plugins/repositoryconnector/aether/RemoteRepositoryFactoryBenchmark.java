@@ -0,0 +1,58 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Creates the remote repositories every <code>Aether</code> instance resolves from.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RemoteRepositoryFactoryBenchmark {
+
+    @Param({ "1", "10" })
+    public int repositories;
+
+    private RemoteRepositoryFactory factory;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        List<Repository> configured = IntStream.range(0, repositories)
+                .mapToObj(i -> new Repository("repository-" + i, "https://repository-" + i + ".example.com/maven2/"))
+                .collect(Collectors.toList());
+
+        factory = new RemoteRepositoryFactory(configured, null, repository -> null);
+    }
+
+    @Benchmark
+    public List<RemoteRepository> getResolutionRepositories() throws AetherException {
+        return factory.getResolutionRepositories(null);
+    }
+
+    @Benchmark
+    public List<RemoteRepository> getResolutionRepositoriesUncached() throws AetherException {
+        RemoteRepositoryCache.clear();
+        return factory.getResolutionRepositories(null);
+    }
+}
@@ -2,7 +2,9 @@ package org.jvnet.hudson.plugins.repositoryconnector.aether;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.Mockito.mock;
 
@@ -12,6 +14,7 @@ import java.util.List;
 import org.eclipse.aether.repository.Authentication;
 import org.eclipse.aether.repository.ProxySelector;
 import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.jvnet.hudson.plugins.repositoryconnector.Repository;
@@ -30,12 +33,49 @@ public class RemoteRepositoryFactoryTest {
 
     private List<Repository> repositories;
 
+    @After
+    public void after() {
+        RemoteRepositoryCache.clear();
+    }
+
     @Before
     public void before() {
         repositories = new ArrayList<>();
         factory = new RemoteRepositoryFactory(repositories, mockProxySelector, repository -> mockCredentials);
     }
 
+    @Test
+    public void testCachedRepository() throws Exception {
+        Repository repository = createDefaultRepository("id");
+        RemoteRepository remote = factory.getResolutionRepositories(repository.getId()).get(0);
+
+        assertSame(remote, factory.getResolutionRepositories(repository.getId()).get(0));
+        assertSame(remote, new RemoteRepositoryFactory(repositories, mockProxySelector, r -> mockCredentials)
+                .getResolutionRepositories(null).get(0));
+
+        // different credentials, different repository
+        mockCredentials();
+        RemoteRepository authenticated = factory.getResolutionRepositories(repository.getId()).get(0);
+
+        assertNotSame(remote, authenticated);
+        assertSame(mockCredentials, authenticated.getAuthentication());
+    }
+
+    @Test
+    public void testClearCache() throws Exception {
+        Repository repository = createDefaultRepository("id");
+        RemoteRepository remote = factory.getResolutionRepositories(repository.getId()).get(0);
+
+        RemoteRepositoryCache.clear();
+        assertNotSame(remote, factory.getResolutionRepositories(repository.getId()).get(0));
+    }
+
+    @Test(expected = AetherException.class)
+    public void testGetDeploymentRepositoryUnknown() throws Exception {
+        createDefaultRepository("id");
+        factory.getDeloymentRepository("unknown", false);
+    }
+
     @Test
     public void testGetReleaseRepository() throws Exception {
         Repository repository = createDefaultRepository("id");
@@ -66,6 +106,18 @@ public class RemoteRepositoryFactoryTest {
         verifyDefaultRepository(repository, repositories.get(0));
     }
 
+    @Test
+    public void testGetResolutionRepositoryById() throws Exception {
+        createDefaultRepository("first");
+        Repository repository = createDefaultRepository("second");
+
+        List<RemoteRepository> repositories = factory.getResolutionRepositories("second");
+        assertEquals(1, repositories.size());
+
+        verifyDefaultRepository(repository, repositories.get(0));
+        assertTrue(factory.getResolutionRepositories("unknown").isEmpty());
+    }
+
     @Test
     public void testGetSnapshotRepository() throws Exception {
         Repository repository = createDefaultRepository("id");
@@ -0,0 +1,290 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RepositoryEvent;
+import org.eclipse.aether.RepositoryEvent.EventType;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics.OperationMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.RepositoryMetrics.TransferMetrics;
+import org.jvnet.hudson.plugins.repositoryconnector.util.PomGenerator;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
+
+import hudson.model.Run;
+
+public class RepositoryMetricsTest {
+
+    private static final String ARTIFACT_ID = "measured";
+
+    private static final String GROUP_ID = "repository-connector-test";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File jar;
+
+    private final List<RepositoryMetrics.Listener> listeners = new ArrayList<>();
+
+    private File local;
+
+    private File remote;
+
+    @Before
+    public void before() throws IOException {
+        RepositoryMetrics.clear();
+
+        local = folder.newFolder("local");
+        remote = folder.newFolder("remote");
+
+        File directory = new File(remote, GROUP_ID + "/" + ARTIFACT_ID + "/1.0.0");
+        assertTrue(directory.mkdirs());
+
+        jar = new File(directory, ARTIFACT_ID + "-1.0.0.jar");
+        Files.write(jar.toPath(), new byte[4096]);
+
+        String metadata = "<metadata><groupId>" + GROUP_ID + "</groupId><artifactId>" + ARTIFACT_ID + "</artifactId>"
+                + "<versioning><release>1.0.0</release><versions><version>1.0.0</version></versions></versioning>"
+                + "</metadata>";
+        Files.write(new File(directory.getParentFile(), "maven-metadata.xml").toPath(),
+                metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @After
+    public void after() {
+        listeners.forEach(RepositoryMetrics::removeListener);
+    }
+
+    @Test
+    public void testCacheHitRatio() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+
+        createAether().resolve(null, artifact);
+        createAether().resolve(null, artifact);
+
+        assertEquals(1, RepositoryMetrics.getCacheHits());
+        assertEquals(1, RepositoryMetrics.getCacheMisses());
+        assertEquals(0.5, RepositoryMetrics.getCacheHitRatio(), 0);
+    }
+
+    @Test
+    public void testCoalesced() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+        Artifact same = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+
+        Map<Artifact, ResolutionResult> resolved = createAether().resolveAll(null, Arrays.asList(artifact, same));
+
+        // the second waits for the first
+        assertEquals(1, RepositoryMetrics.getCoalesced());
+        assertEquals(1, getTransfers("remote").getCount());
+
+        assertEquals(resolved.get(artifact).getFile(), resolved.get(same).getFile());
+    }
+
+    @Test
+    public void testConcurrentDownloads() {
+        AtomicLong clock = new AtomicLong();
+        MetricsListener listener = new MetricsListener(clock::get);
+
+        // the same artifact downloaded by two threads sharing the session
+        RequestTrace first = new RequestTrace("first");
+        RequestTrace second = new RequestTrace("second");
+
+        listener.artifactDownloading(createDownloadEvent(EventType.ARTIFACT_DOWNLOADING, first));
+        clock.set(TimeUnit.MILLISECONDS.toNanos(100));
+        listener.artifactDownloading(createDownloadEvent(EventType.ARTIFACT_DOWNLOADING, second));
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(200));
+        listener.artifactDownloaded(createDownloadEvent(EventType.ARTIFACT_DOWNLOADED, second));
+        clock.set(TimeUnit.MILLISECONDS.toNanos(400));
+        listener.artifactDownloaded(createDownloadEvent(EventType.ARTIFACT_DOWNLOADED, first));
+
+        OperationMetrics metrics = getOperation("remote", RepositoryMetrics.RESOLVE);
+
+        assertEquals(2, metrics.getCount());
+        assertEquals(400, metrics.getMaxTime());
+        assertEquals(250, metrics.getMeanTime());
+    }
+
+    @Test
+    public void testDeployed() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, "deployed", "1.0.0");
+        artifact.setTargetFileName(jar.getAbsolutePath());
+        artifact.setPomFile(PomGenerator.generate(artifact).getAbsolutePath());
+
+        assertTrue(createAether().deployAll("remote", Collections.singletonList(artifact)).isEmpty());
+
+        // the jar and the pom
+        assertEquals(2, getOperation("remote", RepositoryMetrics.DEPLOY).getCount());
+        assertTrue(getTransfers("remote").getBytesOut() > jar.length());
+        assertEquals(0, RepositoryMetrics.getInFlight());
+    }
+
+    @Test
+    public void testListener() {
+        List<String> completed = new ArrayList<>();
+
+        addListener(new RepositoryMetrics.Listener() {
+            @Override
+            public void operationCompleted(String repositoryId, String operation, long nanos, boolean failed) {
+                completed.add(repositoryId + " " + operation);
+            }
+
+            @Override
+            public void transferCompleted(String repositoryId, long bytes, boolean upload, boolean failed) {
+                throw new IllegalStateException("ignored");
+            }
+        });
+
+        RepositoryMetrics.operationCompleted("remote", RepositoryMetrics.RESOLVE, 1, false);
+
+        RepositoryMetrics.transferStarted();
+        RepositoryMetrics.transferCompleted("remote", 10, false, false);
+
+        assertEquals(Collections.singletonList("remote resolve"), completed);
+        assertEquals(10, getTransfers("remote").getBytesIn());
+    }
+
+    @Test
+    public void testNotFound() throws Exception {
+        try {
+            createAether().resolve(null, new Artifact(GROUP_ID, "missing", "1.0.0"));
+        } catch (AetherException e) {
+            // expected
+        }
+
+        // missing from the repository, nothing went wrong with it
+        assertEquals(1, getOperation("remote", RepositoryMetrics.RESOLVE).getCount());
+        assertEquals(0, getOperation("remote", RepositoryMetrics.RESOLVE).getErrors());
+    }
+
+    @Test
+    public void testPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            RepositoryMetrics.operationCompleted("remote", RepositoryMetrics.RESOLVE, TimeUnit.MILLISECONDS.toNanos(i),
+                    i == 100);
+        }
+
+        OperationMetrics metrics = getOperation("remote", RepositoryMetrics.RESOLVE);
+
+        assertEquals(100, metrics.getCount());
+        assertEquals(1, metrics.getErrors());
+        assertEquals(100, metrics.getMaxTime());
+        assertEquals(50, metrics.getMeanTime());
+
+        // approximated by the bucket bounds
+        assertEquals(50, metrics.getP50());
+        assertEquals(100, metrics.getP90());
+        assertEquals(100, metrics.getP99());
+
+        assertArrayEquals(new long[] { 10, 15, 25, 50, 0, 0, 0, 0, 0, 0, 0, 0, 0 }, metrics.getHistogram());
+    }
+
+    @Test
+    public void testResolved() throws Exception {
+        createAether().resolve(null, new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0"));
+
+        assertEquals(1, getOperation("remote", RepositoryMetrics.RESOLVE).getCount());
+        assertEquals(0, RepositoryMetrics.getErrors());
+
+        assertEquals(1, getTransfers("remote").getCount());
+        assertEquals(jar.length(), getTransfers("remote").getBytesIn());
+    }
+
+    @Test
+    public void testTransferFailed() {
+        MetricsListener listener = new MetricsListener(() -> 0);
+        TransferResource resource = new TransferResource("remote", "file:///remote/", "measured-1.0.0.jar", null, null);
+
+        TransferEvent event = new TransferEvent.Builder(new DefaultRepositorySystemSession(), resource)
+                .setRequestType(TransferEvent.RequestType.GET)
+                .build();
+
+        listener.transferInitiated(event);
+        assertEquals(1, RepositoryMetrics.getInFlight());
+
+        listener.transferFailed(event);
+
+        assertEquals(0, RepositoryMetrics.getInFlight());
+        assertEquals(1, getTransfers("remote").getFailures());
+        assertEquals(1, RepositoryMetrics.getErrors());
+    }
+
+    @Test
+    public void testVersionRange() throws Exception {
+        createAether().resolveAvailableVersions(null, new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0"), false,
+                VersionFilter.ALL);
+
+        assertEquals(1, getOperation("remote", RepositoryMetrics.VERSION_RANGE).getCount());
+        assertEquals(1, getTransfers("remote").getCount());
+    }
+
+    private void addListener(RepositoryMetrics.Listener listener) {
+        listeners.add(listener);
+        RepositoryMetrics.addListener(listener);
+    }
+
+    private Aether createAether() {
+        // no checksums in the remote repository
+        RepositoryType policy = new RepositoryType(RepositoryPolicy.CHECKSUM_POLICY_IGNORE,
+                RepositoryPolicy.UPDATE_POLICY_ALWAYS, null, null);
+
+        Repository repository = new Repository("remote", remote.toURI().toString());
+        repository.setReleaseRepository(policy);
+        repository.setSnapshotRepository(policy);
+
+        return new AetherBuilderFactory(local.getAbsolutePath(), repository)
+                .createAetherBuilder((Run<?, ?>) null)
+                .build();
+    }
+
+    private RepositoryEvent createDownloadEvent(EventType type, RequestTrace trace) {
+        return new RepositoryEvent.Builder(new DefaultRepositorySystemSession(), type)
+                .setArtifact(new DefaultArtifact(GROUP_ID, ARTIFACT_ID, "jar", "1.0.0"))
+                .setRepository(new RemoteRepository.Builder("remote", "default", "file:///remote/").build())
+                .setTrace(trace)
+                .build();
+    }
+
+    private static OperationMetrics getOperation(String repositoryId, String operation) {
+        return RepositoryMetrics.getOperations().stream()
+                .filter(metrics -> metrics.getRepositoryId().equals(repositoryId))
+                .filter(metrics -> metrics.getOperation().equals(operation))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no " + operation + " of " + repositoryId));
+    }
+
+    private static TransferMetrics getTransfers(String repositoryId) {
+        return RepositoryMetrics.getTransfers().stream()
+                .filter(metrics -> metrics.getRepositoryId().equals(repositoryId))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("no transfers of " + repositoryId));
+    }
+}
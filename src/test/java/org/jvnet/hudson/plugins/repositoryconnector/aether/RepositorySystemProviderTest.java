@@ -0,0 +1,70 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.eclipse.aether.RepositorySystem;
+import org.junit.After;
+import org.junit.Test;
+
+public class RepositorySystemProviderTest {
+
+    @After
+    public void after() {
+        RepositorySystemProvider.shutdown();
+    }
+
+    @Test
+    public void testSharedInstance() {
+        RepositorySystem system = RepositorySystemProvider.get();
+
+        assertNotNull(system);
+        assertSame(system, RepositorySystemProvider.get());
+    }
+
+    @Test
+    public void testShutdown() {
+        RepositorySystem system = RepositorySystemProvider.get();
+        RepositorySystemProvider.shutdown();
+
+        assertNotSame(system, RepositorySystemProvider.get());
+    }
+
+    @Test
+    public void testShutdownExecutors() throws Exception {
+        Executor versionRange = RepositorySystemProvider.getVersionRangeExecutor();
+        ExecutorService executor = RepositorySystemProvider.createExecutor("test", 1);
+
+        CountDownLatch started = new CountDownLatch(1);
+        Future<?> running = executor.submit(() -> {
+            started.countDown();
+            Thread.sleep(Long.MAX_VALUE);
+            return null;
+        });
+
+        started.await();
+        RepositorySystemProvider.shutdown();
+
+        assertTrue(executor.isShutdown());
+        assertTrue(((ExecutorService) versionRange).isShutdown());
+
+        // running tasks are interrupted
+        try {
+            running.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof InterruptedException);
+        }
+
+        assertNotSame(versionRange, RepositorySystemProvider.getVersionRangeExecutor());
+    }
+}
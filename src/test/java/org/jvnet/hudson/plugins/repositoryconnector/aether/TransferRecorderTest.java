@@ -0,0 +1,194 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.RequestTrace;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.spi.connector.ArtifactDownload;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.plugins.repositoryconnector.util.PomGenerator;
+
+import hudson.model.Run;
+
+public class TransferRecorderTest {
+
+    private static final String ARTIFACT_ID = "recorded";
+
+    private static final String GROUP_ID = "repository-connector-test";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File jar;
+
+    private File local;
+
+    private File remote;
+
+    @Before
+    public void before() throws IOException {
+        local = folder.newFolder("local");
+        remote = folder.newFolder("remote");
+
+        File directory = new File(remote, GROUP_ID + "/" + ARTIFACT_ID + "/1.0.0");
+        assertTrue(directory.mkdirs());
+
+        jar = new File(directory, ARTIFACT_ID + "-1.0.0.jar");
+        Files.write(jar.toPath(), new byte[4096]);
+
+        String metadata = "<metadata><groupId>" + GROUP_ID + "</groupId><artifactId>" + ARTIFACT_ID + "</artifactId>"
+                + "<versioning><release>1.0.0</release><versions><version>1.0.0</version></versions></versioning>"
+                + "</metadata>";
+        Files.write(new File(directory.getParentFile(), "maven-metadata.xml").toPath(),
+                metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+        createAether().resolve(null, artifact);
+
+        Aether aether = createAether();
+        aether.resolve(null, artifact);
+
+        TransferTimings timings = aether.getTransferTimings(Collections.singletonList(artifact)).get(0);
+
+        assertTrue(timings.isCached());
+        assertEquals(0, timings.getBytes());
+    }
+
+    @Test
+    public void testChecksumTime() {
+        AtomicLong clock = new AtomicLong();
+        TransferRecorder recorder = new TransferRecorder(clock::get);
+
+        DefaultArtifact artifact = new DefaultArtifact(GROUP_ID, ARTIFACT_ID, "jar", "1.0.0");
+        RequestTrace trace = RequestTrace.newChild(null, new ArtifactDownload(artifact, null, null, null));
+        TransferResource resource = new TransferResource("remote", "file:///remote/", "recorded-1.0.0.jar", null, trace);
+
+        recorder.transferInitiated(createEvent(resource, 0));
+
+        clock.set(TimeUnit.MILLISECONDS.toNanos(5));
+        recorder.transferProgressed(createEvent(resource, 1024));
+
+        // everything was received, the rest of the time is spent on checksums
+        clock.set(TimeUnit.MILLISECONDS.toNanos(12));
+        recorder.transferSucceeded(createEvent(resource, 1024));
+
+        TransferTimings timings = recorder.getTimings("recorded", artifact);
+
+        assertEquals(7, timings.getChecksumTime());
+        assertEquals(1024, timings.getBytes());
+    }
+
+    @Test
+    public void testDeployed() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, "deployed", "1.0.0");
+        artifact.setTargetFileName(jar.getAbsolutePath());
+        artifact.setPomFile(PomGenerator.generate(artifact).getAbsolutePath());
+
+        Aether aether = createAether();
+        assertTrue(aether.deployAll("remote", Collections.singletonList(artifact)).isEmpty());
+
+        TransferTimings timings = aether.getTransferTimings(Collections.singletonList(artifact)).get(0);
+
+        assertEquals("remote", timings.getRepositoryId());
+        assertEquals(jar.length(), timings.getBytes());
+        assertFalse(timings.isCached());
+    }
+
+    @Test
+    public void testNotRecorded() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+
+        Aether aether = createAetherBuilder().build();
+        aether.resolve(null, artifact);
+
+        assertTrue(aether.getTransferTimings(Collections.singletonList(artifact)).isEmpty());
+    }
+
+    @Test
+    public void testNothingTransferred() {
+        TransferTimings timings = new TransferRecorder().getTimings("recorded",
+                new DefaultArtifact(GROUP_ID, ARTIFACT_ID, "jar", "1.0.0"));
+
+        assertNull(timings.getRepositoryId());
+        assertEquals(0, timings.getBytes());
+        assertFalse(timings.isCached());
+    }
+
+    @Test
+    public void testResolved() throws Exception {
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "1.0.0");
+
+        Aether aether = createAether();
+        aether.resolve(null, artifact);
+
+        List<TransferTimings> timings = aether.getTransferTimings(Collections.singletonList(artifact));
+
+        assertEquals(1, timings.size());
+        assertEquals(artifact.toString(), timings.get(0).getArtifact());
+        assertEquals("remote", timings.get(0).getRepositoryId());
+        assertEquals(jar.length(), timings.get(0).getBytes());
+        assertFalse(timings.get(0).isCached());
+    }
+
+    @Test
+    public void testResolvedVersion() throws Exception {
+        // recorded against the requested version, not the one it resolved to
+        Artifact artifact = new Artifact(GROUP_ID, ARTIFACT_ID, "RELEASE");
+
+        Aether aether = createAether();
+        aether.resolve(null, artifact);
+
+        TransferTimings timings = aether.getTransferTimings(Collections.singletonList(artifact)).get(0);
+
+        assertEquals("remote", timings.getRepositoryId());
+        assertEquals(jar.length(), timings.getBytes());
+    }
+
+    private Aether createAether() {
+        return createAetherBuilder().setTransferRecording(true).build();
+    }
+
+    private AetherBuilder createAetherBuilder() {
+        // no checksums in the remote repository
+        RepositoryType policy = new RepositoryType(RepositoryPolicy.CHECKSUM_POLICY_IGNORE,
+                RepositoryPolicy.UPDATE_POLICY_ALWAYS, null, null);
+
+        Repository repository = new Repository("remote", remote.toURI().toString());
+        repository.setReleaseRepository(policy);
+        repository.setSnapshotRepository(policy);
+
+        return new AetherBuilderFactory(local.getAbsolutePath(), repository)
+                .createAetherBuilder((Run<?, ?>) null);
+    }
+
+    private static TransferEvent createEvent(TransferResource resource, long transferred) {
+        return new TransferEvent.Builder(new DefaultRepositorySystemSession(), resource)
+                .setTransferredBytes(transferred)
+                .build();
+    }
+}
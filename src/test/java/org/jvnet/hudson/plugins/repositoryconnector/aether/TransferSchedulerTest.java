@@ -0,0 +1,200 @@
+package org.jvnet.hudson.plugins.repositoryconnector.aether;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TransferSchedulerTest {
+
+    private static final String CENTRAL = "central";
+
+    private static final String OTHER = "other";
+
+    private ExecutorService executor;
+
+    @Before
+    public void before() {
+        RepositoryMetrics.clear();
+        TransferScheduler.clear();
+
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void after() {
+        executor.shutdownNow();
+        TransferScheduler.clear();
+    }
+
+    @Test
+    public void testAdaptive() throws Exception {
+        TransferScheduler.configure(0, Collections.emptyMap(), Collections.singleton(CENTRAL));
+        assertEquals(Collections.singletonMap(CENTRAL, AdaptiveLimit.INITIAL), TransferScheduler.getAdaptiveLimits());
+
+        for (int i = 0; i < AdaptiveLimit.INITIAL; i++) {
+            TransferScheduler.acquire("holder", CENTRAL);
+        }
+
+        Future<Long> waiting = executor.submit(() -> TransferScheduler.acquire("waiting", CENTRAL));
+        awaitQueued(1);
+
+        // the failure lowers the limit, so the released slot is not handed on
+        TransferScheduler.release(CENTRAL, System.nanoTime(), -1, true);
+
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+        assertEquals(AdaptiveLimit.INITIAL - 1, TransferScheduler.getAdaptiveLimits().get(CENTRAL).intValue());
+
+        TransferScheduler.release(CENTRAL);
+        waiting.get(10, TimeUnit.SECONDS);
+
+        // kept when configured again
+        TransferScheduler.configure(0, Collections.emptyMap(), Collections.singleton(CENTRAL));
+        assertEquals(AdaptiveLimit.INITIAL - 1, TransferScheduler.getAdaptiveLimits().get(CENTRAL).intValue());
+
+        TransferScheduler.configure(0, Collections.emptyMap());
+        assertTrue(TransferScheduler.getAdaptiveLimits().isEmpty());
+    }
+
+    @Test
+    public void testFairness() throws Exception {
+        TransferScheduler.configure(1, Collections.emptyMap());
+        TransferScheduler.acquire("holder", CENTRAL);
+
+        List<String> granted = Collections.synchronizedList(new ArrayList<>());
+
+        // the first build queues several transfers before the second one queues its single transfer
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            futures.add(queue("busy", granted));
+        }
+        futures.add(queue("single", granted));
+
+        // the holder hands its slot on, every granted transfer does the same
+        TransferScheduler.release(CENTRAL);
+
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+
+        assertEquals(4, granted.size());
+        assertTrue(granted.indexOf("single") < 2);
+    }
+
+    @Test
+    public void testInterrupted() throws Exception {
+        TransferScheduler.configure(0, Collections.singletonMap(CENTRAL, 1));
+        TransferScheduler.acquire("holder", CENTRAL);
+
+        Future<?> waiting = executor.submit(() -> {
+            TransferScheduler.acquire("waiting", CENTRAL);
+            return null;
+        });
+
+        awaitQueued(1);
+        waiting.cancel(true);
+        awaitQueued(0);
+
+        assertEquals(1, TransferScheduler.getRunning());
+
+        TransferScheduler.release(CENTRAL);
+        assertEquals(0, TransferScheduler.getRunning());
+    }
+
+    @Test
+    public void testMaxTransfers() throws Exception {
+        TransferScheduler.configure(1, Collections.emptyMap());
+        TransferScheduler.acquire("holder", CENTRAL);
+
+        // any repository counts against the total
+        Future<Long> waiting = executor.submit(() -> TransferScheduler.acquire("waiting", OTHER));
+        awaitQueued(1);
+
+        TransferScheduler.release(CENTRAL);
+
+        assertTrue(waiting.get(10, TimeUnit.SECONDS) > 0);
+        assertEquals(1, TransferScheduler.getRunning());
+        assertEquals(1, RepositoryMetrics.getOperations().size());
+    }
+
+    @Test
+    public void testRepositoryLimit() throws Exception {
+        TransferScheduler.configure(0, Collections.singletonMap(CENTRAL, 1));
+
+        assertEquals(0, TransferScheduler.acquire("holder", CENTRAL));
+
+        // another repository is not limited
+        assertEquals(0, TransferScheduler.acquire("holder", OTHER));
+
+        Future<Long> waiting = executor.submit(() -> TransferScheduler.acquire("waiting", CENTRAL));
+        awaitQueued(1);
+
+        Thread.sleep(100);
+        assertFalse(waiting.isDone());
+
+        TransferScheduler.release(CENTRAL);
+
+        assertTrue(waiting.get(10, TimeUnit.SECONDS) > 0);
+        assertEquals(0, TransferScheduler.getQueued());
+        assertEquals(2, TransferScheduler.getRunning());
+    }
+
+    @Test
+    public void testRaisedLimit() throws Exception {
+        TransferScheduler.configure(0, Collections.singletonMap(CENTRAL, 1));
+        TransferScheduler.acquire("holder", CENTRAL);
+
+        Future<Long> waiting = executor.submit(() -> TransferScheduler.acquire("waiting", CENTRAL));
+        awaitQueued(1);
+
+        TransferScheduler.configure(0, Collections.singletonMap(CENTRAL, 2));
+
+        waiting.get(10, TimeUnit.SECONDS);
+        assertEquals(2, TransferScheduler.getRunning());
+    }
+
+    @Test
+    public void testUnlimited() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            assertEquals(0, TransferScheduler.acquire("holder", CENTRAL));
+        }
+
+        assertEquals(100, TransferScheduler.getRunning());
+        assertTrue(RepositoryMetrics.getOperations().isEmpty());
+    }
+
+    private void awaitQueued(int queued) throws InterruptedException {
+        while (TransferScheduler.getQueued() != queued) {
+            Thread.sleep(10);
+        }
+    }
+
+    private Future<?> queue(String owner, List<String> granted) throws InterruptedException {
+        int queued = TransferScheduler.getQueued();
+
+        Future<?> future = executor.submit(() -> {
+            TransferScheduler.acquire(owner, CENTRAL);
+            granted.add(owner);
+
+            TransferScheduler.release(CENTRAL);
+            return null;
+        });
+
+        // queued in order
+        awaitQueued(queued + 1);
+
+        return future;
+    }
+}
@@ -1,6 +1,7 @@
 package org.jvnet.hudson.plugins.repositoryconnector.casc;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
@@ -8,6 +9,8 @@ import java.util.Iterator;
 
 import org.jvnet.hudson.plugins.repositoryconnector.Repository;
 import org.jvnet.hudson.plugins.repositoryconnector.RepositoryConfiguration;
+import org.jvnet.hudson.plugins.repositoryconnector.util.MissingArtifactCache;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionListCache;
 import org.jvnet.hudson.test.RestartableJenkinsRule;
 
 import io.jenkins.plugins.casc.misc.RoundTripAbstractTest;
@@ -29,10 +32,50 @@ public class CasCBasicConfigurationIT extends RoundTripAbstractTest {
         return "casc-basic.yml";
     }
 
+    protected String getAgentCacheDirectoryValue() {
+        return null;
+    }
+
+    protected long getAgentCacheMaxSizeValue() {
+        return 0;
+    }
+
     protected String getLocalRepositoryValue() {
         return null;
     }
 
+    protected int getLocalRepositoryMaxAgeValue() {
+        return 0;
+    }
+
+    protected long getLocalRepositoryMaxSizeValue() {
+        return 0;
+    }
+
+    protected int getMaxConcurrentTransfersValue() {
+        return 0;
+    }
+
+    protected int getMissingArtifactCacheMaxEntriesValue() {
+        return MissingArtifactCache.DEFAULT_MAX_ENTRIES;
+    }
+
+    protected int getMissingArtifactCacheTtlValue() {
+        return MissingArtifactCache.DEFAULT_TTL;
+    }
+
+    protected boolean getParallelVersionResolutionValue() {
+        return false;
+    }
+
+    protected int getVersionCacheMaxEntriesValue() {
+        return VersionListCache.DEFAULT_MAX_ENTRIES;
+    }
+
+    protected int getVersionCacheTtlValue() {
+        return VersionListCache.DEFAULT_TTL;
+    }
+
     @Override
     protected String stringInLogExpected() {
         return "id=central";
@@ -41,6 +84,9 @@ public class CasCBasicConfigurationIT extends RoundTripAbstractTest {
     protected void validateRepositporyConfiguration(Repository repository) {
         assertTrue(repository.isEnableReleaseRepository());
         assertTrue(repository.isEnableSnapshotRepository());
+
+        assertFalse(repository.isAdaptiveConcurrency());
+        assertEquals(0, repository.getMaxConcurrentTransfers());
     }
 
     private Repository getRepositoryFromConfiguration() {
@@ -48,6 +94,16 @@ public class CasCBasicConfigurationIT extends RoundTripAbstractTest {
         
         assertNotNull(configuration);
         assertEquals(getLocalRepositoryValue(), configuration.getLocalRepository());
+        assertEquals(getAgentCacheDirectoryValue(), configuration.getAgentCacheDirectory());
+        assertEquals(getAgentCacheMaxSizeValue(), configuration.getAgentCacheMaxSize());
+        assertEquals(getLocalRepositoryMaxAgeValue(), configuration.getLocalRepositoryMaxAge());
+        assertEquals(getLocalRepositoryMaxSizeValue(), configuration.getLocalRepositoryMaxSize());
+        assertEquals(getMaxConcurrentTransfersValue(), configuration.getMaxConcurrentTransfers());
+        assertEquals(getMissingArtifactCacheMaxEntriesValue(), configuration.getMissingArtifactCacheMaxEntries());
+        assertEquals(getMissingArtifactCacheTtlValue(), configuration.getMissingArtifactCacheTtl());
+        assertEquals(getParallelVersionResolutionValue(), configuration.isParallelVersionResolution());
+        assertEquals(getVersionCacheMaxEntriesValue(), configuration.getVersionCacheMaxEntries());
+        assertEquals(getVersionCacheTtlValue(), configuration.getVersionCacheTtl());
         
         Iterator<Repository> iterator = configuration.getRepositories().iterator();
         assertTrue(iterator.hasNext());
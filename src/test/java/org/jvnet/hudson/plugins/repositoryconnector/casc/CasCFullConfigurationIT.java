@@ -2,6 +2,7 @@ package org.jvnet.hudson.plugins.repositoryconnector.casc;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.jvnet.hudson.plugins.repositoryconnector.Repository;
 import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
@@ -13,11 +14,61 @@ public class CasCFullConfigurationIT extends CasCBasicConfigurationIT {
         return "casc-full.yml";
     }
 
+    @Override
+    protected String getAgentCacheDirectoryValue() {
+        return "repository-cache";
+    }
+
+    @Override
+    protected long getAgentCacheMaxSizeValue() {
+        return 512;
+    }
+
     @Override
     protected String getLocalRepositoryValue() {
         return "/tmp";
     }
 
+    @Override
+    protected int getLocalRepositoryMaxAgeValue() {
+        return 30;
+    }
+
+    @Override
+    protected long getLocalRepositoryMaxSizeValue() {
+        return 10240;
+    }
+
+    @Override
+    protected int getMaxConcurrentTransfersValue() {
+        return 16;
+    }
+
+    @Override
+    protected int getMissingArtifactCacheMaxEntriesValue() {
+        return 2000;
+    }
+
+    @Override
+    protected int getMissingArtifactCacheTtlValue() {
+        return 120;
+    }
+
+    @Override
+    protected boolean getParallelVersionResolutionValue() {
+        return true;
+    }
+
+    @Override
+    protected int getVersionCacheMaxEntriesValue() {
+        return 250;
+    }
+
+    @Override
+    protected int getVersionCacheTtlValue() {
+        return 60;
+    }
+
     @Override
     protected String stringInLogExpected() {
         return "credentialsId=user-pass";
@@ -28,6 +79,9 @@ public class CasCFullConfigurationIT extends CasCBasicConfigurationIT {
         assertFalse(repository.isEnableReleaseRepository());
         assertFalse(repository.isEnableSnapshotRepository());
 
+        assertTrue(repository.isAdaptiveConcurrency());
+        assertEquals(4, repository.getMaxConcurrentTransfers());
+
         // even though they aren't in use, the values are still set
         RepositoryType releases = repository.getReleaseRepository();
 
@@ -0,0 +1,361 @@
+package org.jvnet.hudson.plugins.repositoryconnector.fixture;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-process stand-in for a remote maven repository, serving generated metadata, poms, jars and their checksums over
+ * http, so resolution and deployment can be exercised without connecting to a real repository.
+ * <p>
+ * Every response can be delayed, throttled to a bandwidth, or replaced by an error, to reproduce a slow or failing
+ * repository. Deployed files are kept in memory and served like the generated ones.
+ */
+public class FixtureRepository implements AutoCloseable {
+
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final AtomicLong bytesServed;
+
+    private final ExecutorService executor;
+
+    private final Map<String, byte[]> files;
+
+    private final AtomicLong requests;
+
+    private final ServerSocket server;
+
+    private int artifactSize;
+
+    private long bandwidth;
+
+    private double errorRate;
+
+    private int errorStatus;
+
+    private long latency;
+
+    public FixtureRepository() throws IOException {
+        this.files = new ConcurrentHashMap<>();
+        this.requests = new AtomicLong();
+        this.bytesServed = new AtomicLong();
+
+        this.artifactSize = 64 * 1024;
+        this.errorStatus = 500;
+
+        this.executor = Executors.newCachedThreadPool();
+        this.server = new ServerSocket(0, 128, InetAddress.getLoopbackAddress());
+
+        executor.execute(this::accept);
+    }
+
+    /**
+     * Generates the metadata, pom, jar and checksums for each version of the artifact.
+     */
+    public FixtureRepository addArtifact(String groupId, String artifactId, String... versions) {
+        String base = groupId.replace('.', '/') + "/" + artifactId + "/";
+
+        for (String version : versions) {
+            String prefix = base + version + "/" + artifactId + "-" + version;
+
+            addFile(prefix + ".pom", createPom(groupId, artifactId, version));
+            addFile(prefix + ".jar", createJar(artifactId + version));
+        }
+
+        addFile(base + "maven-metadata.xml", createMetadata(groupId, artifactId, versions));
+        return this;
+    }
+
+    @Override
+    public void close() throws IOException {
+        server.close();
+        executor.shutdownNow();
+    }
+
+    public long getBytesServed() {
+        return bytesServed.get();
+    }
+
+    public byte[] getFile(String path) {
+        return files.get(path);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public String getUrl() {
+        return "http://" + server.getInetAddress().getHostAddress() + ":" + server.getLocalPort() + "/";
+    }
+
+    /**
+     * Size in bytes of each generated jar, only applies to artifacts added afterwards.
+     */
+    public FixtureRepository setArtifactSize(int artifactSize) {
+        this.artifactSize = artifactSize;
+        return this;
+    }
+
+    /**
+     * Bytes per second each response is throttled to, <code>0</code> is unlimited.
+     */
+    public FixtureRepository setBandwidth(long bandwidth) {
+        this.bandwidth = bandwidth;
+        return this;
+    }
+
+    /**
+     * Share of requests, between <code>0</code> and <code>1</code>, answered with the error status instead.
+     */
+    public FixtureRepository setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    /**
+     * Status of injected errors, defaults to <code>500</code>. Note the http client retries a <code>503</code> after a
+     * delay.
+     */
+    public FixtureRepository setErrorStatus(int errorStatus) {
+        this.errorStatus = errorStatus;
+        return this;
+    }
+
+    /**
+     * Milliseconds each request is delayed before it is answered.
+     */
+    public FixtureRepository setLatency(long latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    private void addFile(String path, byte[] content) {
+        files.put(path, content);
+        files.put(path + ".sha1", checksum("SHA-1", content));
+        files.put(path + ".md5", checksum("MD5", content));
+    }
+
+    private byte[] createJar(String seed) {
+        // content does not matter, only the size does - seeded so checksums are stable between runs
+        byte[] content = new byte[artifactSize];
+        new Random(seed.hashCode()).nextBytes(content);
+
+        return content;
+    }
+
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                executor.execute(() -> handle(socket));
+            } catch (IOException | RejectedExecutionException e) {
+                // closed
+                return;
+            }
+        }
+    }
+
+    private void delay() throws InterruptedException {
+        if (latency > 0) {
+            TimeUnit.MILLISECONDS.sleep(latency);
+        }
+    }
+
+    private void handle(Socket socket) {
+        requests.incrementAndGet();
+
+        // one request per connection, keeps this simple enough to not need a real http server
+        try (Socket closing = socket) {
+            InputStream input = new BufferedInputStream(socket.getInputStream());
+            OutputStream output = socket.getOutputStream();
+
+            String[] request = readLine(input).split(" ");
+            Map<String, String> headers = readHeaders(input);
+
+            if ("100-continue".equalsIgnoreCase(headers.get("expect"))) {
+                output.write("HTTP/1.1 100 Continue\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                output.flush();
+            }
+
+            byte[] body = readBody(input, headers);
+
+            delay();
+
+            if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+                respond(output, errorStatus, null, false);
+                return;
+            }
+
+            String path = URI.create(request[1]).getPath().substring(1);
+
+            switch (request[0]) {
+                case "GET":
+                    respond(output, 200, files.get(path), true);
+                    break;
+                case "HEAD":
+                    respond(output, 200, files.get(path), false);
+                    break;
+                case "PUT":
+                    files.put(path, body);
+                    respond(output, 201, null, false);
+                    break;
+                default:
+                    respond(output, 405, null, false);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException | RuntimeException e) {
+            // the client went away or sent garbage, nothing to answer
+        }
+    }
+
+    private void respond(OutputStream output, int status, byte[] content, boolean withBody)
+        throws IOException, InterruptedException {
+
+        if (status == 200 && content == null) {
+            status = 404;
+        }
+
+        int length = content == null ? 0 : content.length;
+        String head = "HTTP/1.1 " + status + " Fixture\r\nContent-Length: " + length + "\r\nConnection: close\r\n\r\n";
+
+        output.write(head.getBytes(StandardCharsets.US_ASCII));
+
+        if (content != null && withBody) {
+            for (int offset = 0; offset < content.length; offset += CHUNK_SIZE) {
+                int chunk = Math.min(CHUNK_SIZE, content.length - offset);
+
+                output.write(content, offset, chunk);
+                bytesServed.addAndGet(chunk);
+
+                throttle(chunk);
+            }
+        }
+
+        output.flush();
+    }
+
+    private void throttle(int length) throws InterruptedException {
+        if (bandwidth > 0) {
+            TimeUnit.NANOSECONDS.sleep(TimeUnit.SECONDS.toNanos(length) / bandwidth);
+        }
+    }
+
+    private static byte[] checksum(String algorithm, byte[] content) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance(algorithm).digest(content)) {
+                hex.append(String.format("%02x", b));
+            }
+
+            return hex.toString().getBytes(StandardCharsets.US_ASCII);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] createMetadata(String groupId, String artifactId, String... versions) {
+        String latest = versions.length == 0 ? "" : versions[versions.length - 1];
+        String release = Arrays.stream(versions)
+                .filter(version -> !version.endsWith("-SNAPSHOT"))
+                .reduce((first, second) -> second)
+                .orElse("");
+
+        StringBuilder xml = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n")
+                .append("<metadata>\n")
+                .append("  <groupId>").append(groupId).append("</groupId>\n")
+                .append("  <artifactId>").append(artifactId).append("</artifactId>\n")
+                .append("  <versioning>\n")
+                .append("    <latest>").append(latest).append("</latest>\n")
+                .append("    <release>").append(release).append("</release>\n")
+                .append("    <versions>\n");
+
+        for (String version : versions) {
+            xml.append("      <version>").append(version).append("</version>\n");
+        }
+
+        xml.append("    </versions>\n")
+                .append("    <lastUpdated>20200101000000</lastUpdated>\n")
+                .append("  </versioning>\n")
+                .append("</metadata>\n");
+
+        return xml.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] createPom(String groupId, String artifactId, String version) {
+        String xml = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n"
+                + "  <modelVersion>4.0.0</modelVersion>\n"
+                + "  <groupId>" + groupId + "</groupId>\n"
+                + "  <artifactId>" + artifactId + "</artifactId>\n"
+                + "  <version>" + version + "</version>\n"
+                + "</project>\n";
+
+        return xml.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] readBody(InputStream input, Map<String, String> headers) throws IOException {
+        int length = Integer.parseInt(headers.getOrDefault("content-length", "0"));
+        byte[] body = new byte[length];
+
+        for (int offset = 0; offset < length;) {
+            int read = input.read(body, offset, length - offset);
+            if (read == -1) {
+                throw new EOFException("request body ended after " + offset + " of " + length + " bytes");
+            }
+
+            offset += read;
+        }
+
+        return body;
+    }
+
+    private static Map<String, String> readHeaders(InputStream input) throws IOException {
+        Map<String, String> headers = new HashMap<>();
+
+        for (String line = readLine(input); !line.isEmpty(); line = readLine(input)) {
+            int separator = line.indexOf(':');
+            headers.put(line.substring(0, separator).trim().toLowerCase(Locale.ENGLISH), line.substring(separator + 1).trim());
+        }
+
+        return headers;
+    }
+
+    private static String readLine(InputStream input) throws IOException {
+        StringBuilder line = new StringBuilder();
+
+        for (int read = input.read(); read != '\n'; read = input.read()) {
+            if (read == -1) {
+                throw new EOFException();
+            }
+
+            if (read != '\r') {
+                line.append((char) read);
+            }
+        }
+
+        return line.toString();
+    }
+}
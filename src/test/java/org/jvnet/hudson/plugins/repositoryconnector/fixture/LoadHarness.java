@@ -0,0 +1,150 @@
+package org.jvnet.hudson.plugins.repositoryconnector.fixture;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs an operation a number of times from concurrent threads and reports the throughput and latency percentiles.
+ */
+public class LoadHarness {
+
+    private final int operations;
+
+    private final int threads;
+
+    public LoadHarness(int threads, int operations) {
+        this.threads = threads;
+        this.operations = operations;
+    }
+
+    public Report run(String name, Operation operation) throws InterruptedException {
+        long[] latencies = new long[operations];
+
+        AtomicInteger failures = new AtomicInteger();
+        AtomicReference<Throwable> firstFailure = new AtomicReference<>();
+
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(operations);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int i = 0; i < operations; i++) {
+                int index = i;
+
+                executor.execute(() -> {
+                    try {
+                        start.await();
+
+                        long started = System.nanoTime();
+                        try {
+                            operation.run(index);
+                        } catch (Exception | AssertionError e) {
+                            failures.incrementAndGet();
+                            firstFailure.compareAndSet(null, e);
+                        }
+
+                        latencies[index] = System.nanoTime() - started;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+
+            long started = System.nanoTime();
+
+            start.countDown();
+            done.await();
+
+            return new Report(name, threads, latencies, System.nanoTime() - started, failures.get(), firstFailure.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * A single operation, the index is unique within a run.
+     */
+    @FunctionalInterface
+    public interface Operation {
+
+        void run(int index) throws Exception;
+    }
+
+    public static final class Report {
+
+        private final long elapsed;
+
+        private final int failures;
+
+        private final Throwable firstFailure;
+
+        private final long[] latencies;
+
+        private final String name;
+
+        private final int threads;
+
+        Report(String name, int threads, long[] latencies, long elapsed, int failures, Throwable firstFailure) {
+            this.name = name;
+            this.threads = threads;
+            this.elapsed = elapsed;
+            this.failures = failures;
+            this.firstFailure = firstFailure;
+
+            this.latencies = latencies.clone();
+            Arrays.sort(this.latencies);
+        }
+
+        public int getFailures() {
+            return failures;
+        }
+
+        public Throwable getFirstFailure() {
+            return firstFailure;
+        }
+
+        public int getOperations() {
+            return latencies.length;
+        }
+
+        /**
+         * Returns the latency in milliseconds below which the given percentage of operations completed.
+         */
+        public double getPercentile(double percentile) {
+            if (latencies.length == 0) {
+                return 0;
+            }
+
+            // nearest rank
+            int rank = (int) Math.ceil(percentile / 100 * latencies.length);
+            return toMillis(latencies[Math.max(rank, 1) - 1]);
+        }
+
+        /**
+         * Returns the completed operations per second.
+         */
+        public double getThroughput() {
+            return elapsed == 0 ? 0 : latencies.length / (elapsed / (double) TimeUnit.SECONDS.toNanos(1));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(
+                    "%s: %d operations, %d threads, %d failures, %.1f ops/s, latency ms p50=%.1f p90=%.1f p99=%.1f max=%.1f",
+                    name, latencies.length, threads, failures, getThroughput(), getPercentile(50), getPercentile(90),
+                    getPercentile(99), getPercentile(100));
+        }
+
+        private static double toMillis(long nanos) {
+            return nanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.jvnet.hudson.plugins.repositoryconnector.fixture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository;
+import org.jvnet.hudson.plugins.repositoryconnector.Repository.RepositoryType;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.Aether;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherBuilderFactory;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherConstants;
+import org.jvnet.hudson.plugins.repositoryconnector.fixture.LoadHarness.Report;
+import org.jvnet.hudson.plugins.repositoryconnector.util.PomGenerator;
+import org.jvnet.hudson.plugins.repositoryconnector.util.VersionFilter;
+
+import hudson.model.Run;
+
+/**
+ * Drives concurrent version lookups, resolutions and deployments against a {@link FixtureRepository}.
+ * <p>
+ * The defaults keep this quick enough for every build, production load is reproduced by overriding them, ie:
+ *
+ * <pre>
+ * mvn verify -Dit.test=LoadHarnessIT -Dload.threads=32 -Dload.operations=5000 -Dload.latency=80 -Dload.bandwidth=1048576
+ * </pre>
+ */
+public class LoadHarnessIT {
+
+    private static final Logger logger = Logger.getLogger(LoadHarnessIT.class.getName());
+
+    private static final String ARTIFACT_ID = "load";
+
+    private static final String GROUP_ID = "repository-connector-test";
+
+    private static final String REPOSITORY_ID = "fixture";
+
+    private static final String[] VERSIONS = IntStream.rangeClosed(1, 20)
+            .mapToObj(minor -> "1." + minor + ".0")
+            .toArray(String[]::new);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private LoadHarness harness;
+
+    private FixtureRepository repository;
+
+    @Before
+    public void before() throws IOException {
+        repository = new FixtureRepository()
+                .setArtifactSize(Integer.getInteger("load.artifactSize", 64 * 1024))
+                .setLatency(Long.getLong("load.latency", 0))
+                .setBandwidth(Long.getLong("load.bandwidth", 0))
+                .addArtifact(GROUP_ID, ARTIFACT_ID, VERSIONS);
+
+        harness = new LoadHarness(Integer.getInteger("load.threads", 4), Integer.getInteger("load.operations", 40));
+    }
+
+    @After
+    public void after() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    public void testDeploy() throws Exception {
+        File jar = folder.newFile("load.jar");
+        Files.write(jar.toPath(), new byte[1024]);
+
+        File local = folder.newFolder();
+
+        Report report = run("deploy", index -> {
+            // concurrent builds deploy different artifacts, metadata of the same one would be overwritten in any order
+            Artifact artifact = new Artifact(GROUP_ID, "deployed-" + index, "2.0.0");
+            artifact.setTargetFileName(jar.getAbsolutePath());
+            artifact.setPomFile(PomGenerator.generate(artifact).getAbsolutePath());
+
+            assertTrue(createAether(local).deployAll(REPOSITORY_ID, Collections.singletonList(artifact)).isEmpty());
+        });
+
+        assertEquals(0, report.getFailures());
+        assertNotNull(repository.getFile(GROUP_ID + "/deployed-0/2.0.0/deployed-0-2.0.0.jar"));
+    }
+
+    @Test
+    public void testErrors() throws Exception {
+        repository.setErrorRate(1);
+
+        Report report = run("errors", index -> createAether(folder.newFolder()).resolve(null, createArtifact(index)));
+        assertEquals(report.getOperations(), report.getFailures());
+    }
+
+    @Test
+    public void testLatency() throws Exception {
+        repository.setLatency(Math.max(Long.getLong("load.latency", 0), 50));
+
+        Report report = run("latency", index -> createAether(folder.newFolder()).resolve(null, createArtifact(index)));
+
+        assertEquals(0, report.getFailures());
+        assertTrue(report.getPercentile(50) >= 50);
+    }
+
+    @Test
+    public void testResolve() throws Exception {
+        // a new local repository for every operation, so everything is downloaded
+        Report report = run("resolve", index -> {
+            File resolved = createAether(folder.newFolder()).resolve(null, createArtifact(index));
+            assertTrue(resolved.exists());
+        });
+
+        assertEquals(0, report.getFailures());
+    }
+
+    @Test
+    public void testVersions() throws Exception {
+        File local = folder.newFolder();
+
+        // a new instance for every operation, same as rendering a version parameter
+        Report report = run("versions", index -> assertFalse(createAether(local)
+                .resolveAvailableVersions(null, createArtifact(index), false, VersionFilter.ALL).isEmpty()));
+
+        assertEquals(0, report.getFailures());
+    }
+
+    private Aether createAether(File local) {
+        // metadata is always downloaded again, otherwise only the first lookup would reach the repository
+        RepositoryType policy = new RepositoryType(AetherConstants.DEFAULT_CHECKSUM, RepositoryPolicy.UPDATE_POLICY_ALWAYS,
+                null, null);
+
+        Repository fixture = new Repository(REPOSITORY_ID, repository.getUrl());
+        fixture.setReleaseRepository(policy);
+        fixture.setSnapshotRepository(policy);
+
+        return new AetherBuilderFactory(local.getAbsolutePath(), fixture)
+                .createAetherBuilder((Run<?, ?>) null)
+                .build();
+    }
+
+    private Artifact createArtifact(int index) {
+        return new Artifact(GROUP_ID, ARTIFACT_ID, VERSIONS[index % VERSIONS.length]);
+    }
+
+    private Report run(String name, LoadHarness.Operation operation) throws InterruptedException {
+        long requests = repository.getRequests();
+        long bytes = repository.getBytesServed();
+
+        Report report = harness.run(name, operation);
+
+        long served = repository.getBytesServed() - bytes;
+        long requested = repository.getRequests() - requests;
+
+        logger.log(Level.INFO, () -> String.format("%s, %d requests, %d bytes served", report, requested, served));
+
+        return report;
+    }
+}
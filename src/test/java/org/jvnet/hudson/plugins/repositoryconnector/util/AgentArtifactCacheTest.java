@@ -0,0 +1,141 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+
+import hudson.FilePath;
+
+public class AgentArtifactCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testChecksum() throws Exception {
+        File file = folder.newFile("artifact.jar");
+        Files.write(file.toPath(), "hello".getBytes("UTF-8"));
+
+        assertEquals("aaf4c61ddcc5e8a2dabede0f3b482cd9aea9434d", AgentArtifactCache.getChecksum(file));
+    }
+
+    @Test
+    public void testChecksumBounded() throws Exception {
+        File file = folder.newFile("artifact.jar");
+
+        // downloaded again, replaces the previous entry of the file
+        for (int i = 0; i < 10; i++) {
+            Files.write(file.toPath(), ("content " + i).getBytes("UTF-8"));
+            file.setLastModified(1000L * i);
+
+            AgentArtifactCache.getChecksum(file);
+        }
+
+        for (int i = 0; i < AgentArtifactCache.MAX_CHECKSUMS + 10; i++) {
+            AgentArtifactCache.getChecksum(folder.newFile("artifact-" + i + ".jar"));
+        }
+
+        assertEquals(AgentArtifactCache.MAX_CHECKSUMS, AgentArtifactCache.getChecksumCount());
+    }
+
+    @Test
+    public void testEntryPath() {
+        Artifact artifact = new Artifact("org.example", "artifactId", "1.0.0");
+
+        assertEquals("org/example/artifactId/1.0.0/artifactId-1.0.0.jar",
+                AgentArtifactCache.getEntryPath(artifact, new File("artifactId-1.0.0.jar")));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws Exception {
+        Path cache = folder.newFolder("cache").toPath();
+
+        Path oldest = createEntry(cache, "a/oldest.jar", 100, 1000);
+        Path middle = createEntry(cache, "b/middle.jar", 100, 2000);
+        Path newest = createEntry(cache, "c/newest.jar", 100, 3000);
+
+        assertEquals(200, AgentArtifactCache.evict(cache, 150, 100));
+
+        assertFalse(Files.exists(oldest));
+        assertFalse(Files.exists(oldest.resolveSibling("oldest.jar.sha1")));
+        assertFalse(Files.exists(middle));
+        assertTrue(Files.exists(newest));
+        assertTrue(Files.exists(newest.resolveSibling("newest.jar.sha1")));
+    }
+
+    @Test
+    public void testEvictRunningSize() throws Exception {
+        Path cache = folder.newFolder("cache").toPath();
+
+        Path oldest = createEntry(cache, "a/oldest.jar", 100, 1000);
+        assertEquals(0, AgentArtifactCache.evict(cache, 250, 100));
+
+        // added by another build of this agent, only counted through the running size
+        Path middle = createEntry(cache, "b/middle.jar", 100, 2000);
+        assertEquals(0, AgentArtifactCache.evict(cache, 250, 100));
+
+        Path newest = createEntry(cache, "c/newest.jar", 100, 3000);
+        assertEquals(100, AgentArtifactCache.evict(cache, 250, 100));
+
+        assertFalse(Files.exists(oldest));
+        assertTrue(Files.exists(middle));
+        assertTrue(Files.exists(newest));
+    }
+
+    @Test
+    public void testEvictSkipsTransfers() throws Exception {
+        Path cache = folder.newFolder("cache").toPath();
+
+        Path entry = createEntry(cache, "a/entry.jar", 100, 2000);
+
+        // in flight for another build
+        Path transfer = cache.resolve("a/other.jar.0123.tmp");
+        Files.write(transfer, new byte[1000]);
+        Files.setLastModifiedTime(transfer, FileTime.fromMillis(1000));
+
+        assertEquals(0, AgentArtifactCache.evict(cache, 150, 100));
+
+        assertTrue(Files.exists(entry));
+        assertTrue(Files.exists(transfer));
+    }
+
+    @Test
+    public void testEvictUnlimited() throws Exception {
+        Path cache = folder.newFolder("cache").toPath();
+        Path entry = createEntry(cache, "a/entry.jar", 100, 1000);
+
+        assertEquals(0, AgentArtifactCache.evict(cache, 0, 100));
+        assertTrue(Files.exists(entry));
+    }
+
+    @Test
+    public void testLocalTarget() {
+        FilePath target = new FilePath(folder.getRoot());
+
+        assertNull(AgentArtifactCache.forTarget(target, "cache", 100));
+        assertNull(AgentArtifactCache.forTarget(target, null, 100));
+    }
+
+    private Path createEntry(Path cache, String name, int size, long lastModified) throws IOException {
+        Path entry = cache.resolve(name);
+        Files.createDirectories(entry.getParent());
+
+        Files.write(entry, new byte[size]);
+        Files.write(entry.resolveSibling(entry.getFileName() + ".sha1"), "checksum".getBytes("UTF-8"));
+        Files.setLastModifiedTime(entry, FileTime.fromMillis(lastModified));
+
+        return entry;
+    }
+}
@@ -0,0 +1,117 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.aether.repository.Authentication;
+import org.eclipse.aether.util.repository.AuthenticationBuilder;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CredentialsCacheTest {
+
+    private CredentialsCache cache;
+
+    private AtomicLong clock;
+
+    private AtomicInteger lookups;
+
+    @Before
+    public void before() {
+        clock = new AtomicLong();
+        lookups = new AtomicInteger();
+
+        cache = new CredentialsCache(clock::get, 30);
+    }
+
+    @Test
+    public void testClear() {
+        cache.get("run:job#1", "id", this::lookup);
+        cache.clear();
+
+        assertEquals(0, cache.size());
+
+        cache.get("run:job#1", "id", this::lookup);
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testExpired() {
+        Authentication authentication = cache.get("run:job#1", "id", this::lookup);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(31));
+
+        Authentication refreshed = cache.get("run:job#1", "id", this::lookup);
+        assertEquals(2, lookups.get());
+        assertEquals(authentication, refreshed);
+    }
+
+    @Test
+    public void testGet() {
+        Authentication authentication = cache.get("run:job#1", "id", this::lookup);
+
+        assertSame(authentication, cache.get("run:job#1", "id", this::lookup));
+        assertEquals(1, lookups.get());
+
+        // another run looks its credentials up again
+        cache.get("run:job#2", "id", this::lookup);
+        assertEquals(2, lookups.get());
+    }
+
+    @Test
+    public void testGetMissing() {
+        assertNull(cache.get("run:job#1", "missing", id -> {
+            lookups.incrementAndGet();
+            return null;
+        }));
+
+        assertNull(cache.get("run:job#1", "missing", this::lookup));
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testGetIndexed() {
+        Authentication first = cache.getIndexed("item:job", "first", this::index);
+
+        assertSame(first, cache.getIndexed("item:job", "first", this::index));
+        assertEquals(createAuthentication("second"), cache.getIndexed("item:job", "second", this::index));
+        assertNull(cache.getIndexed("item:job", "missing", this::index));
+
+        assertEquals(1, lookups.get());
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEvicted() {
+        for (int i = 0; i <= CredentialsCache.MAX_ENTRIES; i++) {
+            cache.get("run:job#" + i, "id", this::lookup);
+        }
+
+        assertEquals(CredentialsCache.MAX_ENTRIES, cache.size());
+    }
+
+    private Authentication createAuthentication(String user) {
+        return new AuthenticationBuilder().addUsername(user).build();
+    }
+
+    private Map<String, Authentication> index() {
+        lookups.incrementAndGet();
+
+        Map<String, Authentication> index = new HashMap<>();
+        index.put("first", createAuthentication("first"));
+        index.put("second", createAuthentication("second"));
+
+        return index;
+    }
+
+    private Authentication lookup(String credentialsId) {
+        lookups.incrementAndGet();
+        return createAuthentication(credentialsId);
+    }
+}
@@ -0,0 +1,177 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.LocalRepositoryLocks;
+
+public class LocalRepositoryIndexTest {
+
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private AtomicLong clock;
+
+    private LocalRepositoryIndex index;
+
+    private File repository;
+
+    @Before
+    public void before() throws IOException {
+        repository = folder.newFolder("repository");
+        clock = new AtomicLong(System.currentTimeMillis());
+
+        index = new LocalRepositoryIndex(repository.toPath(), clock::get);
+    }
+
+    @Test
+    public void testEvictExpired() throws IOException {
+        File old = createVersion("old", 100, 3 * DAY);
+        File recent = createVersion("recent", 100, DAY);
+
+        LocalRepositoryIndex.Result result = index.evict(0, 2 * DAY);
+
+        assertEquals(1, result.getEvicted());
+        assertEquals(100, result.getFreed());
+        assertEquals(100, result.getSize());
+
+        assertFalse(old.exists());
+        assertTrue(recent.exists());
+
+        // the artifact directory is kept for its metadata
+        assertTrue(old.getParentFile().isDirectory());
+    }
+
+    @Test
+    public void testEvictGracePeriod() throws IOException {
+        File version = createVersion("used", 100, DAY);
+        index.touch(new File(version, "used-1.0.0.jar"));
+
+        assertEquals(0, index.evict(1, 0).getEvicted());
+        assertTrue(version.exists());
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() throws IOException {
+        File first = createVersion("first", 100, 3 * DAY);
+        File second = createVersion("second", 100, 2 * DAY);
+        File third = createVersion("third", 100, 2 * DAY);
+
+        // used more recently than its files were modified
+        clock.addAndGet(-DAY);
+        index.touch(new File(first, "first-1.0.0.jar"));
+        clock.addAndGet(DAY);
+
+        LocalRepositoryIndex.Result result = index.evict(250, 0);
+
+        assertEquals(1, result.getEvicted());
+        assertEquals(200, result.getSize());
+
+        assertTrue(first.exists());
+        assertTrue(second.exists() ^ third.exists());
+    }
+
+    @Test
+    public void testEvictLocked() throws Exception {
+        File locked = createVersion("locked", 100, 3 * DAY);
+
+        CountDownLatch acquired = new CountDownLatch(1);
+        CountDownLatch evicted = new CountDownLatch(1);
+
+        // a resolution of the version in progress
+        Thread resolution = new Thread(() -> {
+            try (LocalRepositoryLocks.Held held = LocalRepositoryLocks.tryLockVersion(repository.toPath(),
+                    "repository-connector-test", "locked", "1.0.0")) {
+                acquired.countDown();
+                evicted.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        resolution.start();
+
+        try {
+            assertTrue(acquired.await(10, TimeUnit.SECONDS));
+
+            assertEquals(0, index.evict(0, DAY).getEvicted());
+            assertTrue(locked.exists());
+        } finally {
+            evicted.countDown();
+            resolution.join();
+        }
+
+        assertEquals(1, index.evict(0, DAY).getEvicted());
+        assertFalse(locked.exists());
+    }
+
+    @Test
+    public void testEvictNothing() throws IOException {
+        createVersion("kept", 100, 3 * DAY);
+
+        LocalRepositoryIndex.Result result = index.evict(0, 0);
+
+        assertEquals(0, result.getEvicted());
+        assertEquals(100, result.getSize());
+    }
+
+    @Test
+    public void testHiddenDirectory() throws IOException {
+        File locks = new File(repository, ".locks");
+        assertTrue(locks.mkdirs());
+
+        File lockFile = new File(locks, "artifact_repository-connector-test_locked_1.0.0.lock");
+        Files.write(lockFile.toPath(), new byte[100]);
+        assertTrue(lockFile.setLastModified(clock.get() - 3 * DAY));
+
+        LocalRepositoryIndex.Result result = index.evict(1, DAY);
+
+        assertEquals(0, result.getEvicted());
+        assertTrue(lockFile.exists());
+    }
+
+    @Test
+    public void testSaved() throws IOException {
+        File version = createVersion("saved", 100, 3 * DAY);
+
+        clock.addAndGet(-DAY);
+        index.touch(new File(version, "saved-1.0.0.jar"));
+        clock.addAndGet(DAY);
+
+        index.save();
+        assertTrue(new File(repository, LocalRepositoryIndex.INDEX_FILE).isFile());
+
+        // expired by the modification time, but not by the recorded use
+        LocalRepositoryIndex loaded = new LocalRepositoryIndex(repository.toPath(), clock::get);
+        assertEquals(0, loaded.evict(0, 2 * DAY).getEvicted());
+        assertTrue(version.exists());
+    }
+
+    private File createVersion(String artifactId, int size, long age) throws IOException {
+        File artifact = new File(repository, "repository-connector-test/" + artifactId);
+        File version = new File(artifact, "1.0.0");
+        assertTrue(version.mkdirs());
+
+        File metadata = new File(artifact, "maven-metadata-remote.xml");
+        Files.write(metadata.toPath(), new byte[10]);
+
+        File jar = new File(version, artifactId + "-1.0.0.jar");
+        Files.write(jar.toPath(), new byte[size]);
+        assertTrue(jar.setLastModified(clock.get() - age));
+
+        return version;
+    }
+}
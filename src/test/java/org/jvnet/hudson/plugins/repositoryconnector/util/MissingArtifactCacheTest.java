@@ -0,0 +1,104 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class MissingArtifactCacheTest {
+
+    private static final String ARTIFACT = "repository-connector-test:missing:jar:1.0.0";
+
+    private static final String REPOSITORIES = "remote=file:///remote/";
+
+    private MissingArtifactCache cache;
+
+    private AtomicLong clock;
+
+    @Before
+    public void before() {
+        clock = new AtomicLong();
+        cache = new MissingArtifactCache(clock::get);
+    }
+
+    @Test
+    public void testClear() {
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+        cache.putMissing(ARTIFACT, "other=file:///other/");
+
+        assertEquals(2, cache.clear());
+        assertEquals(0, cache.size());
+        assertFalse(cache.isMissing(ARTIFACT, REPOSITORIES));
+    }
+
+    @Test
+    public void testDisabled() {
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+        cache.configure(0, 10);
+
+        assertEquals(0, cache.size());
+
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+        assertFalse(cache.isMissing(ARTIFACT, REPOSITORIES));
+    }
+
+    @Test
+    public void testExpired() {
+        cache.configure(30, 10);
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        assertTrue(cache.isMissing(ARTIFACT, REPOSITORIES));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertFalse(cache.isMissing(ARTIFACT, REPOSITORIES));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testInvalidate() {
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+        cache.putMissing(ARTIFACT, "other=file:///other/");
+        cache.putMissing(ARTIFACT + "-SNAPSHOT", REPOSITORIES);
+
+        cache.invalidate(ARTIFACT);
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.isMissing(ARTIFACT + "-SNAPSHOT", REPOSITORIES));
+    }
+
+    @Test
+    public void testMaxEntries() {
+        cache.configure(30, 2);
+
+        cache.putMissing("a", REPOSITORIES);
+        cache.putMissing("b", REPOSITORIES);
+
+        // a is now the most recently used entry
+        assertTrue(cache.isMissing("a", REPOSITORIES));
+
+        cache.putMissing("c", REPOSITORIES);
+
+        assertEquals(2, cache.size());
+        assertTrue(cache.isMissing("a", REPOSITORIES));
+        assertFalse(cache.isMissing("b", REPOSITORIES));
+        assertTrue(cache.isMissing("c", REPOSITORIES));
+
+        cache.configure(30, 1);
+        assertEquals(1, cache.size());
+        assertTrue(cache.isMissing("c", REPOSITORIES));
+    }
+
+    @Test
+    public void testRepositories() {
+        cache.putMissing(ARTIFACT, REPOSITORIES);
+
+        assertTrue(cache.isMissing(ARTIFACT, REPOSITORIES));
+        assertFalse(cache.isMissing(ARTIFACT, "remote=file:///moved/"));
+    }
+}
@@ -0,0 +1,48 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Generates the pom deployed alongside an artifact that does not have one, including writing it to a temporary file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PomGeneratorBenchmark {
+
+    private Artifact artifact;
+
+    @Setup
+    public void setup() {
+        artifact = new Artifact("org.example", "benchmark", "1.0.0");
+        artifact.setTargetFileName("target/benchmark.tar.gz");
+    }
+
+    @Benchmark
+    public long generate() throws IOException {
+        File pom = PomGenerator.generate(artifact);
+        long length = pom.length();
+
+        // not left for the exit hook, there would be millions of them
+        pom.delete();
+
+        return length;
+    }
+}
@@ -0,0 +1,71 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.util.concurrent.TimeUnit;
+
+import org.jvnet.hudson.plugins.repositoryconnector.Artifact;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import hudson.model.FreeStyleBuild;
+import hudson.model.TaskListener;
+
+/**
+ * Expands the coordinates of an artifact for a finished build, token macros are looked up through Jenkins so an
+ * instance is started for the whole trial.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenMacroExpanderBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean macros;
+
+    private Artifact artifact;
+
+    private TokenMacroExpander expander;
+
+    private JenkinsRule jenkins;
+
+    @Setup(Level.Trial)
+    public void setup() throws Throwable {
+        jenkins = new JenkinsRule();
+        jenkins.before();
+
+        FreeStyleBuild build = jenkins.buildAndAssertSuccess(jenkins.createFreeStyleProject("benchmark"));
+        expander = new TokenMacroExpander(build, TaskListener.NULL, build.getWorkspace());
+
+        if (macros) {
+            artifact = new Artifact("org.example", "${JOB_NAME}", "1.0.${BUILD_NUMBER}");
+            artifact.setTargetFileName("target/${JOB_NAME}-${BUILD_NUMBER}.jar");
+        } else {
+            artifact = new Artifact("org.example", "benchmark", "1.0.1");
+            artifact.setTargetFileName("target/benchmark-1.jar");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        jenkins.after();
+    }
+
+    @Benchmark
+    public Artifact expand() throws Exception {
+        return expander.expand(artifact);
+    }
+}
@@ -0,0 +1,55 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Filters the versions of an artifact with 10k versions, every tenth one a snapshot.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VersionFilterBenchmark {
+
+    @Param({ "true", "false" })
+    public boolean snapshots;
+
+    private VersionFilter filter;
+
+    private String[] versions;
+
+    @Setup
+    public void setup() {
+        filter = new VersionFilter(true, snapshots);
+        versions = IntStream.range(0, 10000)
+                .mapToObj(i -> (1 + i / 100) + "." + (i % 100) + ".0" + (i % 10 == 0 ? "-SNAPSHOT" : ""))
+                .toArray(String[]::new);
+    }
+
+    @Benchmark
+    public int apply() {
+        int accepted = 0;
+        for (String version : versions) {
+            if (filter.apply(version)) {
+                accepted++;
+            }
+        }
+
+        return accepted;
+    }
+}
@@ -0,0 +1,192 @@
+package org.jvnet.hudson.plugins.repositoryconnector.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.jvnet.hudson.plugins.repositoryconnector.aether.AetherException;
+
+public class VersionListCacheTest {
+
+    private VersionListCache cache;
+
+    private AtomicLong clock;
+
+    private List<Runnable> scheduled;
+
+    @Before
+    public void before() {
+        clock = new AtomicLong();
+        scheduled = new ArrayList<>();
+
+        // background refreshes only run when the test says so
+        cache = new VersionListCache(scheduled::add, clock::get);
+    }
+
+    @Test
+    public void testCopyOnPut() {
+        VersionListCache.Key key = createKey("artifactId");
+        List<String> versions = new ArrayList<>(Arrays.asList("2", "1"));
+
+        cache.put(key, versions);
+        versions.add("0");
+
+        assertEquals(Arrays.asList("2", "1"), cache.get(key));
+    }
+
+    @Test
+    public void testDisabled() {
+        cache.configure(0, 10);
+
+        VersionListCache.Key key = createKey("artifactId");
+        cache.put(key, Arrays.asList("1"));
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testEvictLeastRecentlyUsed() {
+        cache.configure(60, 2);
+
+        VersionListCache.Key first = createKey("first");
+        VersionListCache.Key second = createKey("second");
+        VersionListCache.Key third = createKey("third");
+
+        cache.put(first, Arrays.asList("1"));
+        cache.put(second, Arrays.asList("2"));
+
+        // makes 'second' the least recently used
+        cache.get(first);
+        cache.put(third, Arrays.asList("3"));
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(second));
+        assertEquals(Arrays.asList("1"), cache.get(first));
+        assertEquals(Arrays.asList("3"), cache.get(third));
+    }
+
+    @Test
+    public void testFailedRefreshKeepsVersions() throws Exception {
+        VersionListCache.Key key = createKey("artifactId");
+        cache.get(key, () -> Arrays.asList("1"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(VersionListCache.DEFAULT_TTL + 1));
+        cache.get(key, () -> {
+            throw new AetherException("failed");
+        });
+
+        scheduled.forEach(Runnable::run);
+
+        assertEquals(Arrays.asList("1"), cache.get(key, () -> Arrays.asList("2")));
+    }
+
+    @Test
+    public void testInvalidate() {
+        VersionListCache.Key key = createKey("artifactId");
+        cache.put(key, Arrays.asList("1"));
+
+        cache.invalidate(createKey("artifactId"));
+
+        assertNull(cache.get(key));
+    }
+
+    @Test
+    public void testLoadFailure() {
+        try {
+            cache.get(createKey("artifactId"), () -> {
+                throw new AetherException("failed");
+            });
+            fail("expected failure");
+        } catch (AetherException e) {
+            assertEquals("failed", e.getMessage());
+        }
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testScoped() throws Exception {
+        // nothing visible with the credentials of the first folder
+        cache.get(createKey("first", "artifactId"), Collections::emptyList);
+
+        assertEquals(Arrays.asList("1"), cache.get(createKey("second", "artifactId"), () -> Arrays.asList("1")));
+        assertEquals(Collections.emptyList(), cache.get(createKey("first", "artifactId"), () -> Arrays.asList("1")));
+    }
+
+    @Test
+    public void testSingleFlight() throws Exception {
+        VersionListCache.Key key = createKey("artifactId");
+
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CompletableFuture<Void> release = new CompletableFuture<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            Future<List<String>> first = executor.submit(() -> cache.get(key, () -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                release.join();
+
+                return Arrays.asList("1");
+            }));
+
+            loading.await();
+
+            Future<List<String>> second = executor.submit(() -> cache.get(key, () -> {
+                loads.incrementAndGet();
+                return Arrays.asList("2");
+            }));
+
+            release.complete(null);
+
+            assertEquals(Arrays.asList("1"), first.get());
+            assertEquals(Arrays.asList("1"), second.get());
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        VersionListCache.Key key = createKey("artifactId");
+        List<String> versions = cache.get(key, () -> Arrays.asList("1"));
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(VersionListCache.DEFAULT_TTL + 1));
+
+        // stale versions are returned right away, only one refresh is scheduled
+        assertSame(versions, cache.get(key, () -> Arrays.asList("2", "1")));
+        assertSame(versions, cache.get(key, () -> Arrays.asList("2", "1")));
+        assertEquals(1, scheduled.size());
+
+        scheduled.get(0).run();
+
+        assertEquals(Arrays.asList("2", "1"), cache.get(key, () -> Arrays.asList("3")));
+    }
+
+    private VersionListCache.Key createKey(String artifactId) {
+        return createKey("folder", artifactId);
+    }
+
+    private VersionListCache.Key createKey(String scope, String artifactId) {
+        return new VersionListCache.Key(scope, null, "groupId", artifactId, true, true, false, 0);
+    }
+}